@@ -60,6 +60,7 @@ def gen_all_java(install_dir):
     gen.create_of_classes()
     gen.create_of_const_enums()
     gen.create_of_factories()
+    gen.create_packed_match_layout()
 
 JavaGeneratorOptions = namedtuple("JavaGeneratorOptions", ("instrument",))
 
@@ -159,6 +160,11 @@ class JavaGenerator(object):
                 self.render_class(clazz=factory_class, template="of_factory_class.java", factory=factory_class, model=self.java_model)
             self.render_class(clazz=java_model.OFGenericClass(package="org.projectfloodlight.openflow.protocol", name="OFFactories"), template="of_factories.java", versions=self.java_model.versions)
 
+    def create_packed_match_layout(self):
+        words, fields = self.java_model.packed_match_layout
+        self.render_class(clazz=java_model.OFGenericClass(package="org.projectfloodlight.openflow.protocol.match", name="PackedMatchLayout"),
+                template="packed_match_layout.java", words=words, fields=fields)
+
 def copy_prewrite_tree(basedir):
     """ Recursively copy the directory structure from ./java_gen/pre-write
        into $basedir"""
@@ -84,6 +84,21 @@ class JavaModel(object):
     # interfaces that are virtual
     virtual_interfaces = set(['OFOxm', 'OFInstruction', 'OFFlowMod', 'OFBsnVport', 'OFOxs' ])
 
+    # registry of (hot) message interfaces for which a zero-copy View implementation
+    # is generated in addition to the immutable class. A View is backed by a retained
+    # slice of the input ByteBuf and decodes fields on demand. (see OFFactory.getViewReader())
+    # set(java_names)
+    view_interfaces = set(['OFPacketIn', 'OFFlowRemoved', 'OFPortStatus', 'OFEchoRequest', 'OFEchoReply' ])
+
+    # registry of (multipart reply) interfaces whose 'entries' can be streamed to an OFListVisitor
+    # while reading, instead of being collected into a list (see OFFactory.get*StreamReader())
+    # set(java_names)
+    stream_interfaces = set(['OFFlowStatsReply', 'OFPortStatsReply', 'OFQueueStatsReply',
+                             'OFTableStatsReply', 'OFTableFeaturesStatsReply', 'OFPortDescStatsReply',
+                             'OFGroupStatsReply', 'OFGroupDescStatsReply',
+                             'OFMeterStatsReply', 'OFMeterConfigStatsReply',
+                             'OFBsnGentableEntryStatsReply', 'OFBsnGentableEntryDescStatsReply' ])
+
     # Registry of nullable properties:
     # ${java_class_name} -> set(${java_property_name})
     nullable_map = defaultdict(lambda: set(),
@@ -296,6 +311,62 @@ class JavaModel(object):
                                        masked=oxm.ir_class.name.endswith("_masked")))
                   for oxm in self.interfaces if oxm.ir_class.is_subclassof("of_oxm") )
 
+    @property
+    @memoize
+    def packed_match_layout(self):
+        """ Fixed layout of the match fields in the long[] words of a PackedMatch.
+
+            Each field with a fixed length OXM value gets a slot; fields of up to 8 bytes are
+            packed first-fit into shared words (at a bit shift), longer fields start a run of
+            words of their own. Fields are converted from/to OXMs of the latest version that
+            supports them; header is the wire encoding of the fixed members that precede the
+            value (type_len and, for experimenter OXMs, the experimenter id).
+            Returns (number of words, list of PackedMatchField)
+        """
+        PackedMatchField = namedtuple("PackedMatchField", ["value", "version", "length", "word", "shift",
+                                                           "header_length", "header", "masked_header"])
+        def header(clazz):
+            value_offset = clazz.member_by_name("value").member.offset
+            res = 0
+            for m in clazz.ir_class.members:
+                if m.offset >= value_offset:
+                    continue
+                res = (res << (m.base_length * 8)) | m.value
+            return res
+
+        interfaces = dict((oxm.ir_class.name, oxm) for oxm in self.interfaces if oxm.ir_class.is_subclassof("of_oxm"))
+        fields = []
+        word_free = [] # free bytes at the low end of each word
+        for oxm in self.interfaces:
+            name = oxm.ir_class.name
+            if not oxm.ir_class.is_subclassof("of_oxm") or name.endswith("_masked"):
+                continue
+            version = max(oxm.all_versions, key=lambda v: v.int_version)
+            clazz = oxm.versioned_class(version)
+            length = clazz.member_by_name("value").fixed_length
+            if length is None:
+                continue
+            masked_header = None
+            masked = interfaces.get(name + "_masked")
+            if masked and masked.has_version(version):
+                masked_header = header(masked.versioned_class(version))
+            if length <= 8:
+                word = find(lambda w: word_free[w] >= length, range(len(word_free)))
+                if word is None:
+                    word = len(word_free)
+                    word_free.append(8)
+                word_free[word] -= length
+                shift = word_free[word] * 8
+            else:
+                word = len(word_free)
+                word_free.extend([0] * ((length + 7) // 8))
+                shift = 0
+            fields.append(PackedMatchField(value=re.sub(r'^of_oxm_', r'', name).upper(),
+                                           version=version, length=length, word=word, shift=shift,
+                                           header_length=clazz.member_by_name("value").member.offset,
+                                           header=header(clazz), masked_header=masked_header))
+        return (len(word_free), fields)
+
     @property
     @memoize
     def oxs_map(self):
@@ -421,16 +492,30 @@ class JavaOFInterface(object):
     @property
     @memoize
     def additional_parent_interfaces(self):
+        interfaces = []
         if loxi_utils.class_is_message(self.c_name) and not self.is_virtual:
             m = re.match(r'(.*)Request$', self.name)
             if m:
                 reply_name = m.group(1) + "Reply"
                 if model.interface_by_name(reply_name):
-                    return ["OFRequest<%s>" % reply_name ]
+                    interfaces.append("OFRequest<%s>" % reply_name)
             elif self.name == "OFBundleCtrlMsg":
                 reply_name = "OFBundleCtrlMsg"
-                return ["OFRequest<%s>" % reply_name ]
-        return []
+                interfaces.append("OFRequest<%s>" % reply_name)
+            elif re.match(r'.*StatsReply$', self.name):
+                entries = self.member_by_name("entries")
+                if entries is not None and entries.list_element_type is not None:
+                    interfaces.append("OFMultipartEntries<%s>" % entries.list_element_type)
+        if self.has_data_slice:
+            interfaces.append("OFDataSlice")
+        return interfaces
+
+    @property
+    @memoize
+    def has_data_slice(self):
+        """ true iff the 'data' payload of this interface can be read and set as a ByteBuf (see
+            OFDataSlice), i.e., it is the trailing byte[] member in all versions """
+        return not self.is_virtual and all(c.has_trailing_data for c in self.versioned_classes)
 
 
     def is_instance_of(self, other_class):
@@ -642,6 +727,18 @@ class JavaOFInterface(object):
 
         return tuple(virtual_members)
 
+    @property
+    @memoize
+    def stream_member(self):
+        """ return the list member that can be streamed to an OFListVisitor while reading
+            (see model.stream_interfaces), or None """
+        if self.name not in model.stream_interfaces:
+            return None
+        member = self.member_by_name("entries")
+        if member is None or member.list_element_type is None:
+            raise Exception("Interface %s: no list member 'entries' to stream" % self.name)
+        return member
+
     @property
     @memoize
     def is_virtual(self):
@@ -820,6 +917,59 @@ class JavaOFClass(object):
     def length_includes_align(self):
         return self.ir_class.params['length_includes_align'] == "True" if 'length_includes_align' in self.ir_class.params else False
 
+    @property
+    def has_view(self):
+        """ true iff a lazily decoding View implementation is generated for this class """
+        return self.interface.name in model.view_interfaces and not self.is_virtual
+
+    @property
+    def has_data_slice(self):
+        """ true iff the 'data' payload of this class can be read and set as a ByteBuf, see
+            JavaOFInterface.has_data_slice """
+        return self.interface.has_data_slice
+
+    @property
+    def has_trailing_data(self):
+        """ true iff the last wire member of this class is a byte[] 'data' payload """
+        last = self.ir_model_members[-1]
+        return last.name == "data" and last.java_type.public_type == "byte[]"
+
+    @property
+    def stream_member(self):
+        """ return the list member that the Reader of this class can stream to an OFListVisitor
+            (see model.stream_interfaces), or None """
+        if self.interface.stream_member is None or self.is_virtual:
+            return None
+        return self.member_by_name(self.interface.stream_member.name)
+
+    @property
+    @memoize
+    def view_layout(self):
+        """ return a list of (member, anchor, delta) tuples that describe where each wire member
+            of this class starts: 'delta' bytes after the end of the variable length member
+            'anchor', or 'delta' bytes after the start of the message if anchor is None.
+        """
+        if self.align or any(m.is_field_length_value for m in self.ir_model_members):
+            raise Exception("Class %s: View not supported for aligned classes or classes with field length members" % self.name)
+        layout = []
+        anchor, delta = None, 0
+        for m in self.ir_model_members:
+            layout.append((m, anchor, delta))
+            if m.member.is_fixed_length:
+                delta += m.member.base_length
+            else:
+                anchor, delta = m, 0
+        return layout
+
+    def view_offset(self, anchor, delta):
+        """ return a java expression evaluating to the offset described by (anchor, delta) in a View """
+        if anchor is None:
+            return str(delta)
+        elif delta == 0:
+            return "%sEnd()" % anchor.name
+        else:
+            return "%sEnd() + %d" % (anchor.name, delta)
+
     @property
     @memoize
     def superclass(self):
@@ -857,10 +1007,20 @@ class JavaMember(object):
     def getter_name(self):
         return ("is" if self.java_type.public_type == "boolean" else "get") + self.title_name
 
+    @property
+    def raw_getter_name(self):
+        """ name of the getter of the primitive value wrapped by the public type, if any """
+        return "getRaw" + self.title_name
+
     @property
     def setter_name(self):
         return "set" + self.title_name
 
+    @property
+    def with_name(self):
+        """ name of the method returning a copy of the object with this property changed """
+        return "with" + self.title_name
+
     @property
     def default_name(self):
         if self.is_fixed_value:
@@ -926,6 +1086,18 @@ class JavaMember(object):
     def is_data(self):
         return isinstance(self.member, OFDataMember) and self.name != "version"
 
+    @property
+    def list_element_type(self):
+        """ element type of a List member (e.g., OFFlowStatsEntry for List<OFFlowStatsEntry>), None
+            for other members """
+        m = re.match(r'List<(.*)>$', self.java_type.public_type)
+        return m.group(1) if m else None
+
+    @property
+    def fixed_length(self):
+        """ wire length of this member if it is fixed length, None otherwise """
+        return self.member.base_length if self.member.is_fixed_length else None
+
     @property
     def is_fixed_value(self):
         return hasattr(self.member, "value") or self.name == "version" \
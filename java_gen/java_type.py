@@ -5,7 +5,7 @@ import subprocess
 import time
 
 import loxi_globals
-from generic_utils import memoize
+from generic_utils import find, memoize
 import loxi_utils.loxi_utils as loxi_utils
 
 def erase_type_annotation(class_name):
@@ -74,15 +74,17 @@ def format_primitive_literal(t, value):
 ANY = 0xFFFFFFFFFFFFFFFF
 
 class VersionOp:
-    def __init__(self, version=ANY, read=None, write=None, default=None, funnel=None):
+    def __init__(self, version=ANY, read=None, write=None, default=None, funnel=None, skip=None, length=None):
         self.version = version
         self.read = read
         self.write = write
         self.default = default
         self.funnel = funnel
+        self.skip = skip
+        self.length = length
 
     def __str__(self):
-        return "[Version: %d, Read: '%s', Write: '%s', Default: '%s', Funnel: '%s' ]" % (self.version, self.read, self.write, self.default, self.funnel )
+        return "[Version: %d, Read: '%s', Write: '%s', Default: '%s', Funnel: '%s', Skip: '%s', Length: '%s' ]" % (self.version, self.read, self.write, self.default, self.funnel, self.skip, self.length )
 
 ### FIXME: This class should really be cleaned up
 class JType(object):
@@ -97,12 +99,15 @@ class JType(object):
             priv_type = pub_type
         self.priv_type = priv_type  # the internal storage type
         self.ops = {}
+        self.raw_type = None        # primitive the public type wraps, e.g. 'long' for 'MacAddress'
+        self.raw_ops = {}
+        self.lazy_list = False      # read as a LazyList, whose elements are decoded on access
 
     def set_priv_type(self, priv_type):
         self.priv_type = priv_type
         return self
 
-    def op(self, version=ANY, read=None, write=None, default=None, funnel=None, pub_type=ANY):
+    def op(self, version=ANY, read=None, write=None, default=None, funnel=None, skip=None, length=None, pub_type=ANY):
         """
         define operations to be performed for reading and writing this type
         (when read_op, write_op is called). The operations 'read' and 'write'
@@ -114,13 +119,51 @@ class JType(object):
                                 private type(False) or both (ALL)
         @param read read expression (either string or callable)s
         @param write write expression (either string or callable)
+        @param skip skip expression (either string or callable). Only needed for variable
+                    length types whose read expression does not consume exactly $length bytes.
+        @param length expression for the wire length of a value $name (either string or callable).
+                    Only needed for variable length types that are not OFObjects.
         """
 
         pub_types = [ pub_type ] if pub_type is not ANY else [ False, True ]
         for pub_type in pub_types:
-            self.ops[(version, pub_type)] = VersionOp(version, read, write, default, funnel)
+            self.ops[(version, pub_type)] = VersionOp(version, read, write, default, funnel, skip, length)
         return self
 
+    def raw(self, raw_type, get, read, version=ANY):
+        """
+        define the primitive ('raw') value wrapped by the public type, for which allocation-free
+        accessors are generated.
+
+        @param raw_type string  java primitive type
+        @param get expression converting a value $name of the public type to raw_type
+        @param read expression reading the raw value at absolute index $index of ByteBuf $buf,
+                    without changing its reader index
+        @param version int      OF version to define the read expression for, or ANY for all
+        """
+        self.raw_type = raw_type
+        self.raw_ops[version] = (get, read)
+        return self
+
+    @property
+    def has_raw(self):
+        return self.raw_type is not None
+
+    def _raw_op(self, index, version, arguments):
+        ver = ANY if version is None else version.int_version
+        ops = self.raw_ops.get(ver) or self.raw_ops[ANY]
+        return reduce(lambda a,repl: a.replace("$%s" % repl[0], str(repl[1])),  arguments.items(), ops[index])
+
+    def raw_get_op(self, version=None, name=None):
+        """ return a Java expression converting the value in Java expression 'name' to its raw
+        primitive value """
+        return self._raw_op(0, version, dict(name=name))
+
+    def raw_read_op(self, version=None, buf="bb", index="index"):
+        """ return a Java expression reading the raw primitive value at absolute index 'index'
+        of ByteBuf 'buf' """
+        return self._raw_op(1, version, dict(buf=buf, index=index))
+
     def format_value(self, value, pub_type=True):
         # Format a constant value of this type, for inclusion in the java source code
         # For primitive types, takes care of casting the value appropriately, to
@@ -157,7 +200,9 @@ class JType(object):
                 return None
 
         _op = lookup(ver, pub_type) or lookup(ANY, pub_type) or default_value
-        if callable(_op):
+        if _op is None:
+            return None
+        elif callable(_op):
             return _op(**arguments)
         else:
             return reduce(lambda a,repl: a.replace("$%s" % repl[0], str(repl[1])),  arguments.items(), _op)
@@ -207,13 +252,39 @@ class JType(object):
             default_value = self.format_value(0) if self.is_primitive else "null"
         )
 
-    def skip_op(self, version=None, length=None):
+    def skip_op(self, version=None, length=None, fixed_length=None):
         """ return a java stanza that skips an instance of JType in the input ByteBuf 'bb'.
             This is used in the Reader implementations for virtual classes (because after the
             discriminator field, the concrete Reader instance will re-read all the fields)
-            Currently just delegates to read_op + throws away the result."""
+            @param fixed_length int wire length of the member if known from the IR. Skipped with
+                    bb.skipBytes.
+            Otherwise, types whose read expression consumes exactly $length bytes skip $length
+            bytes, types that define a 'skip' op use that, and all others fall back to read_op +
+            throwing away the result."""
+        if fixed_length is not None:
+            return "bb.skipBytes(%d)" % fixed_length
+
+        skip = self.get_op("skip", version, True, default_value=None, arguments=dict(length=length))
+        if skip is not None:
+            return skip
+
+        if "$length" in self.read_op(version, length="$length"):
+            if length is None:
+                length = "length - (bb.readerIndex() - start)"
+            return "bb.skipBytes(%s)" % length
+
         return self.read_op(version, length)
 
+    def length_op(self, version=None, name=None, pub_type=True):
+        """ return a Java expression that evaluates to the wire length of the value of this JType
+        contained in Java expression 'name'. Defaults to name.getWireLength() (OFObjects).
+        Only used for variable length members, the length of fixed length members is known from the IR.
+        """
+        return self.get_op("length", version, pub_type,
+            default_value='$name.getWireLength()',
+            arguments=dict(name=name)
+            )
+
     def funnel_op(self, version=None, name=None, pub_type=True):
         t = self.pub_type if pub_type else self.priv_type
         return self.get_op("funnel", version, pub_type,
@@ -257,16 +328,56 @@ def gen_enum_jtype(java_name, is_bitmask=False):
                 funnel="{}.putTo($name, sink)".format(serializer)
                )
 
-def gen_list_jtype(java_base_name):
+# Lists of these classes are read lazily (see LazyList): reading only scans the element
+# boundaries, elements are decoded on access. These are the entries of multipart replies that
+# can grow very large.
+lazy_list_classes = set([
+    "of_flow_stats_entry",
+    "of_port_stats_entry",
+    "of_queue_stats_entry",
+    "of_table_stats_entry",
+    "of_table_features",
+    "of_group_stats_entry",
+    "of_group_desc_stats_entry",
+    "of_meter_stats",
+    "of_meter_config",
+])
+
+def lazy_list_read_op(c_name, java_base_name, version, length):
+    """ return a read op for a LazyList of c_name in (dotless) version. Element boundaries are
+        found from the fixed length of the class, or from its 16 bit length member. Falls back to
+        ChannelUtils.readList if neither is available. """
+    reader = "{}Ver{}.READER".format(java_base_name, version)
+    ir_class = None
+    for ir_version, protocol in loxi_globals.ir.items():
+        if ir_version.version.replace(".", "") == version:
+            ir_class = protocol.class_by_name(c_name)
+    if ir_class is not None and not "align" in ir_class.params:
+        if ir_class.is_fixed_length and not ir_class.virtual:
+            return "LazyList.readFixedLength(bb, {}, {}, {})".format(length, ir_class.base_length, reader)
+        length_member = find(lambda m: type(m).__name__ == "OFLengthMember", ir_class.members)
+        if length_member is not None and length_member.offset is not None \
+                and length_member.oftype == "uint16_t":
+            return "LazyList.readVariableLength(bb, {}, {}, {}, {})".format(length, length_member.offset, ir_class.base_length, reader)
+    return "ChannelUtils.readList(bb, {}, {})".format(length, reader)
+
+def gen_list_jtype(java_base_name, c_name=None):
     # read op assumes the class has a public final static field READER that implements
     # OFMessageReader<$class> i.e., can deserialize an instance of class from a ByteBuf
     # write op assumes class implements Writeable
-    return JType("List<{}>".format(java_base_name)) \
+    if c_name in lazy_list_classes:
+        read = lambda version, length: lazy_list_read_op(c_name, java_base_name, version, length)
+    else:
+        read = 'ChannelUtils.readList(bb, $length, {}Ver$version.READER)'.format(java_base_name)
+    jtype = JType("List<{}>".format(java_base_name))
+    jtype.lazy_list = c_name in lazy_list_classes
+    return jtype \
         .op(
-            read= 'ChannelUtils.readList(bb, $length, {}Ver$version.READER)'.format(java_base_name), \
+            read=read, \
             write='ChannelUtils.writeList(bb, $name)',
             default="ImmutableList.<{}>of()".format(java_base_name),
-            funnel='FunnelUtils.putList($name, sink)'
+            funnel='FunnelUtils.putList($name, sink)',
+            length='ChannelUtils.getWireLength($name)'
             )
 
 def gen_fixed_length_string_jtype(length):
@@ -287,7 +398,8 @@ u8_list =  JType('List<U8>') \
         .op(read='ChannelUtils.readList(bb, $length, U8.READER)',
             write='ChannelUtils.writeList(bb, $name)',
             default='ImmutableList.<U8>of()',
-            funnel='FunnelUtils.putList($name, sink)'
+            funnel='FunnelUtils.putList($name, sink)',
+            length='$name.size()'
            )
 u16 = JType('int', 'short') \
         .op(read='U16.f(bb.readShort())', write='bb.writeShort(U16.t($name))', pub_type=True) \
@@ -299,19 +411,22 @@ u16_list = JType('List<U16>', 'short[]') \
         .op(read='ChannelUtils.readList(bb, $length, U16.READER)',
             write='ChannelUtils.writeList(bb, $name)',
             default="ImmutableList.<U16>of()",
-            funnel="FunnelUtils.putList($name, sink)")
+            funnel="FunnelUtils.putList($name, sink)",
+            length='$name.size() * 2')
 u32_list = JType('List<U32>', 'int[]') \
         .op(
                 read='ChannelUtils.readList(bb, $length, U32.READER)',
                 write='ChannelUtils.writeList(bb, $name)',
                 default="ImmutableList.<U32>of()",
-                funnel="FunnelUtils.putList($name, sink)")
+                funnel="FunnelUtils.putList($name, sink)",
+                length='$name.size() * 4')
 u64_list = JType('List<U64>', 'int[]') \
         .op(
                 read='ChannelUtils.readList(bb, $length, U64.READER)',
                 write='ChannelUtils.writeList(bb, $name)',
                 default="ImmutableList.<U64>of()",
-                funnel="FunnelUtils.putList($name, sink)")
+                funnel="FunnelUtils.putList($name, sink)",
+                length='$name.size() * 8')
 u8obj = JType('U8', 'U8') \
         .op(read='U8.of(bb.readByte())', write='bb.writeByte($name.getRaw())', default="U8.ZERO")
 u16obj = JType('U16', 'U16') \
@@ -320,14 +435,17 @@ u32obj = JType('U32', 'U32') \
         .op(read='U32.of(bb.readInt())', write='bb.writeInt($name.getRaw())', default="U32.ZERO")
 u64 = JType('U64', 'long') \
         .op(read='U64.ofRaw(bb.readLong())', write='bb.writeLong($name.getValue())', default="U64.ZERO", pub_type=True) \
-        .op(read='bb.readLong()', write='bb.writeLong($name)', pub_type=False)
+        .op(read='bb.readLong()', write='bb.writeLong($name)', pub_type=False) \
+        .raw('long', get='$name.getValue()', read='$buf.getLong($index)')
 u128 = JType("U128") \
         .op(read='U128.read16Bytes(bb)',
             write='$name.write16Bytes(bb)',
             default='U128.ZERO')
 of_port = JType("OFPort") \
          .op(version=1, read="OFPort.read2Bytes(bb)", write="$name.write2Bytes(bb)", default="OFPort.ANY") \
-         .op(version=ANY, read="OFPort.read4Bytes(bb)", write="$name.write4Bytes(bb)", default="OFPort.ANY")
+         .op(version=ANY, read="OFPort.read4Bytes(bb)", write="$name.write4Bytes(bb)", default="OFPort.ANY") \
+         .raw('int', get='$name.getPortNumber()', read='OFPort.shortToPortNumber($buf.getShort($index))', version=1) \
+         .raw('int', get='$name.getPortNumber()', read='$buf.getInt($index)')
 # the same OFPort, but with a default value of ZERO, only for OF10 match
 of_port_match_v1 = JType("OFPort") \
          .op(version=1, read="OFPort.read2Bytes(bb)", write="$name.write2Bytes(bb)", default="OFPort.ZERO")
@@ -343,14 +461,17 @@ octets = JType('byte[]')\
         .op(read='ChannelUtils.readBytes(bb, $length)', \
             write='bb.writeBytes($name)', \
             default="new byte[0]",
-            funnel="sink.putBytes($name)"
+            funnel="sink.putBytes($name)",
+            length='$name.length'
             );
 of_match = JType('Match') \
         .op(read='ChannelUtilsVer$version.readOFMatch(bb)', \
             write='$name.writeTo(bb)',
+            skip='ChannelUtilsVer$version.skipOFMatch(bb)',
             default="OFFactoryVer$version.MATCH_WILDCARD_ALL");
 of_stat = JType('Stat') \
-         .op(read='ChannelUtilsVer$version.readOFStat(bb)', write='$name.writeTo(bb)')
+         .op(read='ChannelUtilsVer$version.readOFStat(bb)', write='$name.writeTo(bb)',
+             skip='ChannelUtilsVer$version.skipOFStat(bb)')
 of_time = JType('OFTime') \
          .op(read='OFTimeVer$version.READER.readFrom(bb)', \
              write='$name.writeTo(bb)')
@@ -362,7 +483,8 @@ flow_mod_cmd = JType('OFFlowModCommand', 'short') \
 mac_addr = JType('MacAddress') \
         .op(read="MacAddress.read6Bytes(bb)", \
             write="$name.write6Bytes(bb)",
-            default="MacAddress.NONE")
+            default="MacAddress.NONE") \
+        .raw('long', get='$name.getLong()', read='($buf.getUnsignedInt($index) << 16 | $buf.getUnsignedShort($index + 4))')
 vxlan_ni = JType('VxlanNI') \
         .op(read="VxlanNI.read4Bytes(bb)", \
             write="$name.write4Bytes(bb)",
@@ -384,12 +506,14 @@ str6 = gen_fixed_length_string_jtype(6)
 ipv4 = JType("IPv4Address") \
         .op(read="IPv4Address.read4Bytes(bb)", \
             write="$name.write4Bytes(bb)",
-            default='IPv4Address.NONE')
+            default='IPv4Address.NONE') \
+        .raw('int', get='$name.getInt()', read='$buf.getInt($index)')
 ipv4_list =  JType('List<IPv4Address>') \
         .op(read='ChannelUtils.readList(bb, $length, IPv4Address.READER)',
             write='ChannelUtils.writeList(bb, $name)',
             default='ImmutableList.<IPv4Address>of()',
-            funnel="FunnelUtils.putList($name, sink)")
+            funnel="FunnelUtils.putList($name, sink)",
+            length='$name.size() * 4')
 ipv6 = JType("IPv6Address") \
         .op(read="IPv6Address.read16Bytes(bb)", \
             write="$name.write16Bytes(bb)",
@@ -398,12 +522,14 @@ ipv6_list =  JType('List<IPv6Address>') \
         .op(read='ChannelUtils.readList(bb, $length, IPv6Address.READER)',
             write='ChannelUtils.writeList(bb, $name)',
             default='ImmutableList.<IPv6Address>of()',
-            funnel="FunnelUtils.putList($name, sink)")
+            funnel="FunnelUtils.putList($name, sink)",
+            length='$name.size() * 16')
 packetin_reason = gen_enum_jtype("OFPacketInReason")
 transport_port = JType("TransportPort")\
         .op(read="TransportPort.read2Bytes(bb)",
             write="$name.write2Bytes(bb)",
-            default="TransportPort.NONE")
+            default="TransportPort.NONE") \
+        .raw('int', get='$name.getPort()', read='$buf.getUnsignedShort($index)')
 eth_type = JType("EthType")\
         .op(read="EthType.read2Bytes(bb)",
             write="$name.write2Bytes(bb)",
@@ -582,7 +708,8 @@ var_string = JType('String').op(
               read='ChannelUtils.readFixedLengthString(bb, $length)',
               write='ChannelUtils.writeFixedLengthString(bb, $name, $name.length())',
               default='""',
-              funnel='sink.putUnencodedChars($name)'
+              funnel='sink.putUnencodedChars($name)',
+              length='$name.length()'
             )
 
 generic_t = JType("T")
@@ -1033,7 +1160,7 @@ def convert_to_jtype(obj_name, field_name, c_type):
     elif c_type in default_mtype_to_jtype_convert_map:
         return default_mtype_to_jtype_convert_map[c_type]
     elif re.match(r'list\(of_([a-zA-Z_]+)_t\)', c_type):
-        return gen_list_jtype(list_cname_to_java_name(c_type))
+        return gen_list_jtype(list_cname_to_java_name(c_type), re.sub(r'^list\((.*)_t\)$', r'\1', c_type))
     elif c_type in enum_java_types():
         return enum_java_types()[c_type]
     else:
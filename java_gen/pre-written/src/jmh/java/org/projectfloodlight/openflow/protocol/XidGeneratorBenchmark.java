@@ -0,0 +1,61 @@
+package org.projectfloodlight.openflow.protocol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark of the xid generators: all threads share a single generator, as
+ * they share the global one when building messages.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args=XidGeneratorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XidGeneratorBenchmark {
+    @Param({ "standard", "block" })
+    public String generator;
+
+    private XidGenerator xidGenerator;
+
+    @Setup
+    public void setup() {
+        if (generator.equals("block"))
+            xidGenerator = XidGenerators.createBlockAllocating();
+        else
+            xidGenerator = XidGenerators.create();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextXid1Thread() {
+        return xidGenerator.nextXid();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextXid8Threads() {
+        return xidGenerator.nextXid();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long nextXid64Threads() {
+        return xidGenerator.nextXid();
+    }
+}
@@ -0,0 +1,22 @@
+package org.projectfloodlight.openflow.exceptions;
+
+import org.projectfloodlight.openflow.protocol.OFErrorMsg;
+
+/**
+ * Error: a switch answered a request with an error message.
+ */
+public class OFErrorMsgException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final transient OFErrorMsg errorMsg;
+
+    public OFErrorMsgException(final OFErrorMsg errorMsg) {
+        super("Switch responded with error " + errorMsg);
+        this.errorMsg = errorMsg;
+    }
+
+    /** @return the error message sent by the switch */
+    public OFErrorMsg getErrorMsg() {
+        return errorMsg;
+    }
+}
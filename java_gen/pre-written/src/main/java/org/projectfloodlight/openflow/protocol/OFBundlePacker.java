@@ -0,0 +1,202 @@
+package org.projectfloodlight.openflow.protocol;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.projectfloodlight.openflow.types.BundleId;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Packs a stream of modification messages, e.g., {@link OFFlowMod}s, {@link OFGroupMod}s and
+ * {@link OFMeterMod}s, into OF1.4+ bundles, so that large updates are applied as a few
+ * (optionally atomic) commits instead of as many individually acknowledged messages.
+ * <p>
+ * {@link #add(OFMessage)} opens a bundle if none is open, and sends the message wrapped in an
+ * {@link OFBundleAddMsg}, which inherits the xid of the message. The bundle is committed once
+ * it holds <code>maxMessages</code> messages or <code>maxBytes</code> bytes of messages, when
+ * it has been open for <code>maxDelay</code> as checked by {@link #commitExpired()}, which the
+ * owner calls periodically, or on {@link #commit()}.
+ * <p>
+ * The open and commit requests are registered with an {@link OFRequestCorrelator}, which must
+ * be passed the messages received on the connection. The future returned by
+ * {@link #add(OFMessage)} is completed with the commit reply of the bundle that contains the
+ * message, or fails with an {@link org.projectfloodlight.openflow.exceptions.OFErrorMsgException}
+ * if the switch rejects the opening or the commit of the bundle.
+ * <p>
+ * Instances are thread-safe. Messages are passed to the sink in order, under the lock of the
+ * packer.
+ */
+public class OFBundlePacker {
+    /** destination of the messages of the bundles, e.g., the connection to a switch */
+    public interface MessageSink {
+        void send(OFMessage message);
+    }
+
+    private final OFFactory factory;
+    private final MessageSink sink;
+    private final OFRequestCorrelator correlator;
+    private final BundleIdGenerator bundleIdGenerator;
+    private final Set<OFBundleFlags> flags;
+    private final int maxMessages;
+    private final int maxBytes;
+    private final long maxDelayNanos;
+    private final Ticker ticker;
+
+    /** the open bundle, or null */
+    private Bundle bundle;
+
+    /** receives the replies to the open and commit requests of the bundle */
+    private static final class Bundle implements FutureCallback<OFBundleCtrlMsg> {
+        final BundleId id;
+        final long openNanos;
+        final SettableFuture<OFBundleCtrlMsg> result = SettableFuture.create();
+        int messages;
+        int bytes;
+
+        Bundle(BundleId id, long openNanos) {
+            this.id = id;
+            this.openNanos = openNanos;
+        }
+
+        @Override
+        public void onSuccess(OFBundleCtrlMsg reply) {
+            if (reply.getBundleCtrlType() == OFBundleCtrlType.COMMIT_REPLY)
+                result.set(reply);
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            // the first error wins, e.g., the commit of a bundle that failed to open fails too
+            result.setException(t);
+        }
+    }
+
+    /**
+     * @param factory factory of the version of the connection, OF1.4 or later
+     * @param sink destination of the messages
+     * @param correlator correlator that receives the messages of the connection
+     * @param flags flags of the bundles, e.g., {@link OFBundleFlags#ATOMIC}
+     * @param maxMessages maximum number of messages per bundle
+     * @param maxBytes maximum total wire length of the messages per bundle
+     * @param maxDelay maximum time a bundle stays open
+     * @param unit unit of maxDelay
+     */
+    public OFBundlePacker(@Nonnull OFFactory factory, @Nonnull MessageSink sink,
+            @Nonnull OFRequestCorrelator correlator, @Nonnull Set<OFBundleFlags> flags,
+            int maxMessages, int maxBytes, long maxDelay, @Nonnull TimeUnit unit) {
+        this(factory, sink, correlator, flags, maxMessages, maxBytes, maxDelay, unit,
+                BundleIdGenerators.global(), Ticker.systemTicker());
+    }
+
+    /**
+     * @param factory factory of the version of the connection, OF1.4 or later
+     * @param sink destination of the messages
+     * @param correlator correlator that receives the messages of the connection
+     * @param flags flags of the bundles, e.g., {@link OFBundleFlags#ATOMIC}
+     * @param maxMessages maximum number of messages per bundle
+     * @param maxBytes maximum total wire length of the messages per bundle
+     * @param maxDelay maximum time a bundle stays open
+     * @param unit unit of maxDelay
+     * @param bundleIdGenerator source of the bundle ids
+     * @param ticker time source
+     */
+    public OFBundlePacker(@Nonnull OFFactory factory, @Nonnull MessageSink sink,
+            @Nonnull OFRequestCorrelator correlator, @Nonnull Set<OFBundleFlags> flags,
+            int maxMessages, int maxBytes, long maxDelay, @Nonnull TimeUnit unit,
+            @Nonnull BundleIdGenerator bundleIdGenerator, @Nonnull Ticker ticker) {
+        Preconditions.checkArgument(factory.getVersion().compareTo(OFVersion.OF_14) >= 0,
+                "Bundles require OpenFlow 1.4 or later, not %s", factory.getVersion());
+        Preconditions.checkArgument(maxMessages > 0, "maxMessages must be positive: %s", maxMessages);
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive: %s", maxBytes);
+        Preconditions.checkArgument(maxDelay >= 0, "maxDelay must not be negative: %s", maxDelay);
+        this.factory = factory;
+        this.sink = Preconditions.checkNotNull(sink, "sink must not be null");
+        this.correlator = Preconditions.checkNotNull(correlator, "correlator must not be null");
+        this.flags = ImmutableSet.copyOf(flags);
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.bundleIdGenerator = Preconditions.checkNotNull(bundleIdGenerator, "bundleIdGenerator must not be null");
+        this.ticker = Preconditions.checkNotNull(ticker, "ticker must not be null");
+    }
+
+    /**
+     * add a message to the open bundle, opening one if necessary.
+     *
+     * @param message message to add; its xid identifies it in errors sent by the switch
+     * @return future of the commit reply of the bundle the message was added to
+     */
+    @Nonnull
+    public synchronized ListenableFuture<OFBundleCtrlMsg> add(@Nonnull OFMessage message) {
+        int length = message.getWireLength();
+        if (bundle != null && bundle.messages > 0 && bundle.bytes + length > maxBytes)
+            commit();
+        if (bundle == null)
+            open();
+        OFBundleAddMsg.Builder add = factory.buildBundleAddMsg()
+                .setBundleId(bundle.id)
+                .setFlags(flags);
+        if (factory.getVersion() == OFVersion.OF_14)
+            add.setData(message);
+        else
+            add.setMessage(message).setXid(message.getXid());
+        sink.send(add.build());
+        Bundle current = bundle;
+        current.messages++;
+        current.bytes += length;
+        if (current.messages >= maxMessages || current.bytes >= maxBytes)
+            commit();
+        return current.result;
+    }
+
+    private void open() {
+        bundle = new Bundle(bundleIdGenerator.nextBundleId(), ticker.read());
+        OFBundleCtrlMsg open = factory.buildBundleCtrlMsg()
+                .setBundleId(bundle.id)
+                .setBundleCtrlType(OFBundleCtrlType.OPEN_REQUEST)
+                .setFlags(flags)
+                .build();
+        Futures.addCallback(correlator.register(open), bundle);
+        sink.send(open);
+    }
+
+    /** commit the open bundle, if any */
+    public synchronized void commit() {
+        if (bundle == null)
+            return;
+        OFBundleCtrlMsg commit = factory.buildBundleCtrlMsg()
+                .setBundleId(bundle.id)
+                .setBundleCtrlType(OFBundleCtrlType.COMMIT_REQUEST)
+                .setFlags(flags)
+                .build();
+        Futures.addCallback(correlator.register(commit), bundle);
+        bundle = null;
+        sink.send(commit);
+    }
+
+    /**
+     * commit the open bundle if it has been open for maxDelay.
+     *
+     * @return true iff a bundle was committed
+     */
+    public synchronized boolean commitExpired() {
+        if (bundle == null || ticker.read() - bundle.openNanos < maxDelayNanos)
+            return false;
+        commit();
+        return true;
+    }
+
+    /** @return the number of messages in the open bundle */
+    public synchronized int getPendingMessages() {
+        return bundle == null ? 0 : bundle.messages;
+    }
+}
@@ -0,0 +1,29 @@
+package org.projectfloodlight.openflow.protocol;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Implemented by messages whose 'data' payload can be accessed as a read-only {@link ByteBuf}
+ * without copying, i.e., messages ending in a byte[] 'data' member such as packet-ins,
+ * packet-outs and echo requests. This allows to forward or inspect payloads without
+ * materializing a byte[]. The payload of messages read by {@link OFFactory#getViewReader()} is
+ * a slice of the read buffer; the payload of immutable messages wraps their array.
+ * <p>
+ * The builders of these messages accept a payload buffer through setDataSlice, which their
+ * writeTo(ByteBuf) writes without an intermediate array, e.g., to send a packet-in payload back
+ * out:
+ * <pre>
+ * factory.buildPacketOut()
+ *     .setActions(actions)
+ *     .setDataSlice(packetInView.getDataSlice())
+ *     .writeTo(out);
+ * </pre>
+ */
+public interface OFDataSlice {
+    /**
+     * @return a read-only slice of the 'data' payload. For messages that are backed by a
+     *         reference counted buffer, the slice shares the reference count of the message: it
+     *         is valid until the message is released; {@link ByteBuf#retain()} it to keep it longer.
+     */
+    ByteBuf getDataSlice();
+}
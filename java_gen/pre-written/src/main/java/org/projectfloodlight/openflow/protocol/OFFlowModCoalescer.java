@@ -0,0 +1,355 @@
+package org.projectfloodlight.openflow.protocol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.types.OFBufferId;
+import org.projectfloodlight.openflow.types.OFGroup;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.TableId;
+import org.projectfloodlight.openflow.types.U64;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Queues outbound {@link OFFlowMod}s and collapses the ones that are superseded before they are
+ * sent, then sends each batch followed by a single {@link OFBarrierRequest}.
+ * <p>
+ * Flow-mods are keyed by the identity of the flow they address, i.e., table, priority and
+ * {@link Match}. Within a batch, for strict flow-mods on the same flow:
+ * <ul>
+ * <li>an {@link OFFlowAdd} replaces the queued flow-mod,</li>
+ * <li>an {@link OFFlowDeleteStrict} replaces the queued flow-mod,</li>
+ * <li>an {@link OFFlowModifyStrict} is merged into a queued {@link OFFlowAdd}, which takes its
+ * instructions (actions in OF1.0), or replaces a queued {@link OFFlowModifyStrict}.</li>
+ * </ul>
+ * The result takes the place of the queued flow-mod, so the order of the flow-mods on different
+ * flows is kept. If strict flow-mods on other flows were queued in between, they may depend on
+ * whether the flow exists, e.g., by {@link OFFlowModFlags#CHECK_OVERLAP} or by priority. The
+ * flow-mods are then only coalesced if the flow exists before and after the later one, which
+ * neither checks for overlaps nor releases a buffered packet, e.g., a modify following an add.
+ * <p>
+ * A buffered {@link OFFlowModifyStrict} merged into a queued {@link OFFlowAdd} passes its buffer
+ * id on to the add. A non-strict {@link OFFlowDelete} drops the queued strict adds and modifies
+ * whose match is a subset of its own, in the same table, unless they have
+ * {@link OFFlowModFlags#SEND_FLOW_REM} or {@link OFFlowModFlags#RESET_COUNTS} set, whose effect
+ * the controller observes. Flow-mods that filter by cookie, output port or output group, or
+ * that release a buffered packet, are never dropped or replaced.
+ * Non-strict modifies and deletes may address many flows, so they are queued as is, and no
+ * flow-mod queued after them is coalesced with one before them.
+ * <p>
+ * A coalesced flow-mod is never sent, so the switch sends no error, and no flow-removed message
+ * caused by it. The batch is sent when it holds <code>maxMessages</code> flow-mods, when it has
+ * been open for <code>maxDelay</code> as checked by {@link #flushExpired()}, which the owner
+ * calls periodically, or on {@link #flush()}.
+ * <p>
+ * The barrier requests are registered with an {@link OFRequestCorrelator}, which must be passed
+ * the messages received on the connection. The future returned by {@link #add(OFFlowMod)} is
+ * completed with the barrier reply of the batch that contains the flow-mod.
+ * <p>
+ * Instances are thread-safe. Messages are passed to the sink in order, under the lock of the
+ * coalescer.
+ */
+public class OFFlowModCoalescer {
+    /** destination of the messages of the batches, e.g., the connection to a switch */
+    public interface MessageSink {
+        void send(OFMessage message);
+    }
+
+    private final OFFactory factory;
+    private final MessageSink sink;
+    private final OFRequestCorrelator correlator;
+    private final int maxMessages;
+    private final long maxDelayNanos;
+    private final Ticker ticker;
+
+    /** queued flow-mods in order; null where one was coalesced */
+    private final List<OFFlowMod> queue = new ArrayList<OFFlowMod>();
+    /** index in the queue of the last flow-mod per flow, since the last non-strict flow-mod */
+    private final Map<FlowKey, Integer> index = new HashMap<FlowKey, Integer>();
+    private int queued;
+    private long openNanos;
+    /** result of the open batch, or null */
+    private SettableFuture<OFBarrierReply> result;
+
+    /** identity of the flow addressed by a strict flow-mod */
+    private static final class FlowKey {
+        /** null in OF1.0 */
+        private final TableId tableId;
+        private final int priority;
+        private final Match match;
+        private final int hash;
+
+        FlowKey(OFFlowMod flowMod) {
+            this.tableId = flowMod.getVersion() == OFVersion.OF_10 ? null : flowMod.getTableId();
+            this.priority = flowMod.getPriority();
+            this.match = flowMod.getMatch();
+            int h = 31 * (tableId == null ? 0 : tableId.hashCode()) + priority;
+            this.hash = 31 * h + match.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof FlowKey))
+                return false;
+            FlowKey other = (FlowKey) obj;
+            return hash == other.hash && priority == other.priority
+                    && (tableId == null ? other.tableId == null : tableId.equals(other.tableId))
+                    && match.equals(other.match);
+        }
+    }
+
+    /**
+     * @param factory factory of the version of the connection
+     * @param sink destination of the messages
+     * @param correlator correlator that receives the messages of the connection
+     * @param maxMessages maximum number of flow-mods per batch
+     * @param maxDelay maximum time a batch stays open
+     * @param unit unit of maxDelay
+     */
+    public OFFlowModCoalescer(@Nonnull OFFactory factory, @Nonnull MessageSink sink,
+            @Nonnull OFRequestCorrelator correlator, int maxMessages, long maxDelay,
+            @Nonnull TimeUnit unit) {
+        this(factory, sink, correlator, maxMessages, maxDelay, unit, Ticker.systemTicker());
+    }
+
+    /**
+     * @param factory factory of the version of the connection
+     * @param sink destination of the messages
+     * @param correlator correlator that receives the messages of the connection
+     * @param maxMessages maximum number of flow-mods per batch
+     * @param maxDelay maximum time a batch stays open
+     * @param unit unit of maxDelay
+     * @param ticker time source
+     */
+    public OFFlowModCoalescer(@Nonnull OFFactory factory, @Nonnull MessageSink sink,
+            @Nonnull OFRequestCorrelator correlator, int maxMessages, long maxDelay,
+            @Nonnull TimeUnit unit, @Nonnull Ticker ticker) {
+        Preconditions.checkArgument(maxMessages > 0, "maxMessages must be positive: %s", maxMessages);
+        Preconditions.checkArgument(maxDelay >= 0, "maxDelay must not be negative: %s", maxDelay);
+        this.factory = Preconditions.checkNotNull(factory, "factory must not be null");
+        this.sink = Preconditions.checkNotNull(sink, "sink must not be null");
+        this.correlator = Preconditions.checkNotNull(correlator, "correlator must not be null");
+        this.maxMessages = maxMessages;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.ticker = Preconditions.checkNotNull(ticker, "ticker must not be null");
+    }
+
+    /**
+     * queue a flow-mod, coalescing it with the queued flow-mods on the same flow.
+     *
+     * @param flowMod flow-mod of the version of the factory
+     * @return future of the barrier reply of the batch the flow-mod is sent in
+     */
+    @Nonnull
+    public synchronized ListenableFuture<OFBarrierReply> add(@Nonnull OFFlowMod flowMod) {
+        Preconditions.checkArgument(flowMod.getVersion() == factory.getVersion(),
+                "Flow-mod of version %s, expected %s", flowMod.getVersion(), factory.getVersion());
+        if (result == null) {
+            result = SettableFuture.create();
+            openNanos = ticker.read();
+        }
+        ListenableFuture<OFBarrierReply> batch = result;
+        switch (flowMod.getCommand()) {
+            case ADD:
+            case MODIFY_STRICT:
+            case DELETE_STRICT:
+                addStrict(flowMod);
+                break;
+            case DELETE:
+                dropDeleted(flowMod);
+                index.clear();
+                enqueue(flowMod);
+                break;
+            default:
+                // may address flows of any key, so must stay ordered with all of them
+                index.clear();
+                enqueue(flowMod);
+                break;
+        }
+        if (queued >= maxMessages)
+            flush();
+        return batch;
+    }
+
+    private void addStrict(OFFlowMod flowMod) {
+        FlowKey key = new FlowKey(flowMod);
+        Integer i = index.get(key);
+        OFFlowMod queuedMod = i == null ? null : queue.get(i);
+        if (queuedMod != null && !isFiltered(flowMod) && !isFiltered(queuedMod) && !isBuffered(queuedMod)
+                && (i == queue.size() - 1 || keepsPosition(queuedMod, flowMod))) {
+            OFFlowMod merged = merge(queuedMod, flowMod);
+            if (merged != null) {
+                // in the place of the queued flow-mod, to stay ordered with the other flows
+                queue.set(i, merged);
+                return;
+            }
+        }
+        index.put(key, queue.size());
+        enqueue(flowMod);
+    }
+
+    /**
+     * @return true if next may be merged into queued although other strict flow-mods were queued
+     *         after it, i.e., if these see the same flows either way: the flow exists before and
+     *         after next, and next neither checks for overlaps nor releases a buffered packet
+     */
+    private static boolean keepsPosition(OFFlowMod queued, OFFlowMod next) {
+        if (isBuffered(next))
+            return false;
+        switch (next.getCommand()) {
+            case MODIFY_STRICT:
+                return true;
+            case ADD:
+                return queued.getCommand() == OFFlowModCommand.ADD
+                        && !next.getFlags().contains(OFFlowModFlags.CHECK_OVERLAP);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * drop the queued strict adds and modifies since the last non-strict flow-mod whose flows a
+     * non-strict delete removes anyway.
+     */
+    private void dropDeleted(OFFlowMod delete) {
+        if (isFiltered(delete))
+            return;
+        boolean allTables = delete.getVersion() == OFVersion.OF_10 || delete.getTableId().equals(TableId.ALL);
+        for (Map.Entry<FlowKey, Integer> entry : index.entrySet()) {
+            int i = entry.getValue();
+            OFFlowMod queuedMod = queue.get(i);
+            if (queuedMod.getCommand() == OFFlowModCommand.DELETE_STRICT || isBuffered(queuedMod)
+                    || isObserved(queuedMod))
+                continue;
+            FlowKey key = entry.getKey();
+            if ((allTables || delete.getTableId().equals(key.tableId))
+                    && isSubsetOf(key.match, delete.getMatch())) {
+                queue.set(i, null);
+                queued--;
+            }
+        }
+    }
+
+    /** @return true if the controller observes the effect of the flow-mod on the flow */
+    private static boolean isObserved(OFFlowMod flowMod) {
+        Set<OFFlowModFlags> flags = flowMod.getFlags();
+        return flags.contains(OFFlowModFlags.SEND_FLOW_REM) || flags.contains(OFFlowModFlags.RESET_COUNTS);
+    }
+
+    private static boolean isSubsetOf(Match match, Match other) {
+        try {
+            return match.isSubsetOf(other);
+        } catch (UnsupportedOperationException e) {
+            // a field that cannot be compared, keep the flow-mod
+            return false;
+        }
+    }
+
+    /** @return the flow-mod replacing queued followed by next, or null if both must be sent */
+    @Nullable
+    private static OFFlowMod merge(OFFlowMod queued, OFFlowMod next) {
+        switch (next.getCommand()) {
+            case ADD:
+            case DELETE_STRICT:
+                return next;
+            case MODIFY_STRICT:
+                if (queued.getCommand() == OFFlowModCommand.ADD) {
+                    // the add releases the packet buffered for the modify, if any
+                    OFFlowMod.Builder builder = queued.createBuilder().setBufferId(next.getBufferId());
+                    if (next.getVersion() == OFVersion.OF_10)
+                        builder.setActions(next.getActions());
+                    else
+                        builder.setInstructions(next.getInstructions());
+                    return builder.build();
+                }
+                if (queued.getCommand() == OFFlowModCommand.MODIFY_STRICT)
+                    return next;
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /** @return true if the flow-mod only applies to flows with a given cookie or output */
+    private static boolean isFiltered(OFFlowMod flowMod) {
+        if (flowMod.getCommand() == OFFlowModCommand.ADD)
+            return false;
+        boolean delete = flowMod.getCommand() == OFFlowModCommand.DELETE
+                || flowMod.getCommand() == OFFlowModCommand.DELETE_STRICT;
+        if (flowMod.getVersion() == OFVersion.OF_10)
+            return delete && !flowMod.getOutPort().equals(OFPort.ANY);
+        if (!flowMod.getCookieMask().equals(U64.ZERO))
+            return true;
+        return delete && (!flowMod.getOutPort().equals(OFPort.ANY) || !flowMod.getOutGroup().equals(OFGroup.ANY));
+    }
+
+    /** @return true if the flow-mod releases a packet buffered by the switch */
+    private static boolean isBuffered(OFFlowMod flowMod) {
+        return !flowMod.getBufferId().equals(OFBufferId.NO_BUFFER);
+    }
+
+    private void enqueue(OFFlowMod flowMod) {
+        queue.add(flowMod);
+        queued++;
+    }
+
+    /**
+     * send the queued flow-mods, followed by a barrier request.
+     *
+     * @return future of the barrier reply, or null if no batch is open
+     */
+    @Nullable
+    public synchronized ListenableFuture<OFBarrierReply> flush() {
+        if (result == null)
+            return null;
+        for (OFFlowMod flowMod : queue) {
+            if (flowMod != null)
+                sink.send(flowMod);
+        }
+        queue.clear();
+        index.clear();
+        queued = 0;
+        OFBarrierRequest barrier = factory.buildBarrierRequest().build();
+        SettableFuture<OFBarrierReply> batch = result;
+        result = null;
+        batch.setFuture(correlator.register(barrier));
+        sink.send(barrier);
+        return batch;
+    }
+
+    /**
+     * flush the open batch if it has been open for maxDelay.
+     *
+     * @return true iff a batch was sent
+     */
+    public synchronized boolean flushExpired() {
+        if (result == null || ticker.read() - openNanos < maxDelayNanos)
+            return false;
+        flush();
+        return true;
+    }
+
+    /** @return the number of queued flow-mods */
+    public synchronized int getPendingMessages() {
+        return queued;
+    }
+}
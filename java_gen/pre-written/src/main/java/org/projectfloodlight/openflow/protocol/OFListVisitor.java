@@ -0,0 +1,11 @@
+package org.projectfloodlight.openflow.protocol;
+
+/**
+ * Receives the elements of a list one by one as they are read from the wire, e.g., the entries
+ * of a multipart reply read by {@link OFFactory#getFlowStatsReplyStreamReader(OFListVisitor)}.
+ *
+ * @param <T> element type
+ */
+public interface OFListVisitor<T> {
+    void visit(T element);
+}
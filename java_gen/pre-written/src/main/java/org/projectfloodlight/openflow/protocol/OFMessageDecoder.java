@@ -0,0 +1,62 @@
+package org.projectfloodlight.openflow.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.util.List;
+
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+
+/**
+ * Netty frame decoder for OpenFlow messages of any version.
+ * <p>
+ * The 16 bit length is peeked from the OpenFlow header, and a message is only handed to the
+ * reader once the complete frame is available, so partial frames are never parsed. All complete
+ * frames in the cumulated input are decoded in one pass into the (recycled) output list
+ * provided by {@link ByteToMessageDecoder}.
+ * <p>
+ * By default, messages are read with {@link OFFactories#getGenericReader()}. When constructed with
+ * {@link OFFactories#getGenericViewReader()}, some messages are zero-copy views that have to be
+ * released by the handler consuming them.
+ *
+ * @see OFMessageEncoder
+ */
+public class OFMessageDecoder extends ByteToMessageDecoder {
+    /** length of the OpenFlow header common to all versions */
+    public final static int HEADER_LENGTH = 8;
+    /** offset of the 16 bit length in the OpenFlow header */
+    private final static int LENGTH_OFFSET = 2;
+
+    private final OFMessageReader<OFMessage> reader;
+
+    public OFMessageDecoder() {
+        this(OFFactories.getGenericReader());
+    }
+
+    public OFMessageDecoder(OFMessageReader<OFMessage> reader) {
+        if (reader == null)
+            throw new NullPointerException("reader must not be null");
+        this.reader = reader;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws OFParseError {
+        while (in.readableBytes() >= HEADER_LENGTH) {
+            int start = in.readerIndex();
+            int length = in.getUnsignedShort(start + LENGTH_OFFSET);
+            if (length < HEADER_LENGTH)
+                throw new OFParseError("Wrong length: Expected to be >= " + HEADER_LENGTH + ", was: " + length);
+            if (in.readableBytes() < length)
+                // wait for the rest of the frame
+                return;
+
+            OFMessage message = reader.readFrom(in);
+            if (message == null)
+                throw new OFParseError("Could not read message of length " + length + " from complete frame");
+            // keep the stream in sync even if the reader did not consume the exact frame
+            in.readerIndex(start + length);
+            out.add(message);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.projectfloodlight.openflow.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * Netty encoder for OpenFlow messages of any version.
+ * <p>
+ * Messages are written straight into an exactly sized buffer (see {@link OFObject#getWireLength()})
+ * from the channel's allocator, which is a pooled direct buffer when the channel is configured
+ * with a pooled allocator.
+ *
+ * @see OFMessageDecoder
+ */
+public class OFMessageEncoder extends MessageToByteEncoder<OFMessage> {
+    public OFMessageEncoder() {
+        super(OFMessage.class, true);
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, OFMessage msg, boolean preferDirect) {
+        int length = msg.getWireLength();
+        return preferDirect ? ctx.alloc().ioBuffer(length) : ctx.alloc().heapBuffer(length);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, OFMessage msg, ByteBuf out) {
+        msg.writeTo(out);
+    }
+}
@@ -0,0 +1,117 @@
+package org.projectfloodlight.openflow.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Opt-in cache of the wire encoding of immutable OpenFlow messages, for sending the same message
+ * to many switches.
+ * <p>
+ * A message is serialized once on first use. Every further {@link #encode(OFMessage, long)} of the
+ * same message instance returns a buffer that shares the cached bytes and only carries its own
+ * copy of the 8 byte OpenFlow header, with the xid patched. {@link #writeTo(OFMessage, long, ByteBuf)}
+ * copies the cached bytes into a given buffer instead. For retransmitting or fanning out a message
+ * with new xids, this avoids creating a message per xid, as {@link OFMessage#withXid(long)} does.
+ * <p>
+ * Messages are keyed by identity (equal but distinct instances are cached separately) and are
+ * only weakly referenced. The number of cached messages is bounded; least recently used encodings
+ * are evicted. Encodings are kept in unpooled heap buffers, so eviction never needs to wait for
+ * buffers handed out by {@link #encode(OFMessage, long)} to be released.
+ * <p>
+ * This class is thread-safe.
+ */
+public class OFMessageEncodingCache {
+    private static final int XID_OFFSET = 4;
+    private static final int HEADER_LENGTH = 8;
+
+    private final Cache<OFMessage, ByteBuf> cache;
+
+    /**
+     * @param maximumSize maximum number of messages whose encoding is cached
+     */
+    public OFMessageEncodingCache(long maximumSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .weakKeys()
+                .recordStats()
+                .build();
+    }
+
+    private ByteBuf getEncoded(final OFMessage message) {
+        try {
+            return cache.get(message, new Callable<ByteBuf>() {
+                @Override
+                public ByteBuf call() {
+                    ByteBuf bb = Unpooled.buffer(message.getWireLength());
+                    message.writeTo(bb);
+                    return Unpooled.unmodifiableBuffer(bb);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cannot encode " + message, e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * return the encoding of the message with the given xid. The returned buffer shares the
+     * cached message body and must be released by the caller (e.g., by writing it to a channel).
+     *
+     * @param message message to encode
+     * @param xid transaction id to put into the header
+     * @return a new buffer containing the encoded message
+     */
+    public ByteBuf encode(OFMessage message, long xid) {
+        ByteBuf encoded = getEncoded(message);
+        ByteBuf header = Unpooled.buffer(HEADER_LENGTH);
+        header.writeBytes(encoded, 0, XID_OFFSET);
+        header.writeInt((int) xid);
+        ByteBuf body = encoded.slice(HEADER_LENGTH, encoded.readableBytes() - HEADER_LENGTH).retain();
+        return Unpooled.wrappedBuffer(header, body);
+    }
+
+    /**
+     * write the encoding of the message with the given xid to the buffer.
+     *
+     * @param message message to encode
+     * @param xid transaction id to put into the header
+     * @param bb buffer to write to
+     */
+    public void writeTo(OFMessage message, long xid, ByteBuf bb) {
+        ByteBuf encoded = getEncoded(message);
+        int start = bb.writerIndex();
+        bb.writeBytes(encoded, 0, encoded.readableBytes());
+        bb.setInt(start + XID_OFFSET, (int) xid);
+    }
+
+    /** remove all cached encodings */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /** @return the number of cached encodings */
+    public long size() {
+        return cache.size();
+    }
+
+    /** @return hit, miss and eviction statistics of this cache */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /** @return the ratio of encodings served from the cache, 1.0 if nothing was encoded yet */
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+}
@@ -0,0 +1,15 @@
+package org.projectfloodlight.openflow.protocol;
+
+import java.util.List;
+
+/**
+ * Implemented by the multipart replies whose body is a list of entries, e.g.,
+ * {@link OFFlowStatsReply}. The entries of a reply sequence with
+ * {@link OFStatsReplyFlags#REPLY_MORE} can thus be merged generically (see
+ * {@link OFMultipartReassembler}).
+ *
+ * @param <E> entry type
+ */
+public interface OFMultipartEntries<E> {
+    List<E> getEntries();
+}
@@ -0,0 +1,350 @@
+package org.projectfloodlight.openflow.protocol;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.projectfloodlight.openflow.util.LongObjectHashMap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Iterables;
+
+/**
+ * Reassembles the entries of multipart reply sequences, i.e., replies with
+ * {@link OFStatsReplyFlags#REPLY_MORE} followed by a final reply without, per connection and
+ * xid. Works for every multipart reply whose body is a list of entries (see
+ * {@link OFMultipartEntries}).
+ * <p>
+ * {@link #receive(Object, OFStatsReply)} collects the entries and returns all of them with the
+ * final reply. The entry lists of the replies are not copied, but joined into a read-only view,
+ * so the cost is linear in the number of replies. A sequence, including one of a single reply,
+ * may have at most <code>maxEntries</code> entries. {@link #stream(Object, OFStatsReply, OFListVisitor)} instead passes the
+ * entries of each reply to a visitor as the reply arrives, and buffers nothing.
+ * <p>
+ * Sequences that see no reply for the timeout, e.g., because the switch or the connection went
+ * away, are discarded by {@link #evictExpired()}, which the owner calls periodically.
+ * <p>
+ * Instances are thread-safe.
+ *
+ * @param <C> connection type, with equals and hashCode
+ */
+public class OFMultipartReassembler<C> {
+    private final int maxEntries;
+    private final long timeoutNanos;
+    private final Ticker ticker;
+    private final Map<C, LongObjectHashMap<Sequence>> connections =
+            new HashMap<C, LongObjectHashMap<Sequence>>();
+    private int size;
+
+    /**
+     * @param maxEntries maximum number of entries buffered per sequence
+     * @param timeout time after which a sequence without further replies is discarded
+     * @param unit unit of the timeout
+     */
+    public OFMultipartReassembler(int maxEntries, long timeout, @Nonnull TimeUnit unit) {
+        this(maxEntries, timeout, unit, Ticker.systemTicker());
+    }
+
+    /**
+     * @param maxEntries maximum number of entries buffered per sequence
+     * @param timeout time after which a sequence without further replies is discarded
+     * @param unit unit of the timeout
+     * @param ticker time source
+     */
+    public OFMultipartReassembler(int maxEntries, long timeout, @Nonnull TimeUnit unit,
+            @Nonnull Ticker ticker) {
+        Preconditions.checkArgument(maxEntries > 0, "maxEntries must be positive: %s", maxEntries);
+        Preconditions.checkArgument(timeout > 0, "timeout must be positive: %s", timeout);
+        this.maxEntries = maxEntries;
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.ticker = Preconditions.checkNotNull(ticker, "ticker must not be null");
+    }
+
+    /** state of an incomplete sequence */
+    private static final class Sequence {
+        final OFStatsType statsType;
+        final boolean streaming;
+        /** entry lists of the replies so far, null if streaming or overflowed */
+        List<List<?>> chunks;
+        int entryCount;
+        long lastReplyNanos;
+
+        Sequence(OFStatsType statsType, boolean streaming) {
+            this.statsType = statsType;
+            this.streaming = streaming;
+            if (!streaming)
+                this.chunks = new ArrayList<List<?>>();
+        }
+    }
+
+    private static boolean isLast(OFStatsReply reply) {
+        return !reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE);
+    }
+
+    /**
+     * pass a reply of a sequence whose entries are to be merged, e.g., a reply as received from
+     * the channel.
+     *
+     * @param connection connection the reply was received on
+     * @param reply multipart reply
+     * @return all entries of the sequence, in order, if this is the final reply; else null
+     * @throws IllegalArgumentException if the body of the reply is not a list of entries (see
+     *         {@link OFMultipartEntries}), e.g., an {@link OFDescStatsReply}
+     * @throws IllegalStateException if the sequence exceeds <code>maxEntries</code>. The sequence is
+     *         discarded, and its remaining replies are ignored.
+     */
+    @Nullable
+    public List<?> receive(@Nonnull C connection, @Nonnull OFStatsReply reply) {
+        List<?> entries = getEntries(reply);
+        synchronized (this) {
+            Sequence sequence = getSequence(connection, reply, false);
+            if (sequence == null) {
+                if (isLast(reply)) {
+                    // single reply: nothing is buffered, but the limit holds all the same
+                    if (entries.size() > maxEntries)
+                        throw tooManyEntries(connection, reply);
+                    return entries;
+                }
+                sequence = addSequence(connection, reply, false);
+            }
+            if (isLast(reply))
+                removeSequence(connection, reply.getXid());
+            else
+                sequence.lastReplyNanos = ticker.read();
+            if (sequence.chunks == null)
+                return null; // overflowed
+            sequence.entryCount += entries.size();
+            if (sequence.entryCount > maxEntries) {
+                sequence.chunks = null;
+                throw tooManyEntries(connection, reply);
+            }
+            sequence.chunks.add(entries);
+            if (!isLast(reply))
+                return null;
+            return sequence.chunks.size() == 1 ? sequence.chunks.get(0) : new ChunkedList(sequence.chunks);
+        }
+    }
+
+    /**
+     * typed variant of {@link #receive(Object, OFStatsReply)}.
+     *
+     * @param connection connection the reply was received on
+     * @param reply multipart reply
+     * @param entryType type of the entries of the reply, e.g., <code>OFFlowStatsEntry.class</code>
+     * @return all entries of the sequence, in order, if this is the final reply; else null
+     * @throws IllegalArgumentException if the body of the reply is not a list of entries of the type
+     * @throws IllegalStateException if the sequence exceeds <code>maxEntries</code>
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <E> List<E> receive(@Nonnull C connection, @Nonnull OFStatsReply reply,
+            @Nonnull Class<E> entryType) {
+        checkEntryType(reply, entryType);
+        // all replies of a sequence have the same stats type, and thus the same entry type
+        return (List<E>) receive(connection, reply);
+    }
+
+    /**
+     * pass a reply of a sequence whose entries are to be streamed. The entries are visited in
+     * order, on the calling thread.
+     *
+     * @param connection connection the reply was received on
+     * @param reply multipart reply
+     * @param visitor visitor of the entries of the reply
+     * @return true iff this is the final reply of the sequence
+     * @throws IllegalArgumentException if the body of the reply is not a list of entries
+     */
+    public boolean stream(@Nonnull C connection, @Nonnull OFStatsReply reply,
+            @Nonnull OFListVisitor<Object> visitor) {
+        return stream(connection, reply, getEntries(reply), visitor);
+    }
+
+    /**
+     * typed variant of {@link #stream(Object, OFStatsReply, OFListVisitor)}.
+     *
+     * @param connection connection the reply was received on
+     * @param reply multipart reply
+     * @param entryType type of the entries of the reply, e.g., <code>OFPortStatsEntry.class</code>
+     * @param visitor visitor of the entries of the reply
+     * @return true iff this is the final reply of the sequence
+     * @throws IllegalArgumentException if the body of the reply is not a list of entries of the type
+     */
+    @SuppressWarnings("unchecked")
+    public <E> boolean stream(@Nonnull C connection, @Nonnull OFStatsReply reply,
+            @Nonnull Class<E> entryType, @Nonnull OFListVisitor<? super E> visitor) {
+        checkEntryType(reply, entryType);
+        return stream(connection, reply, (List<E>) getEntries(reply), visitor);
+    }
+
+    private <E> boolean stream(C connection, OFStatsReply reply, List<E> entries,
+            OFListVisitor<? super E> visitor) {
+        synchronized (this) {
+            Sequence sequence = getSequence(connection, reply, true);
+            if (isLast(reply)) {
+                if (sequence != null)
+                    removeSequence(connection, reply.getXid());
+            } else {
+                if (sequence == null)
+                    sequence = addSequence(connection, reply, true);
+                sequence.lastReplyNanos = ticker.read();
+            }
+        }
+        for (E entry : entries) {
+            visitor.visit(entry);
+        }
+        return isLast(reply);
+    }
+
+    private IllegalStateException tooManyEntries(C connection, OFStatsReply reply) {
+        return new IllegalStateException("Multipart reply with xid " + reply.getXid() + " on "
+                + connection + " exceeds " + maxEntries + " entries, discarding it");
+    }
+
+    private static List<?> getEntries(OFStatsReply reply) {
+        if (!(reply instanceof OFMultipartEntries))
+            throw new IllegalArgumentException("Body of multipart reply " + reply.getStatsType()
+                    + " is not a list of entries");
+        return ((OFMultipartEntries<?>) reply).getEntries();
+    }
+
+    /** check the type of the first entry, the entries of a reply all have the same type */
+    private static void checkEntryType(OFStatsReply reply, Class<?> entryType) {
+        List<?> entries = getEntries(reply);
+        if (!entries.isEmpty() && !entryType.isInstance(entries.get(0)))
+            throw new IllegalArgumentException("Entries of multipart reply " + reply.getStatsType()
+                    + " are not of type " + entryType.getSimpleName());
+    }
+
+    /** @return the sequence of the reply, or null if there is none */
+    private Sequence getSequence(C connection, OFStatsReply reply, boolean streaming) {
+        LongObjectHashMap<Sequence> sequences = connections.get(connection);
+        if (sequences == null)
+            return null;
+        Sequence sequence = sequences.get(reply.getXid());
+        if (sequence != null && (sequence.statsType != reply.getStatsType() || sequence.streaming != streaming)) {
+            // the xid was reused after the sequence was abandoned
+            removeSequence(connection, reply.getXid());
+            return null;
+        }
+        return sequence;
+    }
+
+    private Sequence addSequence(C connection, OFStatsReply reply, boolean streaming) {
+        LongObjectHashMap<Sequence> sequences = connections.get(connection);
+        if (sequences == null) {
+            sequences = new LongObjectHashMap<Sequence>();
+            connections.put(connection, sequences);
+        }
+        Sequence sequence = new Sequence(reply.getStatsType(), streaming);
+        sequences.put(reply.getXid(), sequence);
+        size++;
+        return sequence;
+    }
+
+    private void removeSequence(C connection, long xid) {
+        LongObjectHashMap<Sequence> sequences = connections.get(connection);
+        if (sequences.remove(xid) != null)
+            size--;
+        if (sequences.isEmpty())
+            connections.remove(connection);
+    }
+
+    /**
+     * discard the sequences that have not seen a reply for the timeout.
+     *
+     * @return the number of sequences discarded
+     */
+    public synchronized int evictExpired() {
+        long now = ticker.read();
+        int evicted = 0;
+        for (Iterator<LongObjectHashMap<Sequence>> it = connections.values().iterator(); it.hasNext();) {
+            LongObjectHashMap<Sequence> sequences = it.next();
+            long[] expired = null;
+            int count = 0;
+            LongObjectHashMap<Sequence>.EntryCursor cursor = sequences.entryCursor();
+            while (cursor.next()) {
+                if (now - cursor.value().lastReplyNanos >= timeoutNanos) {
+                    if (expired == null)
+                        expired = new long[sequences.size()];
+                    expired[count++] = cursor.key();
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                sequences.remove(expired[i]);
+            }
+            evicted += count;
+            if (sequences.isEmpty())
+                it.remove();
+        }
+        size -= evicted;
+        return evicted;
+    }
+
+    /**
+     * discard all sequences of a connection, e.g., when it is closed.
+     *
+     * @param connection connection
+     */
+    public synchronized void removeConnection(@Nonnull C connection) {
+        LongObjectHashMap<Sequence> sequences = connections.remove(connection);
+        if (sequences != null)
+            size -= sequences.size();
+    }
+
+    /** @return the number of incomplete sequences */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** read-only concatenation of the entry lists of a sequence */
+    private static final class ChunkedList extends AbstractList<Object> implements RandomAccess {
+        private final List<List<?>> chunks;
+        /** ends[i]: index after the last entry of chunk i */
+        private final int[] ends;
+
+        ChunkedList(List<List<?>> chunks) {
+            this.chunks = chunks;
+            this.ends = new int[chunks.size()];
+            int end = 0;
+            for (int i = 0; i < ends.length; i++) {
+                end += chunks.get(i).size();
+                ends[i] = end;
+            }
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            int chunk = Arrays.binarySearch(ends, index + 1);
+            if (chunk < 0) {
+                chunk = -chunk - 1;
+            } else {
+                // skip empty chunks ending at the same index
+                while (chunk > 0 && ends[chunk - 1] == index + 1)
+                    chunk--;
+            }
+            return chunks.get(chunk).get(index - (chunk == 0 ? 0 : ends[chunk - 1]));
+        }
+
+        @Override
+        public int size() {
+            return ends.length == 0 ? 0 : ends[ends.length - 1];
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return Iterables.<Object>concat(chunks).iterator();
+        }
+    }
+}
@@ -8,4 +8,7 @@ import org.projectfloodlight.openflow.types.PrimitiveSinkable;
  */
 public interface OFObject extends Writeable, PrimitiveSinkable {
     OFVersion getVersion();
+
+    /** @return the number of bytes {@link #writeTo(io.netty.buffer.ByteBuf)} writes for this object */
+    int getWireLength();
 }
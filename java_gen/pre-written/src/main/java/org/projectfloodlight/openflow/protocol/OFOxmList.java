@@ -1,5 +1,6 @@
 package org.projectfloodlight.openflow.protocol;
 
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -16,25 +17,94 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Objects;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import com.google.common.hash.PrimitiveSink;
 
+/**
+ * Immutable list of canonical OXMs, at most one per match field, ordered by {@link MatchFields}.
+ * <p>
+ * The OXMs are kept in a dense array sorted by field ordinal, along with a 128 bit presence
+ * bitmap of the fields. The index of a field's OXM is the number of present fields with a lower
+ * ordinal, so {@link #get(MatchField)} is O(1) without a per-list map.
+ */
 public class OFOxmList implements Iterable<OFOxm<?>>, Writeable, PrimitiveSinkable {
     private static final Logger logger = LoggerFactory.getLogger(OFOxmList.class);
 
-    private final Map<MatchFields, OFOxm<?>> oxmMap;
+    static {
+        if (MatchFields.values().length > 128)
+            throw new AssertionError("OFOxmList presence bitmap supports at most 128 match fields");
+    }
+
+    private static final OFOxm<?>[] NO_OXMS = new OFOxm<?>[0];
+
+    /** OXMs sorted by field ordinal */
+    private final OFOxm<?>[] oxms;
+    /** presence bits of field ordinals 0-63 */
+    private final long presenceLow;
+    /** presence bits of field ordinals 64-127 */
+    private final long presenceHigh;
+    /** cached hash code, 0 if not computed yet */
+    private int hash;
 
-    public final static OFOxmList EMPTY = new OFOxmList(ImmutableMap.<MatchFields, OFOxm<?>>of());
+    public final static OFOxmList EMPTY = new OFOxmList(NO_OXMS, 0L, 0L);
+
+    private OFOxmList(OFOxm<?>[] oxms, long presenceLow, long presenceHigh) {
+        this.oxms = oxms;
+        this.presenceLow = presenceLow;
+        this.presenceHigh = presenceHigh;
+    }
 
-    private OFOxmList(Map<MatchFields, OFOxm<?>> oxmMap) {
-        this.oxmMap = oxmMap;
+    /** create a list from a map of canonical OXMs; the map is not retained */
+    private static OFOxmList fromMap(Map<MatchFields, OFOxm<?>> oxmMap) {
+        if (oxmMap.isEmpty())
+            return EMPTY;
+        OFOxm<?>[] oxms = new OFOxm<?>[oxmMap.size()];
+        long presenceLow = 0;
+        long presenceHigh = 0;
+        int i = 0;
+        // EnumMap iterates in ordinal order
+        for (Map.Entry<MatchFields, OFOxm<?>> entry : oxmMap.entrySet()) {
+            int ordinal = entry.getKey().ordinal();
+            if (ordinal < 64)
+                presenceLow |= 1L << ordinal;
+            else
+                presenceHigh |= 1L << (ordinal - 64);
+            oxms[i++] = entry.getValue();
+        }
+        return new OFOxmList(oxms, presenceLow, presenceHigh);
+    }
+
+    /** @return the index of the field's OXM in oxms, or -1 if the field is not present */
+    private int indexOf(MatchFields id) {
+        int ordinal = id.ordinal();
+        if (ordinal < 64) {
+            long bit = 1L << ordinal;
+            if ((presenceLow & bit) == 0)
+                return -1;
+            return Long.bitCount(presenceLow & (bit - 1));
+        } else {
+            long bit = 1L << (ordinal - 64);
+            if ((presenceHigh & bit) == 0)
+                return -1;
+            return Long.bitCount(presenceLow) + Long.bitCount(presenceHigh & (bit - 1));
+        }
     }
 
     @SuppressWarnings("unchecked")
     public <T extends OFValueType<T>> OFOxm<T> get(MatchField<T> matchField) {
-        return (OFOxm<T>) oxmMap.get(matchField.id);
+        int index = indexOf(matchField.id);
+        return index < 0 ? null : (OFOxm<T>) oxms[index];
     }
 
+    /** @return the number of OXMs in this list */
+    public int size() {
+        return oxms.length;
+    }
+
+    /**
+     * Builder for an OFOxmList. OXMs are canonicalized once when they are set, so building the
+     * list only copies the builder's OXMs.
+     */
     public static class Builder {
         private final Map<MatchFields, OFOxm<?>> oxmMap;
 
@@ -44,57 +114,83 @@ public class OFOxmList implements Iterable<OFOxm<?>>, Writeable, PrimitiveSinkab
 
         public Builder(EnumMap<MatchFields, OFOxm<?>> oxmMap) {
             this.oxmMap = oxmMap;
+            Iterator<Map.Entry<MatchFields, OFOxm<?>>> it = oxmMap.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<MatchFields, OFOxm<?>> entry = it.next();
+                OFOxm<?> canonical = canonicalize(entry.getValue());
+                if (canonical == null)
+                    it.remove();
+                else
+                    entry.setValue(canonical);
+            }
+        }
+
+        /** builder starting from the OXMs of an already canonical list */
+        private Builder(OFOxmList list) {
+            this.oxmMap = new EnumMap<MatchFields, OFOxm<?>>(MatchFields.class);
+            for (OFOxm<?> o : list.oxms) {
+                oxmMap.put(o.getMatchField().id, o);
+            }
         }
 
         public <T extends OFValueType<T>> void set(OFOxm<T> oxm) {
-            oxmMap.put(oxm.getMatchField().id, oxm);
+            OFOxm<?> canonical = canonicalize(oxm);
+            if (canonical != null)
+                oxmMap.put(canonical.getMatchField().id, canonical);
+            else
+                oxmMap.remove(oxm.getMatchField().id);
         }
 
         public <T extends OFValueType<T>> void unset(MatchField<T> matchField) {
             oxmMap.remove(matchField.id);
         }
 
+        /** @return the canonical OXM set for the given field, or null if the field is wildcarded */
+        @SuppressWarnings("unchecked")
+        public <T extends OFValueType<T>> OFOxm<T> get(MatchField<T> matchField) {
+            return (OFOxm<T>) oxmMap.get(matchField.id);
+        }
+
         public OFOxmList build() {
-            return OFOxmList.ofList(oxmMap.values());
+            return fromMap(oxmMap);
         }
     }
 
+    private static OFOxm<?> canonicalize(OFOxm<?> o) {
+        OFOxm<?> canonical = o.getCanonical();
+
+        if(logger.isDebugEnabled() && !Objects.equal(o, canonical)) {
+            logger.debug("OFOxmList: normalized non-canonical OXM {} to {}", o, canonical);
+        }
+        return canonical;
+    }
+
     @Override
     public Iterator<OFOxm<?>> iterator() {
-        return oxmMap.values().iterator();
+        return Iterators.forArray(oxms);
     }
 
     public static OFOxmList ofList(Iterable<OFOxm<?>> oxmList) {
         Map<MatchFields, OFOxm<?>> map = new EnumMap<MatchFields, OFOxm<?>>(
                 MatchFields.class);
         for (OFOxm<?> o : oxmList) {
-            OFOxm<?> canonical = o.getCanonical();
-
-            if(logger.isDebugEnabled() && !Objects.equal(o, canonical)) {
-                logger.debug("OFOxmList: normalized non-canonical OXM {} to {}", o, canonical);
-            }
-
+            OFOxm<?> canonical = canonicalize(o);
             if(canonical != null)
                 map.put(canonical.getMatchField().id, canonical);
 
         }
-        return new OFOxmList(map);
+        return fromMap(map);
     }
 
     public static OFOxmList of(OFOxm<?>... oxms) {
         Map<MatchFields, OFOxm<?>> map = new EnumMap<MatchFields, OFOxm<?>>(
                 MatchFields.class);
         for (OFOxm<?> o : oxms) {
-            OFOxm<?> canonical = o.getCanonical();
-
-            if(logger.isDebugEnabled() && !Objects.equal(o, canonical)) {
-                logger.debug("OFOxmList: normalized non-canonical OXM {} to {}", o, canonical);
-            }
-
+            OFOxm<?> canonical = canonicalize(o);
             if(canonical != null)
                 map.put(canonical.getMatchField().id, canonical);
         }
-        return new OFOxmList(map);
+        return fromMap(map);
     }
 
     public static OFOxmList readFrom(ByteBuf bb, int length,
@@ -109,15 +205,28 @@ public class OFOxmList implements Iterable<OFOxm<?>>, Writeable, PrimitiveSinkab
         }
     }
 
+    /** @return the number of bytes {@link #writeTo(ByteBuf)} writes */
+    public int getWireLength() {
+        int length = 0;
+        for (OFOxm<?> o : this) {
+            length += o.getWireLength();
+        }
+        return length;
+    }
+
     public OFOxmList.Builder createBuilder() {
-        return new OFOxmList.Builder(new EnumMap<MatchFields, OFOxm<?>>(oxmMap));
+        return new OFOxmList.Builder(this);
     }
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((oxmMap == null) ? 0 : oxmMap.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + Arrays.hashCode(oxms);
+            hash = result;
+        }
         return result;
     }
 
@@ -130,17 +239,24 @@ public class OFOxmList implements Iterable<OFOxm<?>>, Writeable, PrimitiveSinkab
         if (getClass() != obj.getClass())
             return false;
         OFOxmList other = (OFOxmList) obj;
-        if (oxmMap == null) {
-            if (other.oxmMap != null)
-                return false;
-        } else if (!oxmMap.equals(other.oxmMap))
+        if (presenceLow != other.presenceLow || presenceHigh != other.presenceHigh)
+            return false;
+        if (hash != 0 && other.hash != 0 && hash != other.hash)
+            return false;
+        if (!Arrays.equals(oxms, other.oxms))
             return false;
         return true;
     }
 
     @Override
     public String toString() {
-        return "OFOxmList" + oxmMap;
+        StringBuilder b = new StringBuilder("OFOxmList{");
+        for (int i = 0; i < oxms.length; i++) {
+            if (i > 0)
+                b.append(", ");
+            b.append(oxms[i].getMatchField().id).append('=').append(oxms[i]);
+        }
+        return b.append('}').toString();
     }
 
     @Override
@@ -0,0 +1,315 @@
+package org.projectfloodlight.openflow.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+import javax.annotation.Nonnull;
+
+import org.projectfloodlight.openflow.types.OFBufferId;
+import org.projectfloodlight.openflow.types.OFPort;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Pre-encoded {@link OFPacketOut} whose xid, buffer id, in_port, output port and payload bytes
+ * can be patched, for sending many packet-outs that only differ in these, e.g., for topology
+ * discovery or ARP proxying.
+ * <p>
+ * The message is encoded once, and the offsets of its fields are located in the encoding.
+ * {@link #writeTo(ByteBuf)} copies the encoding into a buffer, typically a pooled one, and the
+ * setters overwrite the fields of the copy in place, so no message, builder, action or payload
+ * array is allocated per packet-out:
+ * <pre>
+ * ByteBuf bb = ctx.alloc().buffer(template.getLength());
+ * int start = template.writeTo(bb);
+ * template.setXid(bb, start, xid);
+ * template.setOutPort(bb, start, port);
+ * template.setPayloadBytes(bb, start, 6, portMac, 0, 6);
+ * </pre>
+ * The in_port is located in the header up to OF1.4, and in the match from OF1.5, where it
+ * can only be patched if the template matches it exactly. The output port is the one of an
+ * {@link org.projectfloodlight.openflow.protocol.action.OFActionOutput} chosen at construction.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class OFPacketOutTemplate {
+    private static final int XID_OFFSET = 4;
+    private static final int BUFFER_ID_OFFSET = 8;
+    private static final int ACTION_TYPE_OUTPUT = 0;
+    /** OXM header of an unmasked in_port, class OPENFLOW_BASIC, field 0, length 4 */
+    private static final int OXM_IN_PORT = 0x80000004;
+
+    private final OFVersion version;
+    private final byte[] encoded;
+    /** offset of the in_port, -1 if it cannot be patched */
+    private final int inPortOffset;
+    /** offset of the output port, -1 if there is no output action */
+    private final int outPortOffset;
+    private final int payloadOffset;
+
+    private OFPacketOutTemplate(OFVersion version, byte[] encoded, int inPortOffset,
+            int outPortOffset, int payloadOffset) {
+        this.version = version;
+        this.encoded = encoded;
+        this.inPortOffset = inPortOffset;
+        this.outPortOffset = outPortOffset;
+        this.payloadOffset = payloadOffset;
+    }
+
+    /**
+     * create a template whose output port is the one of the first output action, if any.
+     *
+     * @param packetOut message to pre-encode
+     * @return the template
+     */
+    @Nonnull
+    public static OFPacketOutTemplate of(@Nonnull OFPacketOut packetOut) {
+        return create(packetOut, 0, false);
+    }
+
+    /**
+     * create a template whose output port is the one of the given output action.
+     *
+     * @param packetOut message to pre-encode
+     * @param outputIndex index of the output action among the output actions of the message
+     * @return the template
+     * @throws IllegalArgumentException if the message has no such output action
+     */
+    @Nonnull
+    public static OFPacketOutTemplate of(@Nonnull OFPacketOut packetOut, int outputIndex) {
+        Preconditions.checkArgument(outputIndex >= 0, "outputIndex must not be negative: %s", outputIndex);
+        return create(packetOut, outputIndex, true);
+    }
+
+    private static OFPacketOutTemplate create(OFPacketOut packetOut, int outputIndex,
+            boolean outputRequired) {
+        OFVersion version = packetOut.getVersion();
+        ByteBuf bb = Unpooled.buffer(packetOut.getWireLength());
+        packetOut.writeTo(bb);
+        byte[] encoded = new byte[bb.readableBytes()];
+        bb.readBytes(encoded);
+        bb = Unpooled.wrappedBuffer(encoded);
+
+        int inPortOffset;
+        int actionsLenOffset;
+        int actionsOffset;
+        switch (version) {
+            case OF_10:
+                inPortOffset = 12;
+                actionsLenOffset = 14;
+                actionsOffset = 16;
+                break;
+            case OF_11:
+            case OF_12:
+            case OF_13:
+            case OF_14:
+                inPortOffset = 12;
+                actionsLenOffset = 16;
+                actionsOffset = 24;
+                break;
+            default:
+                actionsLenOffset = 12;
+                int matchLength = bb.getUnsignedShort(16 + 2);
+                inPortOffset = findInPort(bb, 16 + 4, 16 + matchLength);
+                actionsOffset = 16 + ((matchLength + 7) & ~7);
+                break;
+        }
+        int payloadOffset = actionsOffset + bb.getUnsignedShort(actionsLenOffset);
+
+        int outPortOffset = -1;
+        int outputs = 0;
+        for (int action = actionsOffset; action < payloadOffset; action += bb.getUnsignedShort(action + 2)) {
+            if (bb.getUnsignedShort(action) == ACTION_TYPE_OUTPUT && outputs++ == outputIndex) {
+                outPortOffset = action + 4;
+                break;
+            }
+        }
+        if (outputRequired && outPortOffset < 0)
+            throw new IllegalArgumentException("Packet-out has no output action with index " + outputIndex
+                    + ": " + packetOut);
+        return new OFPacketOutTemplate(version, encoded, inPortOffset, outPortOffset, payloadOffset);
+    }
+
+    /** @return the offset of the value of the in_port OXM in [start, end), or -1 */
+    private static int findInPort(ByteBuf bb, int start, int end) {
+        for (int oxm = start; oxm + 4 <= end; oxm += 4 + bb.getUnsignedByte(oxm + 3)) {
+            if (bb.getInt(oxm) == OXM_IN_PORT)
+                return oxm + 4;
+        }
+        return -1;
+    }
+
+    /** @return the version of the message */
+    public OFVersion getVersion() {
+        return version;
+    }
+
+    /** @return the length of the encoded message */
+    public int getLength() {
+        return encoded.length;
+    }
+
+    /** @return the length of the payload (the data of the packet-out) */
+    public int getPayloadLength() {
+        return encoded.length - payloadOffset;
+    }
+
+    /**
+     * append the encoded message to the buffer.
+     *
+     * @param bb buffer to write to
+     * @return the index of the message in the buffer, to be passed to the setters
+     */
+    public int writeTo(@Nonnull ByteBuf bb) {
+        int start = bb.writerIndex();
+        bb.writeBytes(encoded);
+        return start;
+    }
+
+    /**
+     * allocate a buffer containing the encoded message, which is at index 0.
+     *
+     * @param alloc allocator, e.g., the pooled allocator of a channel
+     * @return the buffer, to be released by the caller
+     */
+    @Nonnull
+    public ByteBuf newBuffer(@Nonnull ByteBufAllocator alloc) {
+        ByteBuf bb = alloc.buffer(encoded.length);
+        bb.writeBytes(encoded);
+        return bb;
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param xid transaction id
+     */
+    public void setXid(@Nonnull ByteBuf bb, int start, long xid) {
+        bb.setInt(start + XID_OFFSET, (int) xid);
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param bufferId buffer id
+     */
+    public void setBufferId(@Nonnull ByteBuf bb, int start, @Nonnull OFBufferId bufferId) {
+        bb.setInt(start + BUFFER_ID_OFFSET, bufferId.getInt());
+    }
+
+    /** @return true iff the in_port can be set, i.e., is not in a match lacking it */
+    public boolean hasInPort() {
+        return inPortOffset >= 0;
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param inPort input port
+     * @throws IllegalStateException if the in_port cannot be set, see {@link #hasInPort()}
+     */
+    public void setInPort(@Nonnull ByteBuf bb, int start, @Nonnull OFPort inPort) {
+        if (inPortOffset < 0)
+            throw new IllegalStateException("Template has no in_port to set, match it exactly");
+        setPort(bb, start + inPortOffset, inPort);
+    }
+
+    /** @return true iff the output port can be set, i.e., there is an output action */
+    public boolean hasOutPort() {
+        return outPortOffset >= 0;
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param outPort port of the output action
+     * @throws IllegalStateException if there is no output action, see {@link #hasOutPort()}
+     */
+    public void setOutPort(@Nonnull ByteBuf bb, int start, @Nonnull OFPort outPort) {
+        if (outPortOffset < 0)
+            throw new IllegalStateException("Template has no output action");
+        setPort(bb, start + outPortOffset, outPort);
+    }
+
+    private void setPort(ByteBuf bb, int index, OFPort port) {
+        if (version == OFVersion.OF_10)
+            bb.setShort(index, port.getShortPortNumber());
+        else
+            bb.setInt(index, port.getPortNumber());
+    }
+
+    private int payloadIndex(int start, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > encoded.length - payloadOffset)
+            throw new IndexOutOfBoundsException("Payload range [" + offset + ", " + (offset + length)
+                    + ") exceeds payload length " + (encoded.length - payloadOffset));
+        return start + payloadOffset + offset;
+    }
+
+    /**
+     * copy bytes into the payload.
+     *
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param offset offset in the payload
+     * @param src bytes to copy
+     * @param srcIndex index of the first byte to copy
+     * @param length number of bytes to copy
+     * @throws IndexOutOfBoundsException if the range exceeds the payload
+     */
+    public void setPayloadBytes(@Nonnull ByteBuf bb, int start, int offset, @Nonnull byte[] src,
+            int srcIndex, int length) {
+        bb.setBytes(payloadIndex(start, offset, length), src, srcIndex, length);
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param offset offset in the payload
+     * @param value byte to set
+     * @throws IndexOutOfBoundsException if the byte exceeds the payload
+     */
+    public void setPayloadByte(@Nonnull ByteBuf bb, int start, int offset, int value) {
+        bb.setByte(payloadIndex(start, offset, 1), value);
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param offset offset in the payload
+     * @param value big-endian 16 bit value to set
+     * @throws IndexOutOfBoundsException if the value exceeds the payload
+     */
+    public void setPayloadShort(@Nonnull ByteBuf bb, int start, int offset, int value) {
+        bb.setShort(payloadIndex(start, offset, 2), value);
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param offset offset in the payload
+     * @param value big-endian 32 bit value to set
+     * @throws IndexOutOfBoundsException if the value exceeds the payload
+     */
+    public void setPayloadInt(@Nonnull ByteBuf bb, int start, int offset, int value) {
+        bb.setInt(payloadIndex(start, offset, 4), value);
+    }
+
+    /**
+     * @param bb buffer containing a copy of the message
+     * @param start index of the message in the buffer
+     * @param offset offset in the payload
+     * @param value big-endian 64 bit value to set, e.g., the raw value of a MAC address in
+     *        the low 48 bits when length is 6
+     * @param length number of low order bytes of the value to set, 1 to 8
+     * @throws IndexOutOfBoundsException if the value exceeds the payload
+     */
+    public void setPayloadLong(@Nonnull ByteBuf bb, int start, int offset, long value, int length) {
+        Preconditions.checkArgument(length >= 1 && length <= 8, "length must be between 1 and 8: %s", length);
+        int index = payloadIndex(start, offset, length);
+        for (int i = length - 1; i >= 0; i--) {
+            bb.setByte(index + i, (int) value);
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package org.projectfloodlight.openflow.protocol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+
+import org.projectfloodlight.openflow.exceptions.OFErrorMsgException;
+import org.projectfloodlight.openflow.util.LongObjectHashMap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Pairs the requests sent on a connection with their replies, by xid.
+ * <p>
+ * {@link #register(OFRequest)} returns a future that is completed by {@link #receive(OFMessage)}
+ * when the reply arrives, fails with an {@link OFErrorMsgException} when the switch answers with
+ * an {@link OFErrorMsg}, and fails with a {@link TimeoutException} when there is no answer
+ * within the timeout. {@link #registerMultipart(OFStatsRequest)} collects all replies of a
+ * multipart sequence, up to the one without {@link OFStatsReplyFlags#REPLY_MORE}.
+ * <p>
+ * Outstanding requests are kept in a primitive xid-keyed map, and timeouts in a hashed timing
+ * wheel whose slots link the requests directly, so a request costs only its future. The wheel
+ * is advanced by {@link #expire()}, which the owner calls periodically, e.g., every tick from
+ * the event loop of the connection.
+ * <p>
+ * Instances are thread-safe. Futures are completed outside of the lock, on the thread calling
+ * {@link #receive(OFMessage)} or {@link #expire()}.
+ */
+public class OFRequestCorrelator {
+    private static final int DEFAULT_TICKS_PER_TIMEOUT = 32;
+
+    private final Ticker ticker;
+    private final long timeoutNanos;
+    private final long tickNanos;
+    private final long startNanos;
+    private final Pending<?>[] wheel;
+    private final int wheelMask;
+    private final LongObjectHashMap<Pending<?>> pending = new LongObjectHashMap<Pending<?>>();
+    /** last tick up to which the wheel has been expired */
+    private long expiredTick;
+
+    /**
+     * @param timeout time to wait for a reply, or for the next reply of a multipart sequence
+     * @param unit unit of the timeout
+     */
+    public OFRequestCorrelator(long timeout, @Nonnull TimeUnit unit) {
+        this(timeout, unit, Math.max(1, unit.toNanos(timeout) / DEFAULT_TICKS_PER_TIMEOUT),
+                TimeUnit.NANOSECONDS, Ticker.systemTicker());
+    }
+
+    /**
+     * @param timeout time to wait for a reply, or for the next reply of a multipart sequence
+     * @param unit unit of the timeout
+     * @param tickDuration resolution of the timeouts, i.e., the interval at which
+     *        {@link #expire()} should be called
+     * @param tickUnit unit of the tick duration
+     * @param ticker time source
+     */
+    public OFRequestCorrelator(long timeout, @Nonnull TimeUnit unit, long tickDuration,
+            @Nonnull TimeUnit tickUnit, @Nonnull Ticker ticker) {
+        Preconditions.checkArgument(timeout > 0, "timeout must be positive: %s", timeout);
+        Preconditions.checkArgument(tickDuration > 0, "tickDuration must be positive: %s", tickDuration);
+        this.ticker = Preconditions.checkNotNull(ticker, "ticker must not be null");
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.tickNanos = tickUnit.toNanos(tickDuration);
+        long ticksPerTimeout = (timeoutNanos + tickNanos - 1) / tickNanos;
+        Preconditions.checkArgument(ticksPerTimeout < 1 << 20,
+                "timeout must not exceed 2^20 ticks: %s ticks", ticksPerTimeout);
+        // deadlines lie at most ticksPerTimeout + 1 ticks ahead, so no slot holds two rounds
+        int slots = Integer.highestOneBit((int) ticksPerTimeout + 1) << 1;
+        this.wheel = new Pending<?>[slots];
+        this.wheelMask = slots - 1;
+        this.startNanos = ticker.read();
+    }
+
+    /**
+     * register a request before it is sent.
+     *
+     * @param request request; its xid must not be used by another outstanding request
+     * @return a future of the reply
+     * @throws IllegalArgumentException if a request with the same xid is outstanding
+     */
+    @Nonnull
+    public <R extends OFMessage> ListenableFuture<R> register(@Nonnull OFRequest<R> request) {
+        Pending<R> p = new Pending<R>(request.getXid(), getReplyType(request.getType()), null);
+        add(p);
+        return p;
+    }
+
+    /**
+     * register a multipart request before it is sent.
+     *
+     * @param request request; its xid must not be used by another outstanding request
+     * @return a future of all replies of the multipart sequence, in the order received
+     * @throws IllegalArgumentException if a request with the same xid is outstanding
+     */
+    @Nonnull
+    public <R extends OFStatsReply> ListenableFuture<List<R>> registerMultipart(
+            @Nonnull OFStatsRequest<R> request) {
+        Pending<List<R>> p = new Pending<List<R>>(request.getXid(), OFType.STATS_REPLY,
+                request.getStatsType());
+        add(p);
+        return p;
+    }
+
+    /** @return the type of the replies to requests of the given type */
+    static OFType getReplyType(OFType requestType) {
+        switch (requestType) {
+            case ECHO_REQUEST:
+                return OFType.ECHO_REPLY;
+            case FEATURES_REQUEST:
+                return OFType.FEATURES_REPLY;
+            case GET_CONFIG_REQUEST:
+                return OFType.GET_CONFIG_REPLY;
+            case STATS_REQUEST:
+                return OFType.STATS_REPLY;
+            case BARRIER_REQUEST:
+                return OFType.BARRIER_REPLY;
+            case QUEUE_GET_CONFIG_REQUEST:
+                return OFType.QUEUE_GET_CONFIG_REPLY;
+            case ROLE_REQUEST:
+                return OFType.ROLE_REPLY;
+            case GET_ASYNC_REQUEST:
+                return OFType.GET_ASYNC_REPLY;
+            default:
+                // e.g., BUNDLE_CONTROL and EXPERIMENTER are answered with the same type
+                return requestType;
+        }
+    }
+
+    private synchronized void add(Pending<?> p) {
+        if (pending.containsKey(p.xid))
+            throw new IllegalArgumentException("A request with xid " + p.xid + " is already outstanding");
+        pending.put(p.xid, p);
+        schedule(p);
+    }
+
+    /**
+     * pass a message received on the connection.
+     *
+     * @param message received message
+     * @return true iff the message is a reply to, or an error for, an outstanding request
+     */
+    public boolean receive(@Nonnull OFMessage message) {
+        Pending<?> p;
+        Object result;
+        synchronized (this) {
+            p = pending.get(message.getXid());
+            if (p == null)
+                return false;
+            if (message instanceof OFErrorMsg) {
+                result = new OFErrorMsgException((OFErrorMsg) message);
+            } else if (message.getType() != p.replyType) {
+                // e.g., an asynchronous message that happens to carry the xid
+                return false;
+            } else if (p.statsType != null) {
+                if (((OFStatsReply) message).getStatsType() != p.statsType)
+                    return false;
+                OFStatsReply reply = (OFStatsReply) message;
+                if (p.replies == null)
+                    p.replies = new ArrayList<OFStatsReply>();
+                p.replies.add(reply);
+                if (reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+                    // the timeout applies to each reply of the sequence
+                    unlink(p);
+                    schedule(p);
+                    return true;
+                }
+                result = Collections.unmodifiableList(p.replies);
+            } else if (message instanceof OFStatsReply
+                    && ((OFStatsReply) message).getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+                result = new IllegalStateException("Received a multipart reply with xid " + p.xid
+                        + " for a request registered with register(), use registerMultipart()");
+            } else {
+                result = message;
+            }
+            remove(p);
+        }
+        p.complete(result);
+        return true;
+    }
+
+    /**
+     * fail the requests whose timeout has passed with a {@link TimeoutException}.
+     *
+     * @return the number of requests that timed out
+     */
+    public int expire() {
+        List<Pending<?>> expired = null;
+        synchronized (this) {
+            long now = currentTick();
+            long ticks = Math.min(now - expiredTick, wheel.length);
+            for (long t = now - ticks + 1; t <= now; t++) {
+                Pending<?> p = wheel[(int) t & wheelMask];
+                while (p != null) {
+                    Pending<?> next = p.next;
+                    if (p.deadline <= now) {
+                        remove(p);
+                        if (expired == null)
+                            expired = new ArrayList<Pending<?>>();
+                        expired.add(p);
+                    }
+                    p = next;
+                }
+            }
+            expiredTick = now;
+        }
+        if (expired == null)
+            return 0;
+        for (Pending<?> p : expired) {
+            p.complete(new TimeoutException("No reply to request with xid " + p.xid));
+        }
+        return expired.size();
+    }
+
+    /**
+     * fail all outstanding requests, e.g., when the connection is closed.
+     *
+     * @param cause exception to fail the futures with
+     */
+    public void failAll(@Nonnull Throwable cause) {
+        List<Pending<?>> failed = new ArrayList<Pending<?>>();
+        synchronized (this) {
+            for (int i = 0; i < wheel.length; i++) {
+                for (Pending<?> p = wheel[i]; p != null; p = p.next) {
+                    failed.add(p);
+                }
+                wheel[i] = null;
+            }
+            pending.clear();
+        }
+        for (Pending<?> p : failed) {
+            p.complete(cause);
+        }
+    }
+
+    /** @return the number of outstanding requests */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    private long currentTick() {
+        return (ticker.read() - startNanos) / tickNanos;
+    }
+
+    /** add a request to the wheel, timing out one timeout from now */
+    private void schedule(Pending<?> p) {
+        // round up, so that a request waits at least the timeout
+        p.deadline = (ticker.read() - startNanos + timeoutNanos + tickNanos - 1) / tickNanos;
+        int slot = (int) p.deadline & wheelMask;
+        Pending<?> head = wheel[slot];
+        p.prev = null;
+        p.next = head;
+        if (head != null)
+            head.prev = p;
+        wheel[slot] = p;
+    }
+
+    private void unlink(Pending<?> p) {
+        if (p.prev != null)
+            p.prev.next = p.next;
+        else
+            wheel[(int) p.deadline & wheelMask] = p.next;
+        if (p.next != null)
+            p.next.prev = p.prev;
+        p.prev = null;
+        p.next = null;
+    }
+
+    private void remove(Pending<?> p) {
+        pending.remove(p.xid);
+        unlink(p);
+    }
+
+    private synchronized void cancelled(Pending<?> p) {
+        if (pending.get(p.xid) == p)
+            remove(p);
+    }
+
+    /** outstanding request, which is its own future and wheel entry */
+    private class Pending<V> extends AbstractFuture<V> {
+        final long xid;
+        final OFType replyType;
+        /** stats type of a multipart request, null for other requests */
+        final OFStatsType statsType;
+        List<OFStatsReply> replies;
+        long deadline;
+        Pending<?> prev;
+        Pending<?> next;
+
+        Pending(long xid, OFType replyType, OFStatsType statsType) {
+            this.xid = xid;
+            this.replyType = replyType;
+            this.statsType = statsType;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            if (result instanceof Throwable)
+                setException((Throwable) result);
+            else
+                set((V) result);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled)
+                cancelled(this);
+            return cancelled;
+        }
+    }
+}
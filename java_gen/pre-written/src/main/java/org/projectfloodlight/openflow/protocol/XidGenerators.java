@@ -2,15 +2,47 @@ package org.projectfloodlight.openflow.protocol;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.google.common.base.Preconditions;
+
 public class XidGenerators {
-    private static final XidGenerator GLOBAL_XID_GENERATOR = new StandardXidGenerator();
+    private static volatile XidGenerator globalXidGenerator = new StandardXidGenerator();
 
     public static XidGenerator create() {
         return new StandardXidGenerator();
     }
 
+    /**
+     * create a generator that leases blocks of xids to each thread, so that threads only
+     * contend for a shared counter once per block instead of once per xid. Xids are unique
+     * modulo 2^32 across all threads, but only increase within a thread.
+     *
+     * @param blockSize number of xids leased at a time, a power of two between 1 and 2^16
+     * @return the generator
+     */
+    public static XidGenerator createBlockAllocating(int blockSize) {
+        return new BlockXidGenerator(blockSize);
+    }
+
+    /** @return a block allocating generator with the default block size */
+    public static XidGenerator createBlockAllocating() {
+        return new BlockXidGenerator(BlockXidGenerator.DEFAULT_BLOCK_SIZE);
+    }
+
+    /** @return the generator used by the factories for {@link XidGenerator#nextXid()} */
     public static XidGenerator global() {
-        return GLOBAL_XID_GENERATOR;
+        return globalXidGenerator;
+    }
+
+    /**
+     * replace the generator used by the factories, e.g., with a
+     * {@link #createBlockAllocating() block allocating} one. Xids handed out by the new
+     * generator may repeat those of the previous one, so this should be called at startup,
+     * before any message is built.
+     *
+     * @param xidGenerator the new global generator
+     */
+    public static void setGlobal(XidGenerator xidGenerator) {
+        globalXidGenerator = Preconditions.checkNotNull(xidGenerator, "xidGenerator must not be null");
     }
 }
 
@@ -35,4 +67,48 @@ class StandardXidGenerator implements XidGenerator {
         return xid;
     }
 
-}
\ No newline at end of file
+}
+
+class BlockXidGenerator implements XidGenerator {
+    static final int DEFAULT_BLOCK_SIZE = 1024;
+    private static final long XID_MASK = 0xFFffFFffL;
+
+    private final int blockSize;
+    /** number of blocks leased so far */
+    private final AtomicLong blocks = new AtomicLong();
+    private final ThreadLocal<Block> block = new ThreadLocal<Block>() {
+        @Override
+        protected Block initialValue() {
+            return new Block();
+        }
+    };
+
+    BlockXidGenerator(int blockSize) {
+        Preconditions.checkArgument(blockSize > 0 && blockSize <= 0x10000 && Integer.bitCount(blockSize) == 1,
+                "blockSize must be a power of two between 1 and 2^16: %s", blockSize);
+        this.blockSize = blockSize;
+    }
+
+    /** the xids [next, end) leased to a thread */
+    private static class Block {
+        long next;
+        long end;
+    }
+
+    @Override
+    public long nextXid() {
+        Block b = block.get();
+        while (true) {
+            if (b.next == b.end) {
+                // blocks evenly divide the xid space, so they never straddle the wrap-around
+                long start = (blocks.getAndIncrement() * blockSize) & XID_MASK;
+                b.next = start;
+                b.end = start + blockSize;
+            }
+            long xid = b.next++;
+            // 0 is never handed out, as with the standard generator
+            if (xid != 0)
+                return xid;
+        }
+    }
+}
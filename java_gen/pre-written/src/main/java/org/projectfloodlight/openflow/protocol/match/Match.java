@@ -1,5 +1,7 @@
 package org.projectfloodlight.openflow.protocol.match;
 
+import io.netty.buffer.ByteBuf;
+
 import org.projectfloodlight.openflow.protocol.OFObject;
 import org.projectfloodlight.openflow.types.Masked;
 import org.projectfloodlight.openflow.types.OFValueType;
@@ -63,6 +65,21 @@ public interface Match extends OFObject {
      */
     public <F extends OFValueType<F>> F get(MatchField<F> field) throws UnsupportedOperationException;
 
+    /**
+     * Returns the value for the given field from this match as the unsigned number of its OXM
+     * encoding, e.g., the 32 bit port number of {@link MatchField#IN_PORT} or the vid of
+     * {@link MatchField#VLAN_VID} including the present bit. Unlike unwrapping the result of
+     * {@link #get(MatchField)} in the caller, this does not allocate. The same conditions as for
+     * {@link #get(MatchField)} apply, and the value is returned masked if partially wildcarded.
+     *
+     * @param <F> MatchField type
+     * @param field Match field to retrieve
+     * @return Raw value of match field (may be masked)
+     * @throws IllegalStateException If the field is fully wildcarded or its prerequisites are not met.
+     * @throws UnsupportedOperationException If field is not supported, or its values are longer than 64 bits.
+     */
+    public <F extends OFValueType<F>> long getRawLong(MatchField<F> field) throws UnsupportedOperationException;
+
     /**
      * Returns the masked value for the given field from this match, along with the mask itself.
      * Prerequisite: field is partially masked.
@@ -134,6 +151,40 @@ public interface Match extends OFObject {
      */
     public Iterable<MatchField<?>> getMatchFields();
 
+    /**
+     * True if and only if there is a packet selected by both this and the other match. Only fields
+     * whose prerequisites are satisfied are considered (see getMatchFields()), so fields ignored
+     * by a match, e.g., OF1.0 transport ports without an IP protocol, do not restrict it.
+     * The matches may be of different versions.
+     *
+     * @param other Match to compare with.
+     * @return true if the matches overlap, false if they are disjoint.
+     * @throws UnsupportedOperationException If a match contains a field that cannot be compared.
+     */
+    public boolean overlaps(Match other) throws UnsupportedOperationException;
+
+    /**
+     * True if and only if every packet selected by this match is also selected by the other
+     * match, i.e., the other match is equal to or more general than this one. Prerequisites are
+     * respected as in overlaps(Match).
+     *
+     * @param other Match to compare with.
+     * @return true if this match is a subset of the other match, false if not.
+     * @throws UnsupportedOperationException If a match contains a field that cannot be compared.
+     */
+    public boolean isSubsetOf(Match other) throws UnsupportedOperationException;
+
+    /**
+     * Returns the match, of the version of this match, that selects exactly the packets selected
+     * by both this and the other match.
+     *
+     * @param other Match to intersect with.
+     * @return the intersection, or <code>null</code> if the matches do not overlap.
+     * @throws UnsupportedOperationException If a match contains a field that cannot be compared,
+     *             or if the intersection cannot be expressed in the version of this match.
+     */
+    public Match intersect(Match other) throws UnsupportedOperationException;
+
     /**
      * Returns a builder to build new instances of this type of match object.
      * @return Match builder
@@ -218,5 +269,19 @@ public interface Match extends OFObject {
          * @return a Match object.
          */
         public Match build();
+
+        /**
+         * Unsets all fields, so that the builder can be reused, e.g., from a thread-local pool.
+         *
+         * @return the Builder instance used.
+         */
+        public Builder reset();
+
+        /**
+         * Writes the match built from the current fields, without creating it.
+         *
+         * @param bb buffer to write to.
+         */
+        public void writeTo(ByteBuf bb);
     }
 }
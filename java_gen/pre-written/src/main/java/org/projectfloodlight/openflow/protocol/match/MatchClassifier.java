@@ -0,0 +1,361 @@
+package org.projectfloodlight.openflow.protocol.match;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Classifier over a set of flows identified by (priority, {@link Match}), answering which flow
+ * a packet hits, e.g., for a controller-side mirror of a switch's flow table.
+ * <p>
+ * Implements tuple space search over {@link PackedMatch}es: flows with the same set of masks
+ * share a subtable, which is a hash table keyed by the masked values. A lookup probes the
+ * subtables in order of decreasing maximum priority and stops as soon as no remaining subtable
+ * can contain a higher priority flow than the best one found. The cost of a lookup is thus
+ * bounded by the number of distinct masks, not by the number of flows.
+ * <p>
+ * If several flows of the same priority match a packet, which one is returned is unspecified
+ * (as in OpenFlow). This class is not thread-safe; lookups do not modify the classifier, so
+ * concurrent lookups are safe as long as the classifier is not modified concurrently.
+ *
+ * @param <T> type of the value associated with each flow, e.g., the flow stats entry
+ */
+public class MatchClassifier<T> {
+    private final Map<WordKey, Subtable<T>> subtables = new HashMap<WordKey, Subtable<T>>();
+    /** subtables sorted by decreasing max priority, re-sorted on modification */
+    private List<Subtable<T>> sortedSubtables = Collections.emptyList();
+    private int size;
+
+    /**
+     * add a flow, replacing the value of a flow with the same priority and match.
+     *
+     * @param priority flow priority
+     * @param match flow match
+     * @param value value associated with the flow
+     * @return the value previously associated with the flow, or null
+     */
+    public T insert(int priority, Match match, T value) {
+        PackedMatch packed = PackedMatch.of(match);
+        WordKey maskKey = maskKey(packed);
+        Subtable<T> subtable = subtables.get(maskKey);
+        boolean added = subtable == null;
+        if (added) {
+            subtable = new Subtable<T>(maskKey.getWords());
+            subtables.put(maskKey, subtable);
+        }
+        int oldMaxPriority = subtable.maxPriority();
+        T old = subtable.insert(priority, packed, value);
+        if (old == null)
+            size++;
+        if (added || subtable.maxPriority() != oldMaxPriority)
+            sortSubtables();
+        return old;
+    }
+
+    /**
+     * remove a flow.
+     *
+     * @param priority flow priority
+     * @param match flow match
+     * @return the value associated with the removed flow, or null if there was no such flow
+     */
+    public T remove(int priority, Match match) {
+        PackedMatch packed = PackedMatch.of(match);
+        WordKey maskKey = maskKey(packed);
+        Subtable<T> subtable = subtables.get(maskKey);
+        if (subtable == null)
+            return null;
+        int oldMaxPriority = subtable.maxPriority();
+        T old = subtable.remove(priority, packed);
+        if (old != null) {
+            size--;
+            if (subtable.isEmpty())
+                subtables.remove(maskKey);
+            if (subtable.isEmpty() || subtable.maxPriority() != oldMaxPriority)
+                sortSubtables();
+        }
+        return old;
+    }
+
+    /**
+     * find the highest priority flow that matches a packet.
+     *
+     * @param packet the header fields of the packet, as an exact match
+     * @return the value associated with the flow, or null if no flow matches
+     */
+    public T lookup(Match packet) {
+        return lookup(PackedMatch.of(packet));
+    }
+
+    /**
+     * find the highest priority flow that matches a packet. Does not allocate, so packets can
+     * be classified on a hot path once they are packed.
+     *
+     * @param packet the packed header fields of the packet
+     * @return the value associated with the flow, or null if no flow matches
+     */
+    public T lookup(PackedMatch packet) {
+        List<Subtable<T>> sorted = sortedSubtables;
+        Entry<T> best = null;
+        for (int i = 0; i < sorted.size(); i++) {
+            Subtable<T> subtable = sorted.get(i);
+            if (best != null && subtable.maxPriority() <= best.priority)
+                break;
+            Entry<T> entry = subtable.lookup(packet);
+            if (entry != null && (best == null || entry.priority > best.priority))
+                best = entry;
+        }
+        return best == null ? null : best.value;
+    }
+
+    /** @return the number of flows */
+    public int size() {
+        return size;
+    }
+
+    /** @return the number of distinct masks (subtables) */
+    public int getSubtableCount() {
+        return subtables.size();
+    }
+
+    /** remove all flows */
+    public void clear() {
+        subtables.clear();
+        sortedSubtables = Collections.emptyList();
+        size = 0;
+    }
+
+    /** re-sort the subtables after a max priority changed, so that lookups only read */
+    private void sortSubtables() {
+        List<Subtable<T>> sorted = new ArrayList<Subtable<T>>(subtables.values());
+        Collections.sort(sorted, new Comparator<Subtable<T>>() {
+            @Override
+            public int compare(Subtable<T> a, Subtable<T> b) {
+                return Integer.compare(b.maxPriority(), a.maxPriority());
+            }
+        });
+        sortedSubtables = sorted;
+    }
+
+    private static WordKey maskKey(PackedMatch packed) {
+        long[] masks = new long[PackedMatch.WORDS];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = packed.getMaskWord(i);
+        }
+        return new WordKey(masks);
+    }
+
+    private static final class Entry<T> {
+        final int priority;
+        final T value;
+
+        Entry(int priority, T value) {
+            this.priority = priority;
+            this.value = value;
+        }
+    }
+
+    /** entries sharing the same masked values, chained in a subtable's hash bucket */
+    private static final class Node<T> {
+        final long[] words;
+        final int hash;
+        /** entries with these values, by decreasing priority */
+        final List<Entry<T>> entries = new ArrayList<Entry<T>>(1);
+        Node<T> next;
+
+        Node(long[] words, int hash, Node<T> next) {
+            this.words = words;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * flows sharing the same masks, hashed by their masked values. The hash table is kept here
+     * rather than in a {@link HashMap}, so that a lookup can hash the masked packet words in place
+     * and compare them to the stored words without building a key.
+     */
+    private static final class Subtable<T> {
+        private static final int INITIAL_CAPACITY = 16;
+
+        /** indices of the words with a non-zero mask */
+        final int[] activeWords;
+        final long[] activeMasks;
+        /** hash buckets, the length is a power of two */
+        private Node<T>[] table = newTable(INITIAL_CAPACITY);
+        private int nodeCount;
+        /** priority -> number of entries with that priority */
+        private final TreeMap<Integer, Integer> priorities = new TreeMap<Integer, Integer>();
+
+        Subtable(long[] masks) {
+            int n = 0;
+            for (long mask : masks) {
+                if (mask != 0)
+                    n++;
+            }
+            activeWords = new int[n];
+            activeMasks = new long[n];
+            n = 0;
+            for (int i = 0; i < masks.length; i++) {
+                if (masks[i] != 0) {
+                    activeWords[n] = i;
+                    activeMasks[n++] = masks[i];
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newTable(int capacity) {
+            return (Node<T>[]) new Node<?>[capacity];
+        }
+
+        private static int hash(int h, long word) {
+            return 31 * h + (int) (word ^ (word >>> 32));
+        }
+
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+
+        boolean isEmpty() {
+            return priorities.isEmpty();
+        }
+
+        int maxPriority() {
+            return priorities.isEmpty() ? Integer.MIN_VALUE : priorities.lastKey();
+        }
+
+        private long[] valueWords(PackedMatch packed) {
+            long[] words = new long[activeWords.length];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = packed.getValueWord(activeWords[i]);
+            }
+            return words;
+        }
+
+        private static int hash(long[] words) {
+            int h = 1;
+            for (long word : words) {
+                h = hash(h, word);
+            }
+            return spread(h);
+        }
+
+        private Node<T> getNode(long[] words, int hash) {
+            for (Node<T> node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+                if (node.hash == hash && Arrays.equals(node.words, words))
+                    return node;
+            }
+            return null;
+        }
+
+        private void resize() {
+            Node<T>[] newTable = newTable(table.length * 2);
+            for (Node<T> node : table) {
+                while (node != null) {
+                    Node<T> next = node.next;
+                    int i = node.hash & (newTable.length - 1);
+                    node.next = newTable[i];
+                    newTable[i] = node;
+                    node = next;
+                }
+            }
+            table = newTable;
+        }
+
+        T insert(int priority, PackedMatch packed, T value) {
+            long[] words = valueWords(packed);
+            int hash = hash(words);
+            Node<T> node = getNode(words, hash);
+            if (node == null) {
+                if (nodeCount >= table.length * 3 / 4)
+                    resize();
+                int i = hash & (table.length - 1);
+                node = new Node<T>(words, hash, table[i]);
+                table[i] = node;
+                nodeCount++;
+            }
+            List<Entry<T>> list = node.entries;
+            int i = 0;
+            while (i < list.size() && list.get(i).priority > priority)
+                i++;
+            if (i < list.size() && list.get(i).priority == priority)
+                return list.set(i, new Entry<T>(priority, value)).value;
+            list.add(i, new Entry<T>(priority, value));
+            Integer count = priorities.get(priority);
+            priorities.put(priority, count == null ? 1 : count + 1);
+            return null;
+        }
+
+        T remove(int priority, PackedMatch packed) {
+            long[] words = valueWords(packed);
+            int hash = hash(words);
+            Node<T> node = getNode(words, hash);
+            if (node == null)
+                return null;
+            List<Entry<T>> list = node.entries;
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i).priority == priority) {
+                    Entry<T> removed = list.remove(i);
+                    if (list.isEmpty())
+                        unlink(node);
+                    int count = priorities.get(priority);
+                    if (count == 1)
+                        priorities.remove(priority);
+                    else
+                        priorities.put(priority, count - 1);
+                    return removed.value;
+                }
+            }
+            return null;
+        }
+
+        private void unlink(Node<T> node) {
+            int i = node.hash & (table.length - 1);
+            if (table[i] == node) {
+                table[i] = node.next;
+            } else {
+                Node<T> prev = table[i];
+                while (prev.next != node)
+                    prev = prev.next;
+                prev.next = node.next;
+            }
+            nodeCount--;
+        }
+
+        /**
+         * @return the highest priority entry matching the packet, or null. Hashes and compares
+         *         the masked packet words in place, without allocating.
+         */
+        Entry<T> lookup(PackedMatch packet) {
+            int h = 1;
+            for (int i = 0; i < activeWords.length; i++) {
+                h = hash(h, packet.getValueWord(activeWords[i]) & activeMasks[i]);
+            }
+            h = spread(h);
+            for (Node<T> node = table[h & (table.length - 1)]; node != null; node = node.next) {
+                if (node.hash == h && matches(node.words, packet))
+                    return node.entries.get(0);
+            }
+            return null;
+        }
+
+        private boolean matches(long[] words, PackedMatch packet) {
+            for (int i = 0; i < activeWords.length; i++) {
+                if (words[i] != (packet.getValueWord(activeWords[i]) & activeMasks[i]))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Subtable(words=" + Arrays.toString(activeWords) + ", maxPriority=" + maxPriority() + ")";
+        }
+    }
+}
@@ -37,6 +37,8 @@ import org.projectfloodlight.openflow.types.VFI;
 import java.util.Set;
 import com.google.common.collect.ImmutableSet;
 
+import org.projectfloodlight.openflow.protocol.OFOxmList;
+
 public class MatchField<F extends OFValueType<F>> {
     private final String name;
     public final MatchFields id;
@@ -463,6 +465,22 @@ public class MatchField<F extends OFValueType<F>> {
         return true;
     }
 
+    /**
+     * Checks the prerequisites of this field directly against the OXMs of a match.
+     * Used by matches to compute the set of valid fields once.
+     *
+     * @param oxmList OXMs of a match
+     * @return true iff all prerequisites are satisfied
+     */
+    public boolean arePrerequisitesOK(OFOxmList oxmList) {
+        for (Prerequisite<?> p : this.prerequisites) {
+            if (!p.isSatisfied(oxmList)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Retrieve what also must be matched in order to
      * use this particular MatchField.
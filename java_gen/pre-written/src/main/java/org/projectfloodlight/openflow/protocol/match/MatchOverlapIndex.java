@@ -0,0 +1,322 @@
+package org.projectfloodlight.openflow.protocol.match;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over a set of {@link Match}es that finds the matches overlapping, or being more general
+ * than, a candidate match without comparing the candidate with every match in the set, e.g., to
+ * detect conflicting or shadowed flows before sending a flow-mod.
+ * <p>
+ * Matches are kept as {@link PackedMatch}es, grouped by their masks into subtables that are hash
+ * tables keyed by the masked values. Two matches overlap iff they agree on the bits both of them
+ * match on, so in a subtable with masks M, the matches overlapping a candidate with masks C are
+ * exactly those whose values projected on M &amp; C equal the candidate's. Each subtable thus
+ * answers a query with a single hash probe: directly if C covers M, and otherwise via a
+ * projection index on M &amp; C, which is built on first use and kept up to date afterwards. The
+ * cost of a query is bounded by the number of distinct masks plus the size of the result.
+ * <p>
+ * Prerequisites are respected as in {@link Match#overlaps(Match)}. This class is not
+ * thread-safe.
+ *
+ * @param <T> type of the value associated with each match
+ */
+public class MatchOverlapIndex<T> {
+    /** maximum number of projection indexes kept per subtable; beyond that, subtables are scanned */
+    private static final int MAX_PROJECTIONS = 16;
+
+    private final Map<WordKey, Subtable<T>> subtables = new HashMap<WordKey, Subtable<T>>();
+    private int size;
+
+    /**
+     * associate a value with a match, replacing the value previously associated with it.
+     *
+     * @param match match
+     * @param value value associated with the match
+     * @return the value previously associated with the match, or null
+     */
+    public T put(Match match, T value) {
+        PackedMatch packed = PackedMatch.of(match);
+        WordKey maskKey = maskKey(packed);
+        Subtable<T> subtable = subtables.get(maskKey);
+        if (subtable == null) {
+            subtable = new Subtable<T>(maskKey.getWords());
+            subtables.put(maskKey, subtable);
+        }
+        T old = subtable.put(packed, value);
+        if (old == null)
+            size++;
+        return old;
+    }
+
+    /**
+     * @param match match
+     * @return the value associated with the match, or null
+     */
+    public T get(Match match) {
+        PackedMatch packed = PackedMatch.of(match);
+        Subtable<T> subtable = subtables.get(maskKey(packed));
+        if (subtable == null)
+            return null;
+        Entry<T> entry = subtable.get(subtable.project(packed));
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * remove a match.
+     *
+     * @param match match
+     * @return the value associated with the removed match, or null if there was no such match
+     */
+    public T remove(Match match) {
+        PackedMatch packed = PackedMatch.of(match);
+        WordKey maskKey = maskKey(packed);
+        Subtable<T> subtable = subtables.get(maskKey);
+        if (subtable == null)
+            return null;
+        T old = subtable.remove(packed);
+        if (old != null) {
+            size--;
+            if (subtable.isEmpty())
+                subtables.remove(maskKey);
+        }
+        return old;
+    }
+
+    /**
+     * find the matches that overlap a candidate, i.e., the matches that select at least one
+     * packet also selected by the candidate.
+     *
+     * @param candidate candidate match
+     * @return the values associated with the overlapping matches, in no particular order
+     */
+    public List<T> getOverlapping(Match candidate) {
+        PackedMatch packed = PackedMatch.of(candidate);
+        List<T> result = new ArrayList<T>();
+        for (Subtable<T> subtable : subtables.values()) {
+            subtable.addOverlapping(packed, result);
+        }
+        return result;
+    }
+
+    /**
+     * find the matches that are equal to or more general than a candidate, i.e., the matches of
+     * which the candidate is a subset (see {@link Match#isSubsetOf(Match)}). A flow with such a
+     * match and a higher priority shadows a flow with the candidate match.
+     *
+     * @param candidate candidate match
+     * @return the values associated with the matches, in no particular order
+     */
+    public List<T> getSupersets(Match candidate) {
+        PackedMatch packed = PackedMatch.of(candidate);
+        List<T> result = new ArrayList<T>();
+        for (Subtable<T> subtable : subtables.values()) {
+            if (subtable.isCoveredBy(packed)) {
+                Entry<T> entry = subtable.get(subtable.project(packed));
+                if (entry != null)
+                    result.add(entry.value);
+            }
+        }
+        return result;
+    }
+
+    /** @return the number of matches */
+    public int size() {
+        return size;
+    }
+
+    /** @return the number of distinct masks (subtables) */
+    public int getSubtableCount() {
+        return subtables.size();
+    }
+
+    /** remove all matches */
+    public void clear() {
+        subtables.clear();
+        size = 0;
+    }
+
+    private static WordKey maskKey(PackedMatch packed) {
+        long[] masks = new long[PackedMatch.WORDS];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = packed.getMaskWord(i);
+        }
+        return new WordKey(masks);
+    }
+
+    private static final class Entry<T> {
+        final PackedMatch match;
+        final T value;
+
+        Entry(PackedMatch match, T value) {
+            this.match = match;
+            this.value = value;
+        }
+    }
+
+    /** entries of a subtable, hashed by their values projected on a subset of the masks */
+    private static final class Projection<T> {
+        final int[] activeWords;
+        final long[] activeMasks;
+        private final Map<WordKey, List<Entry<T>>> buckets = new HashMap<WordKey, List<Entry<T>>>();
+
+        Projection(long[] masks) {
+            int n = 0;
+            for (long mask : masks) {
+                if (mask != 0)
+                    n++;
+            }
+            activeWords = new int[n];
+            activeMasks = new long[n];
+            n = 0;
+            for (int i = 0; i < masks.length; i++) {
+                if (masks[i] != 0) {
+                    activeWords[n] = i;
+                    activeMasks[n++] = masks[i];
+                }
+            }
+        }
+
+        WordKey project(PackedMatch packed) {
+            long[] words = new long[activeWords.length];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = packed.getValueWord(activeWords[i]) & activeMasks[i];
+            }
+            return new WordKey(words);
+        }
+
+        void add(Entry<T> entry) {
+            WordKey key = project(entry.match);
+            List<Entry<T>> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<Entry<T>>(1);
+                buckets.put(key, bucket);
+            }
+            bucket.add(entry);
+        }
+
+        void remove(Entry<T> entry) {
+            WordKey key = project(entry.match);
+            List<Entry<T>> bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(entry) && bucket.isEmpty())
+                buckets.remove(key);
+        }
+
+        List<Entry<T>> get(PackedMatch packed) {
+            return buckets.get(project(packed));
+        }
+    }
+
+    /** matches sharing the same masks, hashed by their values */
+    private static final class Subtable<T> {
+        final long[] masks;
+        /** the projection on all words with a non-zero mask, i.e., the values themselves */
+        final Projection<T> self;
+        final int[] activeWords;
+        private final Map<WordKey, Entry<T>> entries = new HashMap<WordKey, Entry<T>>();
+        /** projection mask (a subset of the masks) -> projection index */
+        private final Map<WordKey, Projection<T>> projections = new HashMap<WordKey, Projection<T>>();
+
+        Subtable(long[] masks) {
+            this.masks = masks;
+            this.self = new Projection<T>(masks);
+            this.activeWords = self.activeWords;
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        WordKey project(PackedMatch packed) {
+            return self.project(packed);
+        }
+
+        /** @return true iff the masks of the match include all masks of this subtable */
+        boolean isCoveredBy(PackedMatch packed) {
+            for (int i = 0; i < activeWords.length; i++) {
+                if ((self.activeMasks[i] & ~packed.getMaskWord(activeWords[i])) != 0)
+                    return false;
+            }
+            return true;
+        }
+
+        Entry<T> get(WordKey key) {
+            return entries.get(key);
+        }
+
+        T put(PackedMatch packed, T value) {
+            WordKey key = project(packed);
+            Entry<T> entry = new Entry<T>(packed, value);
+            Entry<T> old = entries.put(key, entry);
+            for (Projection<T> projection : projections.values()) {
+                if (old != null)
+                    projection.remove(old);
+                projection.add(entry);
+            }
+            return old == null ? null : old.value;
+        }
+
+        T remove(PackedMatch packed) {
+            Entry<T> old = entries.remove(project(packed));
+            if (old == null)
+                return null;
+            for (Projection<T> projection : projections.values()) {
+                projection.remove(old);
+            }
+            return old.value;
+        }
+
+        void addOverlapping(PackedMatch candidate, List<T> result) {
+            long[] common = new long[PackedMatch.WORDS];
+            boolean covered = true;
+            boolean disjoint = true;
+            for (int i = 0; i < activeWords.length; i++) {
+                int word = activeWords[i];
+                common[word] = masks[word] & candidate.getMaskWord(word);
+                covered &= common[word] == masks[word];
+                disjoint &= common[word] == 0;
+            }
+            if (covered) {
+                Entry<T> entry = entries.get(project(candidate));
+                if (entry != null)
+                    result.add(entry.value);
+            } else if (disjoint) {
+                addAll(entries.values(), result);
+            } else {
+                Projection<T> projection = getProjection(new WordKey(common));
+                if (projection != null) {
+                    List<Entry<T>> bucket = projection.get(candidate);
+                    if (bucket != null)
+                        addAll(bucket, result);
+                } else {
+                    for (Entry<T> entry : entries.values()) {
+                        if (entry.match.overlaps(candidate))
+                            result.add(entry.value);
+                    }
+                }
+            }
+        }
+
+        /** @return the projection index on the mask, built on first use, or null if too many */
+        private Projection<T> getProjection(WordKey mask) {
+            Projection<T> projection = projections.get(mask);
+            if (projection == null && projections.size() < MAX_PROJECTIONS) {
+                projection = new Projection<T>(mask.getWords());
+                for (Entry<T> entry : entries.values()) {
+                    projection.add(entry);
+                }
+                projections.put(mask, projection);
+            }
+            return projection;
+        }
+
+        private static <T> void addAll(Collection<Entry<T>> entries, List<T> result) {
+            for (Entry<T> entry : entries) {
+                result.add(entry.value);
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package org.projectfloodlight.openflow.protocol.match;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.Arrays;
+
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.oxm.OFOxm;
+import org.projectfloodlight.openflow.protocol.oxm.OFOxms;
+import org.projectfloodlight.openflow.types.OFValueType;
+
+/**
+ * Flat, version independent encoding of a {@link Match} as fixed-layout <code>long[]</code>
+ * value and mask vectors.
+ * <p>
+ * Every match field with a fixed length value has a fixed slot (see {@link PackedMatchLayout}),
+ * holding the wire encoding of the field's value and mask. A wildcarded field has an all-zero
+ * mask, an exact field an all-ones mask, and values are stored with their mask applied. Thus two
+ * matches are equal iff their packed forms are equal, and matching, hashing and comparing packed
+ * matches are plain bit operations on the words, without allocation.
+ * <p>
+ * Conversion to and from {@link Match} is bijective for canonical matches of any version, where
+ * only fields whose prerequisites are satisfied are considered (see
+ * {@link Match#getMatchFields()}).
+ */
+public final class PackedMatch {
+    /** number of words of the value and mask vectors */
+    public static final int WORDS = PackedMatchLayout.WORDS;
+
+    /** the match that matches everything */
+    public static final PackedMatch ALL = new PackedMatch(new long[WORDS], new long[WORDS]);
+
+    private final long[] values;
+    private final long[] masks;
+    /** cached hash code, 0 if not computed yet */
+    private int hash;
+
+    private PackedMatch(long[] values, long[] masks) {
+        this.values = values;
+        this.masks = masks;
+    }
+
+    /**
+     * @param field match field
+     * @return true iff values of the field can be represented in a PackedMatch
+     */
+    public static boolean isSupported(MatchField<?> field) {
+        return PackedMatchLayout.LENGTH[field.id.ordinal()] > 0;
+    }
+
+    /**
+     * create the packed form of a match.
+     *
+     * @param match match of any version
+     * @return the packed match
+     * @throws IllegalArgumentException if the match contains a field that is not supported
+     */
+    public static PackedMatch of(Match match) {
+        long[] values = new long[WORDS];
+        long[] masks = new long[WORDS];
+        for (MatchField<?> field : match.getMatchFields()) {
+            pack(match, field, values, masks);
+        }
+        return new PackedMatch(values, masks);
+    }
+
+    private static <F extends OFValueType<F>> void pack(Match match, MatchField<F> field,
+            long[] values, long[] masks) {
+        if (!isSupported(field))
+            throw new IllegalArgumentException("Match field " + field.getName() + " cannot be packed");
+        int i = field.id.ordinal();
+        OFOxms oxms = OFFactories.getFactory(PackedMatchLayout.VERSION[i]).oxms();
+        OFOxm<F> oxm;
+        if (match.isExact(field))
+            oxm = oxms.fromValue(match.get(field), field);
+        else
+            oxm = oxms.fromMasked(match.getMasked(field), field);
+
+        int length = PackedMatchLayout.LENGTH[i];
+        ByteBuf bb = Unpooled.buffer(oxm.getWireLength());
+        oxm.writeTo(bb);
+        bb.skipBytes(PackedMatchLayout.HEADER_LENGTH[i]);
+        byte[] value = new byte[length];
+        bb.readBytes(value);
+        byte[] mask = new byte[length];
+        if (oxm.isMasked())
+            bb.readBytes(mask);
+        else
+            Arrays.fill(mask, (byte) 0xFF);
+        for (int b = 0; b < length; b++) {
+            value[b] &= mask[b];
+        }
+        put(values, i, value);
+        put(masks, i, mask);
+    }
+
+    private static void put(long[] words, int i, byte[] bytes) {
+        int word = PackedMatchLayout.WORD[i];
+        if (bytes.length <= 8) {
+            long v = 0;
+            for (byte b : bytes) {
+                v = (v << 8) | (b & 0xFF);
+            }
+            words[word] |= v << PackedMatchLayout.SHIFT[i];
+        } else {
+            for (int b = 0; b < bytes.length; b++) {
+                words[word + b / 8] |= (bytes[b] & 0xFFL) << (56 - (b % 8) * 8);
+            }
+        }
+    }
+
+    private static byte[] get(long[] words, int i) {
+        int word = PackedMatchLayout.WORD[i];
+        byte[] bytes = new byte[PackedMatchLayout.LENGTH[i]];
+        if (bytes.length <= 8) {
+            long v = words[word] >>> PackedMatchLayout.SHIFT[i];
+            for (int b = bytes.length - 1; b >= 0; b--) {
+                bytes[b] = (byte) v;
+                v >>>= 8;
+            }
+        } else {
+            for (int b = 0; b < bytes.length; b++) {
+                bytes[b] = (byte) (words[word + b / 8] >>> (56 - (b % 8) * 8));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * convert this packed match back into a match of the factory's version.
+     *
+     * @param factory factory of the target version
+     * @return the match
+     * @throws UnsupportedOperationException if a field is not supported by the target version
+     */
+    public Match toMatch(OFFactory factory) {
+        Match.Builder builder = factory.buildMatch();
+        for (MatchFields id : MatchFields.values()) {
+            int i = id.ordinal();
+            if (PackedMatchLayout.LENGTH[i] == 0)
+                continue;
+            byte[] mask = get(masks, i);
+            boolean wildcard = true;
+            boolean exact = true;
+            for (byte b : mask) {
+                wildcard &= b == 0;
+                exact &= b == (byte) 0xFF;
+            }
+            if (wildcard)
+                continue;
+            unpack(builder, readOxm(i, get(values, i), exact ? null : mask));
+        }
+        return builder.build();
+    }
+
+    private static OFOxm<?> readOxm(int i, byte[] value, byte[] mask) {
+        int headerLength = PackedMatchLayout.HEADER_LENGTH[i];
+        long header = mask == null ? PackedMatchLayout.HEADER[i] : PackedMatchLayout.MASKED_HEADER[i];
+        if (header == 0)
+            throw new IllegalStateException("Match field " + MatchFields.values()[i] + " cannot be masked");
+        ByteBuf bb = Unpooled.buffer(headerLength + value.length * 2);
+        for (int b = headerLength - 1; b >= 0; b--) {
+            bb.writeByte((int) (header >>> (b * 8)));
+        }
+        bb.writeBytes(value);
+        if (mask != null)
+            bb.writeBytes(mask);
+        try {
+            return OFFactories.getFactory(PackedMatchLayout.VERSION[i]).oxms().getReader().readFrom(bb);
+        } catch (OFParseError e) {
+            throw new IllegalStateException("Cannot decode packed match field " + MatchFields.values()[i], e);
+        }
+    }
+
+    private static <F extends OFValueType<F>> void unpack(Match.Builder builder, OFOxm<F> oxm) {
+        if (oxm.isMasked())
+            builder.setMasked(oxm.getMatchField(), oxm.getValue(), oxm.getMask());
+        else
+            builder.setExact(oxm.getMatchField(), oxm.getValue());
+    }
+
+    /**
+     * @param key packed form of the exact header fields of a packet (e.g., created from an exact
+     *            match); wildcarded fields of the key are treated as zero
+     * @return true iff this match matches the key
+     */
+    public boolean matches(PackedMatch key) {
+        long[] keyValues = key.values;
+        for (int i = 0; i < WORDS; i++) {
+            if ((keyValues[i] & masks[i]) != values[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param other packed match
+     * @return true iff there is a packet matched by both this and the other match, i.e., iff
+     *         they agree on all bits that both of them match on
+     */
+    public boolean overlaps(PackedMatch other) {
+        long[] otherValues = other.values;
+        long[] otherMasks = other.masks;
+        for (int i = 0; i < WORDS; i++) {
+            if (((values[i] ^ otherValues[i]) & masks[i] & otherMasks[i]) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param other packed match
+     * @return true iff every packet matched by this match is also matched by the other match,
+     *         i.e., iff this match matches on (at least) all bits the other one matches on, with
+     *         the same values
+     */
+    public boolean isSubsetOf(PackedMatch other) {
+        long[] otherValues = other.values;
+        long[] otherMasks = other.masks;
+        for (int i = 0; i < WORDS; i++) {
+            if ((otherMasks[i] & ~masks[i]) != 0 || (values[i] & otherMasks[i]) != otherValues[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param other packed match
+     * @return the match that matches exactly the packets matched by both this and the other
+     *         match, or null if the matches do not overlap
+     */
+    public PackedMatch intersect(PackedMatch other) {
+        if (!overlaps(other))
+            return null;
+        if (isSubsetOf(other))
+            return this;
+        if (other.isSubsetOf(this))
+            return other;
+        long[] newValues = new long[WORDS];
+        long[] newMasks = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            newValues[i] = values[i] | other.values[i];
+            newMasks[i] = masks[i] | other.masks[i];
+        }
+        return new PackedMatch(newValues, newMasks);
+    }
+
+    /**
+     * @param word index of the word
+     * @return value word, with the mask applied
+     */
+    public long getValueWord(int word) {
+        return values[word];
+    }
+
+    /**
+     * @param word index of the word
+     * @return mask word
+     */
+    public long getMaskWord(int word) {
+        return masks[word];
+    }
+
+    /**
+     * get the value of a field of up to 8 bytes as the unsigned number of its OXM encoding, e.g.,
+     * the 32 bit port number of {@link MatchField#IN_PORT} or the vid of {@link MatchField#VLAN_VID}
+     * including the present bit. Reads the packed words directly, without allocating.
+     *
+     * @param field match field
+     * @return value of the field, with the mask applied; 0 if the field is wildcarded
+     * @throws IllegalArgumentException if the field is not supported or longer than 8 bytes
+     */
+    public long getRawValue(MatchField<?> field) {
+        return getRaw(values, field);
+    }
+
+    /**
+     * get the mask of a field of up to 8 bytes, see {@link #getRawValue(MatchField)}.
+     *
+     * @param field match field
+     * @return mask of the field; all ones if the field is exact, 0 if it is wildcarded
+     * @throws IllegalArgumentException if the field is not supported or longer than 8 bytes
+     */
+    public long getRawMask(MatchField<?> field) {
+        return getRaw(masks, field);
+    }
+
+    private static long getRaw(long[] words, MatchField<?> field) {
+        int i = field.id.ordinal();
+        int length = PackedMatchLayout.LENGTH[i];
+        if (length == 0 || length > 8)
+            throw new IllegalArgumentException("Match field " + field.getName() + " has no raw value");
+        long v = words[PackedMatchLayout.WORD[i]] >>> PackedMatchLayout.SHIFT[i];
+        return length == 8 ? v : v & ((1L << (length * 8)) - 1);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + Arrays.hashCode(values);
+            result = prime * result + Arrays.hashCode(masks);
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        PackedMatch other = (PackedMatch) obj;
+        if (!Arrays.equals(masks, other.masks))
+            return false;
+        if (!Arrays.equals(values, other.values))
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("PackedMatch(");
+        for (int i = 0; i < WORDS; i++) {
+            if (masks[i] == 0)
+                continue;
+            if (b.length() > "PackedMatch(".length())
+                b.append(", ");
+            b.append(i).append('=').append(String.format("%016x/%016x", values[i], masks[i]));
+        }
+        return b.append(')').toString();
+    }
+}
@@ -3,6 +3,8 @@ package org.projectfloodlight.openflow.protocol.match;
 import java.util.Set;
 import com.google.common.collect.ImmutableSet;
 
+import org.projectfloodlight.openflow.protocol.OFOxmList;
+import org.projectfloodlight.openflow.protocol.oxm.OFOxm;
 import org.projectfloodlight.openflow.types.OFValueType;
 
 public class Prerequisite<T extends OFValueType<T>> {
@@ -30,12 +32,29 @@ public class Prerequisite<T extends OFValueType<T>> {
      * @return true iff prerequisite is satisfied.
      */
     public boolean isSatisfied(Match match) {
-        OFValueType<T> res = match.get(this.field);
-        if (res == null)
+        return isSatisfiedBy(match.get(this.field));
+    }
+
+    /**
+     * Returns true if this prerequisite is satisfied by the given OXMs, i.e., the
+     * required field is present with a valid value and its own prerequisites are satisfied.
+     *
+     * @param oxmList OXMs of a match
+     * @return true iff prerequisite is satisfied.
+     */
+    public boolean isSatisfied(OFOxmList oxmList) {
+        OFOxm<T> oxm = oxmList.get(this.field);
+        if (oxm == null || !this.field.arePrerequisitesOK(oxmList))
+            return false;
+        return isSatisfiedBy(oxm.getValue());
+    }
+
+    private boolean isSatisfiedBy(OFValueType<T> value) {
+        if (value == null)
             return false;
         if (this.any)
             return true;
-        if (this.values.contains(res)) {
+        if (this.values.contains(value)) {
             return true;
         }
         return false;
@@ -0,0 +1,51 @@
+package org.projectfloodlight.openflow.protocol.match;
+
+/**
+ * Hash key over the first <code>length</code> words of a <code>long[]</code>, used to index
+ * {@link PackedMatch} words. The words must not be modified while the key is in use.
+ */
+final class WordKey {
+    private final long[] words;
+    private final int length;
+    private final int hash;
+
+    WordKey(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+        int h = 1;
+        for (int i = 0; i < length; i++) {
+            long w = words[i];
+            h = 31 * h + (int) (w ^ (w >>> 32));
+        }
+        this.hash = h;
+    }
+
+    WordKey(long[] words) {
+        this(words, words.length);
+    }
+
+    long[] getWords() {
+        return words;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof WordKey))
+            return false;
+        WordKey other = (WordKey) obj;
+        if (hash != other.hash || length != other.length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (words[i] != other.words[i])
+                return false;
+        }
+        return true;
+    }
+}
@@ -8,6 +8,7 @@ import org.projectfloodlight.openflow.exceptions.OFParseError;
 import org.projectfloodlight.openflow.protocol.OFActionType;
 import org.projectfloodlight.openflow.protocol.match.Match;
 import org.projectfloodlight.openflow.protocol.stat.Stat;
+import org.projectfloodlight.openflow.util.ChannelUtils;
 
 import com.google.common.hash.PrimitiveSink;
 
@@ -22,6 +23,10 @@ public class ChannelUtilsVer10 {
         return OFMatchV1Ver10.READER.readFrom(bb);
     }
 
+    public static void skipOFMatch(final ByteBuf bb) throws OFParseError {
+        ChannelUtils.skipFixedLength(bb, OFMatchV1Ver10.LENGTH, "match");
+    }
+
     public static Set<OFActionType> readSupportedActions(ByteBuf bb) {
         int actions = bb.readInt();
         EnumSet<OFActionType> supportedActions = EnumSet.noneOf(OFActionType.class);
@@ -5,6 +5,7 @@ import org.projectfloodlight.openflow.exceptions.OFParseError;
 import org.projectfloodlight.openflow.protocol.OFMatchBmap;
 import org.projectfloodlight.openflow.protocol.match.Match;
 import org.projectfloodlight.openflow.protocol.stat.Stat;
+import org.projectfloodlight.openflow.util.ChannelUtils;
 
 /**
  * Collection of helper functions for reading and writing into Unpooled
@@ -17,6 +18,10 @@ public class ChannelUtilsVer11 {
         return OFMatchV2Ver11.READER.readFrom(bb);
     }
 
+    public static void skipOFMatch(final ByteBuf bb) throws OFParseError {
+        ChannelUtils.skipFixedLength(bb, OFMatchV2Ver11.LENGTH, "match");
+    }
+
     public static OFMatchBmap readOFMatchBmap(ByteBuf bb) {
         throw new UnsupportedOperationException("not implemented");
     }
@@ -7,6 +7,7 @@ import org.projectfloodlight.openflow.protocol.match.Match;
 import org.projectfloodlight.openflow.protocol.ver12.OFMatchV3Ver12;
 import org.projectfloodlight.openflow.protocol.OFBsnVportQInQ;
 import org.projectfloodlight.openflow.protocol.stat.Stat;
+import org.projectfloodlight.openflow.util.ChannelUtils;
 
 /**
  * Collection of helper functions for reading and writing into Unpooled
@@ -19,6 +20,10 @@ public class ChannelUtilsVer12 {
         return OFMatchV3Ver12.READER.readFrom(bb);
     }
 
+    public static void skipOFMatch(final ByteBuf bb) throws OFParseError {
+        ChannelUtils.skipPaddedLength(bb, OFMatchV3Ver12.MINIMUM_LENGTH, "match");
+    }
+
     // TODO these need to be figured out / removed
 
     public static OFBsnVportQInQ readOFBsnVportQInQ(ByteBuf bb) {
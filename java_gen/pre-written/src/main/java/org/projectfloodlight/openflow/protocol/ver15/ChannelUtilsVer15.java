@@ -5,6 +5,7 @@ import org.projectfloodlight.openflow.exceptions.OFParseError;
 import org.projectfloodlight.openflow.protocol.OFMatchBmap;
 import org.projectfloodlight.openflow.protocol.match.Match;
 import org.projectfloodlight.openflow.protocol.stat.Stat;
+import org.projectfloodlight.openflow.util.ChannelUtils;
 /**
  * Collection of helper functions for reading and writing into ByteBufs
  *
@@ -16,10 +17,18 @@ public class ChannelUtilsVer15 {
         return OFMatchV3Ver15.READER.readFrom(bb);
     }
 
+    public static void skipOFMatch(final ByteBuf bb) throws OFParseError {
+        ChannelUtils.skipPaddedLength(bb, OFMatchV3Ver15.MINIMUM_LENGTH, "match");
+    }
+
     public static Stat readOFStat(final ByteBuf bb) throws OFParseError {
         return OFStatV6Ver15.READER.readFrom(bb);
     }
 
+    public static void skipOFStat(final ByteBuf bb) throws OFParseError {
+        ChannelUtils.skipPaddedLength(bb, OFStatV6Ver15.MINIMUM_LENGTH, "stat");
+    }
+
     public static OFMatchBmap readOFMatchBmap(ByteBuf bb) {
         throw new UnsupportedOperationException("not implemented");
     }
@@ -0,0 +1,368 @@
+package org.projectfloodlight.openflow.types;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+
+/**
+ * Map from CIDR prefixes to values, supporting longest prefix match lookups, enumeration of the
+ * prefixes covering a prefix and iteration over the prefixes within a prefix.
+ * <p>
+ * Implemented as a path-compressed binary (Patricia) trie on the raw bits of the addresses:
+ * every node holds a prefix and has at most two children that extend it, and nodes without a
+ * value exist only where two branches diverge. Operations thus take time proportional to the
+ * number of prefixes along the path, bounded by the address length, independently of the number
+ * of prefixes.
+ * <p>
+ * Nodes are immutable and updates copy the path from the root to the modified node, so readers
+ * (lookups and iterators) never block and always see a consistent snapshot of the trie, while
+ * updates are serialized.
+ *
+ * @param <F> address type
+ * @param <P> prefix type
+ * @param <V> value type
+ * @see IPv4PrefixTrie
+ * @see IPv6PrefixTrie
+ */
+public abstract class IPPrefixTrie<F extends IPAddress<F>, P extends IPAddressWithMask<F>, V>
+        implements Iterable<Map.Entry<P, V>> {
+    private final int maxLength;
+    private volatile Node<V> root;
+    private volatile int size;
+
+    IPPrefixTrie(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    /** @return the upper 64 bits of the address, left aligned */
+    abstract long getRaw1(F address);
+
+    /** @return the lower 64 bits of the address */
+    abstract long getRaw2(F address);
+
+    /** @return the prefix of the given length of the raw address */
+    abstract P toPrefix(long raw1, long raw2, int length);
+
+    /**
+     * @param prefix CIDR prefix
+     * @return the value associated with exactly this prefix, or null
+     * @throws IllegalArgumentException if the mask of the prefix is not a CIDR mask
+     */
+    @Nullable
+    public V get(@Nonnull P prefix) {
+        int length = getLength(prefix);
+        long raw1 = getRaw1(prefix.getValue()) & mask1(length);
+        long raw2 = getRaw2(prefix.getValue()) & mask2(length);
+        Node<V> node = root;
+        while (node != null && commonLength(node, raw1, raw2, length) == node.length) {
+            if (node.length == length)
+                return node.value;
+            node = node.getChild(bit(raw1, raw2, node.length));
+        }
+        return null;
+    }
+
+    /**
+     * associate a value with a prefix. Bits of the prefix's value outside of its mask are
+     * ignored.
+     *
+     * @param prefix CIDR prefix
+     * @param value value, not null
+     * @return the value previously associated with the prefix, or null
+     * @throws IllegalArgumentException if the mask of the prefix is not a CIDR mask
+     */
+    @Nullable
+    public synchronized V put(@Nonnull P prefix, @Nonnull V value) {
+        Preconditions.checkNotNull(value, "value must not be null");
+        V old = get(prefix);
+        int length = getLength(prefix);
+        root = insert(root, getRaw1(prefix.getValue()) & mask1(length),
+                getRaw2(prefix.getValue()) & mask2(length), length, value);
+        if (old == null)
+            size++;
+        return old;
+    }
+
+    /**
+     * remove a prefix.
+     *
+     * @param prefix CIDR prefix
+     * @return the value that was associated with the prefix, or null if there was none
+     * @throws IllegalArgumentException if the mask of the prefix is not a CIDR mask
+     */
+    @Nullable
+    public synchronized V remove(@Nonnull P prefix) {
+        V old = get(prefix);
+        if (old != null) {
+            int length = getLength(prefix);
+            root = delete(root, getRaw1(prefix.getValue()) & mask1(length),
+                    getRaw2(prefix.getValue()) & mask2(length), length);
+            size--;
+        }
+        return old;
+    }
+
+    /** remove all prefixes */
+    public synchronized void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /** @return the number of prefixes */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * longest prefix match.
+     *
+     * @param address address
+     * @return the value associated with the longest prefix containing the address, or null
+     */
+    @Nullable
+    public V lookup(@Nonnull F address) {
+        return lookup(getRaw1(address), getRaw2(address));
+    }
+
+    /**
+     * longest prefix match.
+     *
+     * @param address address
+     * @return the longest prefix containing the address and its value, or null
+     */
+    @Nullable
+    public Map.Entry<P, V> lookupEntry(@Nonnull F address) {
+        Node<V> node = lookupNode(getRaw1(address), getRaw2(address));
+        return node == null ? null : toEntry(node);
+    }
+
+    V lookup(long raw1, long raw2) {
+        Node<V> node = lookupNode(raw1, raw2);
+        return node == null ? null : node.value;
+    }
+
+    private Node<V> lookupNode(long raw1, long raw2) {
+        Node<V> best = null;
+        Node<V> node = root;
+        while (node != null && commonLength(node, raw1, raw2, maxLength) == node.length) {
+            if (node.value != null)
+                best = node;
+            if (node.length == maxLength)
+                break;
+            node = node.getChild(bit(raw1, raw2, node.length));
+        }
+        return best;
+    }
+
+    /**
+     * @param prefix CIDR prefix
+     * @return the prefixes containing the given prefix (including the prefix itself) and their
+     *         values, from the shortest to the longest prefix
+     * @throws IllegalArgumentException if the mask of the prefix is not a CIDR mask
+     */
+    @Nonnull
+    public List<Map.Entry<P, V>> getCovering(@Nonnull P prefix) {
+        int length = getLength(prefix);
+        long raw1 = getRaw1(prefix.getValue());
+        long raw2 = getRaw2(prefix.getValue());
+        List<Map.Entry<P, V>> result = new ArrayList<Map.Entry<P, V>>();
+        Node<V> node = root;
+        while (node != null && commonLength(node, raw1, raw2, length) == node.length) {
+            if (node.value != null)
+                result.add(toEntry(node));
+            if (node.length == length)
+                break;
+            node = node.getChild(bit(raw1, raw2, node.length));
+        }
+        return result;
+    }
+
+    /**
+     * @param prefix CIDR prefix
+     * @return the prefixes contained in the given prefix (including the prefix itself) and their
+     *         values, in ascending order of address, then length. The iteration is over a
+     *         snapshot of the trie at the time of this call.
+     * @throws IllegalArgumentException if the mask of the prefix is not a CIDR mask
+     */
+    @Nonnull
+    public Iterable<Map.Entry<P, V>> getSubtree(@Nonnull P prefix) {
+        int length = getLength(prefix);
+        long raw1 = getRaw1(prefix.getValue());
+        long raw2 = getRaw2(prefix.getValue());
+        Node<V> node = root;
+        while (node != null) {
+            int common = commonLength(node, raw1, raw2, length);
+            if (common == length)
+                break;
+            if (common < node.length)
+                node = null;
+            else
+                node = node.getChild(bit(raw1, raw2, node.length));
+        }
+        final Node<V> subtree = node;
+        return new Iterable<Map.Entry<P, V>>() {
+            @Override
+            public Iterator<Map.Entry<P, V>> iterator() {
+                return new TrieIterator(subtree);
+            }
+        };
+    }
+
+    /**
+     * @return an iterator over all prefixes and their values, in ascending order of address,
+     *         then length. The iteration is over a snapshot of the trie at the time of this call.
+     */
+    @Override
+    public Iterator<Map.Entry<P, V>> iterator() {
+        return new TrieIterator(root);
+    }
+
+    private int getLength(P prefix) {
+        Preconditions.checkNotNull(prefix, "prefix must not be null");
+        F mask = prefix.getMask();
+        if (!mask.isCidrMask())
+            throw new IllegalArgumentException("Not a CIDR prefix: " + prefix);
+        return mask.asCidrMaskLength();
+    }
+
+    private Map.Entry<P, V> toEntry(Node<V> node) {
+        return Maps.immutableEntry(toPrefix(node.raw1, node.raw2, node.length), node.value);
+    }
+
+    private static long mask1(int length) {
+        return length == 0 ? 0 : length >= 64 ? -1L : -1L << (64 - length);
+    }
+
+    private static long mask2(int length) {
+        return length <= 64 ? 0 : -1L << (128 - length);
+    }
+
+    /** @return bit i of the 128 bit address, counted from the most significant one */
+    private static int bit(long raw1, long raw2, int i) {
+        return i < 64 ? (int) (raw1 >>> (63 - i)) & 1 : (int) (raw2 >>> (127 - i)) & 1;
+    }
+
+    /** @return the length of the common prefix of the node and the address, at most limit */
+    private static int commonLength(Node<?> node, long raw1, long raw2, int limit) {
+        long diff1 = node.raw1 ^ raw1;
+        int common = diff1 != 0 ? Long.numberOfLeadingZeros(diff1)
+                : 64 + Long.numberOfLeadingZeros(node.raw2 ^ raw2);
+        return Math.min(common, Math.min(node.length, limit));
+    }
+
+    private static <V> Node<V> insert(Node<V> node, long raw1, long raw2, int length, V value) {
+        if (node == null)
+            return new Node<V>(raw1, raw2, length, value, null, null);
+        int common = commonLength(node, raw1, raw2, length);
+        if (common == node.length) {
+            if (common == length)
+                return node.withValue(value);
+            int b = bit(raw1, raw2, node.length);
+            return node.withChild(b, insert(node.getChild(b), raw1, raw2, length, value));
+        }
+        if (common == length) {
+            // the new prefix contains the node
+            return new Node<V>(raw1, raw2, length, value, null, null)
+                    .withChild(bit(node.raw1, node.raw2, length), node);
+        }
+        // the new prefix and the node diverge: join them at their common prefix
+        Node<V> leaf = new Node<V>(raw1, raw2, length, value, null, null);
+        long glue1 = raw1 & mask1(common);
+        long glue2 = raw2 & mask2(common);
+        if (bit(raw1, raw2, common) == 0)
+            return new Node<V>(glue1, glue2, common, null, leaf, node);
+        else
+            return new Node<V>(glue1, glue2, common, null, node, leaf);
+    }
+
+    private static <V> Node<V> delete(Node<V> node, long raw1, long raw2, int length) {
+        if (node == null || commonLength(node, raw1, raw2, length) < node.length)
+            return node;
+        if (node.length == length)
+            return node.withValue(null).compact();
+        int b = bit(raw1, raw2, node.length);
+        Node<V> child = node.getChild(b);
+        Node<V> newChild = delete(child, raw1, raw2, length);
+        if (newChild == child)
+            return node;
+        return node.withChild(b, newChild).compact();
+    }
+
+    private static final class Node<V> {
+        /** prefix bits, with the bits beyond length cleared */
+        final long raw1;
+        final long raw2;
+        final int length;
+        /** value, or null if this node only joins its children */
+        final V value;
+        final Node<V> left;
+        final Node<V> right;
+
+        Node(long raw1, long raw2, int length, V value, Node<V> left, Node<V> right) {
+            this.raw1 = raw1;
+            this.raw2 = raw2;
+            this.length = length;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+        }
+
+        Node<V> getChild(int bit) {
+            return bit == 0 ? left : right;
+        }
+
+        Node<V> withValue(V newValue) {
+            return new Node<V>(raw1, raw2, length, newValue, left, right);
+        }
+
+        Node<V> withChild(int bit, Node<V> child) {
+            return bit == 0 ? new Node<V>(raw1, raw2, length, value, child, right)
+                    : new Node<V>(raw1, raw2, length, value, left, child);
+        }
+
+        /** @return this node, or what replaces it if it has no value and fewer than two children */
+        Node<V> compact() {
+            if (value != null || (left != null && right != null))
+                return this;
+            return left != null ? left : right;
+        }
+    }
+
+    /** pre-order traversal, which yields prefixes in ascending order of address, then length */
+    private class TrieIterator extends AbstractIterator<Map.Entry<P, V>> {
+        private final Deque<Node<V>> stack = new ArrayDeque<Node<V>>();
+
+        TrieIterator(Node<V> start) {
+            if (start != null)
+                stack.push(start);
+        }
+
+        @Override
+        protected Map.Entry<P, V> computeNext() {
+            while (!stack.isEmpty()) {
+                Node<V> node = stack.pop();
+                if (node.right != null)
+                    stack.push(node.right);
+                if (node.left != null)
+                    stack.push(node.left);
+                if (node.value != null)
+                    return toEntry(node);
+            }
+            return endOfData();
+        }
+    }
+}
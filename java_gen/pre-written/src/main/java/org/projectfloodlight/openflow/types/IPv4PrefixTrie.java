@@ -0,0 +1,45 @@
+package org.projectfloodlight.openflow.types;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link IPPrefixTrie} of IPv4 prefixes.
+ *
+ * @param <V> value type
+ */
+public class IPv4PrefixTrie<V> extends IPPrefixTrie<IPv4Address, IPv4AddressWithMask, V> {
+
+    public IPv4PrefixTrie() {
+        super(32);
+    }
+
+    /**
+     * longest prefix match on a raw address, see {@link IPv4Address#getInt()}.
+     *
+     * @param rawAddress raw address
+     * @return the value associated with the longest prefix containing the address, or null
+     */
+    @Nullable
+    public V lookup(int rawAddress) {
+        return lookup(toRaw1(rawAddress), 0);
+    }
+
+    private static long toRaw1(int rawAddress) {
+        return ((long) rawAddress) << 32;
+    }
+
+    @Override
+    long getRaw1(IPv4Address address) {
+        return toRaw1(address.getInt());
+    }
+
+    @Override
+    long getRaw2(IPv4Address address) {
+        return 0;
+    }
+
+    @Override
+    IPv4AddressWithMask toPrefix(long raw1, long raw2, int length) {
+        return IPv4Address.of((int) (raw1 >>> 32)).withMaskOfLength(length);
+    }
+}
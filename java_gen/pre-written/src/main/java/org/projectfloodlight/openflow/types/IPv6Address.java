@@ -50,6 +50,16 @@ public class IPv6Address extends IPAddress<IPv6Address> implements Writeable {
         this.raw2 = raw2;
     }
 
+    /** @return the upper 64 bits of the address */
+    long getRaw1() {
+        return raw1;
+    }
+
+    /** @return the lower 64 bits of the address */
+    long getRaw2() {
+        return raw2;
+    }
+
     public final static Reader READER = new Reader();
 
     private static class Reader implements OFMessageReader<IPv6Address> {
@@ -0,0 +1,43 @@
+package org.projectfloodlight.openflow.types;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link IPPrefixTrie} of IPv6 prefixes.
+ *
+ * @param <V> value type
+ */
+public class IPv6PrefixTrie<V> extends IPPrefixTrie<IPv6Address, IPv6AddressWithMask, V> {
+
+    public IPv6PrefixTrie() {
+        super(128);
+    }
+
+    /**
+     * longest prefix match on a raw address, see {@link IPv6Address#of(long, long)}.
+     *
+     * @param raw1 the upper 64 bits of the address
+     * @param raw2 the lower 64 bits of the address
+     * @return the value associated with the longest prefix containing the address, or null
+     */
+    @Override
+    @Nullable
+    public V lookup(long raw1, long raw2) {
+        return super.lookup(raw1, raw2);
+    }
+
+    @Override
+    long getRaw1(IPv6Address address) {
+        return address.getRaw1();
+    }
+
+    @Override
+    long getRaw2(IPv6Address address) {
+        return address.getRaw2();
+    }
+
+    @Override
+    IPv6AddressWithMask toPrefix(long raw1, long raw2, int length) {
+        return IPv6Address.of(raw1, raw2).withMaskOfLength(length);
+    }
+}
@@ -53,6 +53,13 @@ public class OFErrorCauseData implements Writeable, PrimitiveSinkable {
         return Arrays.copyOf(data, data.length);
     }
 
+    /**
+     * @return a read-only view of the data, without copying
+     */
+    public ByteBuf getDataSlice() {
+        return Unpooled.unmodifiableBuffer(Unpooled.wrappedBuffer(data));
+    }
+
     public Optional<OFMessage> getParsedMessage() {
         OFFactory factory = OFFactories.getFactory(version);
         try {
@@ -68,8 +75,9 @@ public class OFErrorCauseData implements Writeable, PrimitiveSinkable {
     }
 
     public static OFErrorCauseData read(ByteBuf bb, int length, OFVersion version) {
+        // fresh array, no defensive copy needed
         byte[] bytes = ChannelUtils.readBytes(bb, length);
-        return of(bytes, version);
+        return new OFErrorCauseData(bytes, version);
    }
 
     @Override
@@ -82,6 +90,11 @@ public class OFErrorCauseData implements Writeable, PrimitiveSinkable {
         bb.writeBytes(data);
     }
 
+    /** @return the number of bytes {@link #writeTo(ByteBuf)} writes */
+    public int getWireLength() {
+        return data.length;
+    }
+
    @Override
    public String toString() {
       Optional<OFMessage> parsedMessage = getParsedMessage();
@@ -544,6 +544,20 @@ public class OFPort implements OFValueType<OFPort> {
         c.writeShort(this.portNumber);
     }
 
+    /**
+     * convert a raw signed 16-bit integer port number (OF1.0) into the corresponding 32-bit
+     * integer port number, as <code>ofShort(portNumber).getPortNumber()</code>, but without
+     * allocating or validating special port numbers.
+     *
+     * @param portNumber the short port number
+     * @return the integer port number
+     */
+    public static int shortToPortNumber(final short portNumber) {
+        // sign extension maps 0x0000 - 0x7fff to themselves and the special ports
+        // 0xff00 - 0xffff to 0xffffff00 - 0xffffffff; 0x8000 - 0xfeff are unsigned
+        return portNumber >= OFPP_MAX_SHORT ? portNumber : U16.f(portNumber);
+    }
+
     public static OFPort read2Bytes(ByteBuf c) throws OFParseError {
         return OFPort.ofShort(c.readShort());
     }
@@ -4,7 +4,9 @@ import java.util.List;
 
 import io.netty.buffer.ByteBuf;
 import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFListVisitor;
 import org.projectfloodlight.openflow.protocol.OFMessageReader;
+import org.projectfloodlight.openflow.protocol.OFObject;
 import org.projectfloodlight.openflow.protocol.Writeable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,12 +48,52 @@ public class ChannelUtils {
         }
     }
 
+    /**
+     * skip a fixed length structure.
+     *
+     * @throws OFParseError if the buffer holds less than length bytes
+     */
+    public static void skipFixedLength(final ByteBuf bb, final int length, final String name) throws OFParseError {
+        if(bb.readableBytes() < length)
+            throw new OFParseError("Truncated " + name + ": Expected " + length + " bytes, got: " + bb.readableBytes());
+        bb.skipBytes(length);
+    }
+
+    /**
+     * skip a structure with a 16 bit length at offset 2 that is padded to 8 bytes, such as an
+     * OF1.2+ match or an OF1.5 stat.
+     *
+     * @throws OFParseError if the length is less than minimumLength, or the buffer does not hold
+     *             the padded structure
+     */
+    public static void skipPaddedLength(final ByteBuf bb, final int minimumLength, final String name) throws OFParseError {
+        if(bb.readableBytes() < 4)
+            throw new OFParseError("Truncated " + name + ": Expected at least 4 bytes, got: " + bb.readableBytes());
+        int length = bb.getUnsignedShort(bb.readerIndex() + 2);
+        if(length < minimumLength)
+            throw new OFParseError("Wrong " + name + " length: Expected to be >= " + minimumLength + ", was: " + length);
+        // align to 8 bytes (length does not contain alignment)
+        int paddedLength = (length + 7)/8 * 8;
+        if(bb.readableBytes() < paddedLength)
+            throw new OFParseError("Truncated " + name + ": Expected " + paddedLength + " bytes, got: " + bb.readableBytes());
+        bb.skipBytes(paddedLength);
+    }
+
     static public byte[] readBytes(final ByteBuf bb, final int length) {
         byte byteArray[] = new byte[length];
         bb.readBytes(byteArray);
         return byteArray;
     }
 
+    /**
+     * @return a copy of the readable bytes of the buffer, without changing its reader index
+     */
+    static public byte[] getBytes(final ByteBuf bb) {
+        byte byteArray[] = new byte[bb.readableBytes()];
+        bb.getBytes(bb.readerIndex(), byteArray);
+        return byteArray;
+    }
+
     static public void writeBytes(final ByteBuf bb,
             final byte byteArray[]) {
         bb.writeBytes(byteArray);
@@ -74,7 +116,39 @@ public class ChannelUtils {
         return builder.build();
     }
 
+    /**
+     * read a list of elements, passing each element to the visitor as it is read instead of
+     * collecting them into a list.
+     */
+    public static <T> void readList(ByteBuf bb, int length, OFMessageReader<T> reader, OFListVisitor<? super T> visitor) throws OFParseError {
+        int end = bb.readerIndex() + length;
+        while(bb.readerIndex() < end) {
+            T read = reader.readFrom(bb);
+            if(read == null)
+                throw new OFParseError("Could not read list element: incomplete data, left=" + (end - bb.readerIndex()));
+            visitor.visit(read);
+        }
+        if(bb.readerIndex() != end) {
+            throw new IllegalStateException("Overread length: length="+length + " overread by "+ (bb.readerIndex() - end) + " reader: "+reader);
+        }
+    }
+
+    /** @return the number of bytes {@link #writeList(ByteBuf, List)} writes for objects */
+    public static int getWireLength(List<? extends OFObject> objects) {
+        if(objects instanceof LazyList)
+            return ((LazyList<?>) objects).getWireLength();
+        int length = 0;
+        for(OFObject o: objects)
+            length += o.getWireLength();
+        return length;
+    }
+
     public static void writeList(ByteBuf bb, List<? extends Writeable> writeables) {
+        if(writeables instanceof LazyList) {
+            // copy the raw bytes instead of decoding each element
+            ((LazyList<?>) writeables).writeTo(bb);
+            return;
+        }
         for(Writeable w: writeables)
             w.writeTo(bb);
     }
@@ -0,0 +1,66 @@
+package org.projectfloodlight.openflow.util;
+
+import org.projectfloodlight.openflow.types.DatapathId;
+
+/**
+ * {@link LongLongHashMap} keyed by the raw value of a DatapathId (getLong()), e.g., for per-switch
+ * counters, without allocating per entry. Keys from the cursors can be converted back with {@link
+ * DatapathId#of(long)}.
+ */
+public class DatapathIdLongMap extends LongLongHashMap {
+
+    public DatapathIdLongMap() {
+        super();
+    }
+
+    /** @param expectedSize number of entries the map can hold without being resized */
+    public DatapathIdLongMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param dpid datapath id
+     * @param defaultValue value to return if the datapath id is absent
+     * @return the value associated with the datapath id, or defaultValue
+     */
+    public long get(DatapathId dpid, long defaultValue) {
+        return get(dpid.getLong(), defaultValue);
+    }
+
+    /**
+     * @param dpid datapath id
+     * @param value value
+     * @return the value previously associated with the datapath id, or 0 if it was absent
+     */
+    public long put(DatapathId dpid, long value) {
+        return put(dpid.getLong(), value);
+    }
+
+    /**
+     * add to the value associated with a datapath id, treating an absent one as associated
+     * with 0.
+     *
+     * @param dpid datapath id
+     * @param delta value to add
+     * @return the new value associated with the datapath id
+     */
+    public long addTo(DatapathId dpid, long delta) {
+        return addTo(dpid.getLong(), delta);
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return the value that was associated with the datapath id, or 0 if it was absent
+     */
+    public long remove(DatapathId dpid) {
+        return remove(dpid.getLong());
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return true iff the map contains the datapath id
+     */
+    public boolean containsKey(DatapathId dpid) {
+        return containsKey(dpid.getLong());
+    }
+}
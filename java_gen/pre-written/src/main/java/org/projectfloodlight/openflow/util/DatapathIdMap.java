@@ -0,0 +1,59 @@
+package org.projectfloodlight.openflow.util;
+
+import javax.annotation.Nullable;
+
+import org.projectfloodlight.openflow.types.DatapathId;
+
+/**
+ * {@link LongObjectHashMap} keyed by the raw value of a DatapathId (getLong()), without allocating
+ * per entry. Keys from the cursors can be converted back with {@link DatapathId#of(long)}.
+ *
+ * @param <V> value type
+ */
+public class DatapathIdMap<V> extends LongObjectHashMap<V> {
+
+    public DatapathIdMap() {
+        super();
+    }
+
+    /** @param expectedSize number of entries the map can hold without being resized */
+    public DatapathIdMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return the value associated with the datapath id, or null
+     */
+    @Nullable
+    public V get(DatapathId dpid) {
+        return get(dpid.getLong());
+    }
+
+    /**
+     * @param dpid datapath id
+     * @param value value, not null
+     * @return the value previously associated with the datapath id, or null
+     */
+    @Nullable
+    public V put(DatapathId dpid, V value) {
+        return put(dpid.getLong(), value);
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return the value that was associated with the datapath id, or null
+     */
+    @Nullable
+    public V remove(DatapathId dpid) {
+        return remove(dpid.getLong());
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return true iff the map contains the datapath id
+     */
+    public boolean containsKey(DatapathId dpid) {
+        return containsKey(dpid.getLong());
+    }
+}
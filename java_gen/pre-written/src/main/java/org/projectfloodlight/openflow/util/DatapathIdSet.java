@@ -0,0 +1,43 @@
+package org.projectfloodlight.openflow.util;
+
+import org.projectfloodlight.openflow.types.DatapathId;
+
+/**
+ * {@link LongHashSet} of the raw values of DatapathIds (getLong()), without allocating per element.
+ * Elements from the cursor can be converted back with {@link DatapathId#of(long)}.
+ */
+public class DatapathIdSet extends LongHashSet {
+
+    public DatapathIdSet() {
+        super();
+    }
+
+    /** @param expectedSize number of elements the set can hold without being resized */
+    public DatapathIdSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return true iff the set did not contain the datapath id
+     */
+    public boolean add(DatapathId dpid) {
+        return add(dpid.getLong());
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return true iff the set contains the datapath id
+     */
+    public boolean contains(DatapathId dpid) {
+        return contains(dpid.getLong());
+    }
+
+    /**
+     * @param dpid datapath id
+     * @return true iff the set contained the datapath id
+     */
+    public boolean remove(DatapathId dpid) {
+        return remove(dpid.getLong());
+    }
+}
@@ -0,0 +1,59 @@
+package org.projectfloodlight.openflow.util;
+
+import javax.annotation.Nullable;
+
+import org.projectfloodlight.openflow.types.IPv4Address;
+
+/**
+ * {@link LongObjectHashMap} keyed by the raw value of a IPv4Address (getInt()), without allocating
+ * per entry. Keys from the cursors can be converted back with {@link IPv4Address#of(int)}.
+ *
+ * @param <V> value type
+ */
+public class IPv4AddressMap<V> extends LongObjectHashMap<V> {
+
+    public IPv4AddressMap() {
+        super();
+    }
+
+    /** @param expectedSize number of entries the map can hold without being resized */
+    public IPv4AddressMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param address IPv4 address
+     * @return the value associated with the IPv4 address, or null
+     */
+    @Nullable
+    public V get(IPv4Address address) {
+        return get(address.getInt());
+    }
+
+    /**
+     * @param address IPv4 address
+     * @param value value, not null
+     * @return the value previously associated with the IPv4 address, or null
+     */
+    @Nullable
+    public V put(IPv4Address address, V value) {
+        return put(address.getInt(), value);
+    }
+
+    /**
+     * @param address IPv4 address
+     * @return the value that was associated with the IPv4 address, or null
+     */
+    @Nullable
+    public V remove(IPv4Address address) {
+        return remove(address.getInt());
+    }
+
+    /**
+     * @param address IPv4 address
+     * @return true iff the map contains the IPv4 address
+     */
+    public boolean containsKey(IPv4Address address) {
+        return containsKey(address.getInt());
+    }
+}
@@ -0,0 +1,43 @@
+package org.projectfloodlight.openflow.util;
+
+import org.projectfloodlight.openflow.types.IPv4Address;
+
+/**
+ * {@link LongHashSet} of the raw values of IPv4Addresses (getInt()), without allocating per
+ * element. Elements from the cursor can be converted back with {@link IPv4Address#of(int)}.
+ */
+public class IPv4AddressSet extends LongHashSet {
+
+    public IPv4AddressSet() {
+        super();
+    }
+
+    /** @param expectedSize number of elements the set can hold without being resized */
+    public IPv4AddressSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param address IPv4 address
+     * @return true iff the set did not contain the IPv4 address
+     */
+    public boolean add(IPv4Address address) {
+        return add(address.getInt());
+    }
+
+    /**
+     * @param address IPv4 address
+     * @return true iff the set contains the IPv4 address
+     */
+    public boolean contains(IPv4Address address) {
+        return contains(address.getInt());
+    }
+
+    /**
+     * @param address IPv4 address
+     * @return true iff the set contained the IPv4 address
+     */
+    public boolean remove(IPv4Address address) {
+        return remove(address.getInt());
+    }
+}
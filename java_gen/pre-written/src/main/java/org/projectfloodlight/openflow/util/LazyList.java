@@ -0,0 +1,187 @@
+package org.projectfloodlight.openflow.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFMessageReader;
+import org.projectfloodlight.openflow.protocol.Writeable;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Immutable list of OpenFlow objects that is decoded on demand.
+ * <p>
+ * Reading a LazyList copies the wire bytes of the list into a single array, and scans the
+ * element boundaries into a compact <code>int[]</code> index (not needed for fixed length
+ * elements). Elements are decoded from the copy on each access and are not cached, so iterating
+ * over a huge list (e.g., the entries of a flow stats reply) does not keep all decoded elements
+ * alive at once. Writing the list copies the raw bytes.
+ * <p>
+ * The list length and the element boundaries and lengths are validated on read, so a truncated
+ * list, or an element that is shorter than its minimum length or exceeds the list, fails the read
+ * with an {@link OFParseError}. As element bodies are only decoded on access, a malformed body
+ * (e.g., a bad match inside a flow stats entry) results in an {@link IllegalStateException} on
+ * access instead.
+ * <p>
+ * As decoded elements are not cached, every {@link #get(int)} and every iteration decodes again,
+ * as does {@link #toString()}. {@link #hashCode()} is computed once, and {@link #equals(Object)}
+ * compares the raw bytes of two LazyLists before decoding.
+ *
+ * @param <T> element type
+ */
+public final class LazyList<T> extends AbstractList<T> implements RandomAccess, Writeable {
+    private final byte[] data;
+    /** start offset of each element in data, null for fixed length elements */
+    private final int[] offsets;
+    private final int elementLength;
+    private final int size;
+    private final OFMessageReader<T> reader;
+    /** cached hash code, 0 if not computed yet */
+    private int hashCode;
+
+    private LazyList(byte[] data, int[] offsets, int elementLength, int size, OFMessageReader<T> reader) {
+        this.data = data;
+        this.offsets = offsets;
+        this.elementLength = elementLength;
+        this.size = size;
+        this.reader = reader;
+    }
+
+    /**
+     * read a list of fixed length elements.
+     *
+     * @param bb buffer to read from
+     * @param length byte length of the list
+     * @param elementLength byte length of each element
+     * @param reader reader used to decode elements on access
+     * @return the list
+     * @throws OFParseError if length is not a multiple of elementLength
+     */
+    public static <T> List<T> readFixedLength(ByteBuf bb, int length, int elementLength,
+            OFMessageReader<T> reader) throws OFParseError {
+        if (length == 0)
+            return ImmutableList.of();
+        if (elementLength <= 0 || length % elementLength != 0)
+            throw new OFParseError("Wrong list length: " + length + " is not a multiple of element length " + elementLength);
+        byte[] data = readData(bb, length);
+        return new LazyList<T>(data, null, elementLength, length / elementLength, reader);
+    }
+
+    /**
+     * read a list of variable length elements that carry their length as an unsigned 16 bit
+     * value.
+     *
+     * @param bb buffer to read from
+     * @param length byte length of the list
+     * @param lengthOffset offset of the 16 bit length field in each element
+     * @param minimumLength minimum byte length of an element
+     * @param reader reader used to decode elements on access
+     * @return the list
+     * @throws OFParseError if the buffer holds less than length bytes, an element is shorter
+     *             than minimumLength, or the element lengths do not add up to length
+     */
+    public static <T> List<T> readVariableLength(ByteBuf bb, int length, int lengthOffset,
+            int minimumLength, OFMessageReader<T> reader) throws OFParseError {
+        if (length == 0)
+            return ImmutableList.of();
+        byte[] data = readData(bb, length);
+        int[] offsets = new int[Math.max(length / 64, 4)];
+        int size = 0;
+        int offset = 0;
+        while (offset < length) {
+            if (offset + lengthOffset + 2 > length)
+                throw new OFParseError("Wrong list length: element at " + offset + " exceeds list length " + length);
+            int elementLength = ((data[offset + lengthOffset] & 0xFF) << 8) | (data[offset + lengthOffset + 1] & 0xFF);
+            if (elementLength < Math.max(lengthOffset + 2, minimumLength) || offset + elementLength > length)
+                throw new OFParseError("Wrong element length " + elementLength + " at " + offset + " in list of length " + length);
+            if (size == offsets.length)
+                offsets = Arrays.copyOf(offsets, size * 2);
+            offsets[size++] = offset;
+            offset += elementLength;
+        }
+        if (offsets.length > size + size / 4)
+            offsets = Arrays.copyOf(offsets, size);
+        return new LazyList<T>(data, offsets, 0, size, reader);
+    }
+
+    private static byte[] readData(ByteBuf bb, int length) throws OFParseError {
+        if (length < 0 || bb.readableBytes() < length)
+            throw new OFParseError("Wrong list length: " + length + ", readable: " + bb.readableBytes());
+        byte[] data = new byte[length];
+        bb.readBytes(data);
+        return data;
+    }
+
+    private int start(int index) {
+        return offsets == null ? index * elementLength : offsets[index];
+    }
+
+    private int end(int index) {
+        if (offsets == null)
+            return (index + 1) * elementLength;
+        else
+            return index + 1 < size ? offsets[index + 1] : data.length;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        int start = start(index);
+        ByteBuf bb = Unpooled.wrappedBuffer(data, start, end(index) - start);
+        T element;
+        try {
+            element = reader.readFrom(bb);
+        } catch (OFParseError e) {
+            throw new IllegalStateException("Cannot decode list element " + index, e);
+        }
+        if (element == null)
+            throw new IllegalStateException("Cannot decode list element " + index + ": incomplete data");
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hashCode;
+        if (h == 0) {
+            h = super.hashCode();
+            hashCode = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (o instanceof LazyList) {
+            LazyList<?> other = (LazyList<?>) o;
+            // equal bytes decode to equal elements, different bytes may still (e.g., padding)
+            if (reader == other.reader && Arrays.equals(data, other.data))
+                return true;
+            if (size != other.size)
+                return false;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public void writeTo(ByteBuf bb) {
+        bb.writeBytes(data);
+    }
+
+    /** @return the number of bytes {@link #writeTo(ByteBuf)} writes */
+    public int getWireLength() {
+        return data.length;
+    }
+}
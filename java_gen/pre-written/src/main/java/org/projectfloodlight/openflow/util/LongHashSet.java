@@ -0,0 +1,78 @@
+package org.projectfloodlight.openflow.util;
+
+/**
+ * Set of primitive <code>long</code>s with open addressing (see {@link LongHashTable}).
+ * Instances are not thread-safe.
+ */
+public class LongHashSet extends LongHashTable {
+
+    public LongHashSet() {
+        this(0);
+    }
+
+    /** @param expectedSize number of elements the set can hold without being resized */
+    public LongHashSet(int expectedSize) {
+        init(expectedSize);
+    }
+
+    /**
+     * @param value value
+     * @return true iff the set did not contain the value
+     */
+    public boolean add(long value) {
+        return insert(value) < 0;
+    }
+
+    /**
+     * @param value value
+     * @return true iff the set contains the value
+     */
+    public boolean contains(long value) {
+        return containsKey(value);
+    }
+
+    /**
+     * @param value value
+     * @return true iff the set contained the value
+     */
+    public boolean remove(long value) {
+        int slot = find(value);
+        if (slot < 0)
+            return false;
+        removeSlot(slot);
+        return true;
+    }
+
+    @Override
+    void allocateValues(int length) {
+    }
+
+    @Override
+    Object getValues() {
+        return null;
+    }
+
+    @Override
+    void copyValue(Object oldValues, int from, int to) {
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+    }
+
+    @Override
+    void clearValue(int slot) {
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("[");
+        KeyCursor cursor = keyCursor();
+        while (cursor.next()) {
+            if (b.length() > 1)
+                b.append(", ");
+            b.append(cursor.key());
+        }
+        return b.append(']').toString();
+    }
+}
@@ -0,0 +1,252 @@
+package org.projectfloodlight.openflow.util;
+
+import java.util.Arrays;
+
+/**
+ * Base of the hash tables keyed by a primitive <code>long</code>, e.g., the raw value of a
+ * {@link org.projectfloodlight.openflow.types.MacAddress}.
+ * <p>
+ * Keys are stored in a flat <code>long[]</code> with open addressing and linear probing, so
+ * there is no per-entry allocation. 0 marks a free slot; the key 0 itself is kept in an extra
+ * slot past the end of the table. Removals shift the following entries back into place instead
+ * of leaving tombstones, so lookups never slow down as the table churns. Subclasses keep their
+ * values, if any, in arrays of length {@link #capacity()} + 1 indexed by the same slots.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public abstract class LongHashTable {
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int mask;
+    private boolean hasZeroKey;
+    private int size;
+    private int resizeAt;
+
+    LongHashTable() {
+    }
+
+    /** must be called by the subclass constructors, once their fields are initialized */
+    final void init(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+        if (needed > MAX_CAPACITY)
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+        allocateValues(capacity + 1);
+    }
+
+    /** allocate a new value array of the given length; the old one is passed to copyValue */
+    abstract void allocateValues(int length);
+
+    /** @return the current value array, or null if there are no values */
+    abstract Object getValues();
+
+    /** copy the value at slot <code>from</code> of <code>oldValues</code> to slot <code>to</code> */
+    abstract void copyValue(Object oldValues, int from, int to);
+
+    /** move the value at slot <code>from</code> to slot <code>to</code> */
+    abstract void moveValue(int from, int to);
+
+    /** release the value at a slot */
+    abstract void clearValue(int slot);
+
+    /** @return number of slots, excluding the slot of the key 0 */
+    final int capacity() {
+        return keys.length;
+    }
+
+    private static int hash(long key) {
+        // fibonacci hashing; the upper bits are the best mixed
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** @return the slot of the key, or -1 if it is absent */
+    final int find(long key) {
+        if (key == 0)
+            return hasZeroKey ? keys.length : -1;
+        long[] keys = this.keys;
+        int mask = this.mask;
+        int i = hash(key) & mask;
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * find the slot of a key, adding the key if it is absent.
+     *
+     * @return the slot of the key if it was present, else <code>-(slot + 1)</code>
+     */
+    final int insert(long key) {
+        if (key == 0) {
+            if (hasZeroKey)
+                return keys.length;
+            hasZeroKey = true;
+            size++;
+            return -(keys.length + 1);
+        }
+        int i = hash(key) & mask;
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        if (size >= resizeAt) {
+            rehash(keys.length << 1);
+            return insert(key);
+        }
+        keys[i] = key;
+        size++;
+        return -(i + 1);
+    }
+
+    /** remove the entry at a slot returned by find or insert */
+    final void removeSlot(int slot) {
+        size--;
+        if (slot == keys.length) {
+            hasZeroKey = false;
+            clearValue(slot);
+            return;
+        }
+        long[] keys = this.keys;
+        int mask = this.mask;
+        int gap = slot;
+        int i = (slot + 1) & mask;
+        long k;
+        while ((k = keys[i]) != 0) {
+            // move the entry into the gap unless its home slot lies cyclically in (gap, i]
+            if (((i - (hash(k) & mask)) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = k;
+                moveValue(i, gap);
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[gap] = 0;
+        clearValue(gap);
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY)
+            throw new IllegalStateException("Hash table is full");
+        long[] oldKeys = keys;
+        Object oldValues = getValues();
+        allocate(newCapacity);
+        long[] keys = this.keys;
+        int mask = this.mask;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = hash(k) & mask;
+                while (keys[i] != 0)
+                    i = (i + 1) & mask;
+                keys[i] = k;
+                copyValue(oldValues, j, i);
+            }
+        }
+        if (hasZeroKey)
+            copyValue(oldValues, oldKeys.length, keys.length);
+    }
+
+    /**
+     * @param slot a slot, or -1 to start the iteration
+     * @return the next occupied slot, or -1 if there is none
+     */
+    final int nextSlot(int slot) {
+        long[] keys = this.keys;
+        for (int i = slot + 1; i < keys.length; i++) {
+            if (keys[i] != 0)
+                return i;
+        }
+        if (slot < keys.length && hasZeroKey)
+            return keys.length;
+        return -1;
+    }
+
+    /** @return the key at an occupied slot */
+    final long keyAt(int slot) {
+        return slot == keys.length ? 0 : keys[slot];
+    }
+
+    /** @return the number of entries */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key key
+     * @return true iff the table contains the key
+     */
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /** remove all entries, keeping the current capacity */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        for (int i = 0; i <= keys.length; i++) {
+            clearValue(i);
+        }
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * @return a cursor over the keys, without allocating per entry. The table must not be
+     *         modified while the cursor is in use.
+     */
+    public KeyCursor keyCursor() {
+        return new KeyCursor();
+    }
+
+    /** cursor over the keys: <code>while (cursor.next()) { ... cursor.key() ... }</code> */
+    public class KeyCursor {
+        int slot = -1;
+
+        KeyCursor() {
+        }
+
+        /** @return true iff the cursor moved to the next entry, false at the end */
+        public boolean next() {
+            if (slot == -2)
+                return false;
+            slot = nextSlot(slot);
+            if (slot == -1) {
+                slot = -2;
+                return false;
+            }
+            return true;
+        }
+
+        /** @return the key of the current entry */
+        public long key() {
+            if (slot < 0)
+                throw new IllegalStateException("Cursor is not on an entry");
+            return keyAt(slot);
+        }
+    }
+}
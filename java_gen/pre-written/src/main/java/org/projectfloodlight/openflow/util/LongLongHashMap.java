@@ -0,0 +1,130 @@
+package org.projectfloodlight.openflow.util;
+
+/**
+ * Map from primitive <code>long</code> keys to primitive <code>long</code> values with open
+ * addressing, e.g., for per-key counters (see {@link LongHashTable}). Instances are not
+ * thread-safe.
+ */
+public class LongLongHashMap extends LongHashTable {
+    private long[] values;
+
+    public LongLongHashMap() {
+        this(0);
+    }
+
+    /** @param expectedSize number of entries the map can hold without being resized */
+    public LongLongHashMap(int expectedSize) {
+        init(expectedSize);
+    }
+
+    /**
+     * @param key key
+     * @param defaultValue value to return if the key is absent
+     * @return the value associated with the key, or defaultValue
+     */
+    public long get(long key, long defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * @param key key
+     * @param value value
+     * @return the value previously associated with the key, or 0 if the key was absent
+     */
+    public long put(long key, long value) {
+        int slot = insert(key);
+        if (slot < 0) {
+            values[-slot - 1] = value;
+            return 0;
+        }
+        long old = values[slot];
+        values[slot] = value;
+        return old;
+    }
+
+    /**
+     * add to the value associated with a key, treating an absent key as associated with 0.
+     *
+     * @param key key
+     * @param delta value to add
+     * @return the new value associated with the key
+     */
+    public long addTo(long key, long delta) {
+        int slot = insert(key);
+        if (slot < 0)
+            slot = -slot - 1;
+        return values[slot] += delta;
+    }
+
+    /**
+     * @param key key
+     * @return the value that was associated with the key, or 0 if the key was absent
+     */
+    public long remove(long key) {
+        int slot = find(key);
+        if (slot < 0)
+            return 0;
+        long old = values[slot];
+        removeSlot(slot);
+        return old;
+    }
+
+    /**
+     * @return a cursor over the entries, without allocating per entry. The map must not be
+     *         modified while the cursor is in use.
+     */
+    public EntryCursor entryCursor() {
+        return new EntryCursor();
+    }
+
+    /** cursor over the entries: <code>while (cursor.next()) { ... cursor.key(), cursor.value() ... }</code> */
+    public class EntryCursor extends KeyCursor {
+        EntryCursor() {
+        }
+
+        /** @return the value of the current entry */
+        public long value() {
+            if (slot < 0)
+                throw new IllegalStateException("Cursor is not on an entry");
+            return values[slot];
+        }
+    }
+
+    @Override
+    void allocateValues(int length) {
+        values = new long[length];
+    }
+
+    @Override
+    Object getValues() {
+        return values;
+    }
+
+    @Override
+    void copyValue(Object oldValues, int from, int to) {
+        values[to] = ((long[]) oldValues)[from];
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("{");
+        EntryCursor cursor = entryCursor();
+        while (cursor.next()) {
+            if (b.length() > 1)
+                b.append(", ");
+            b.append(cursor.key()).append('=').append(cursor.value());
+        }
+        return b.append('}').toString();
+    }
+}
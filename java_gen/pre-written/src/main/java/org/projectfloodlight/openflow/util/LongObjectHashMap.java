@@ -0,0 +1,130 @@
+package org.projectfloodlight.openflow.util;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Map from primitive <code>long</code> keys to object values with open addressing, avoiding the
+ * key object, the entry object and the hash chain per entry of a
+ * <code>HashMap&lt;Long, V&gt;</code> (see {@link LongHashTable}). Null values are not
+ * allowed. Instances are not thread-safe.
+ *
+ * @param <V> value type
+ */
+public class LongObjectHashMap<V> extends LongHashTable {
+    private Object[] values;
+
+    public LongObjectHashMap() {
+        this(0);
+    }
+
+    /** @param expectedSize number of entries the map can hold without being resized */
+    public LongObjectHashMap(int expectedSize) {
+        init(expectedSize);
+    }
+
+    /**
+     * @param key key
+     * @return the value associated with the key, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * @param key key
+     * @param value value, not null
+     * @return the value previously associated with the key, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Preconditions.checkNotNull(value, "value must not be null");
+        int slot = insert(key);
+        if (slot < 0) {
+            values[-slot - 1] = value;
+            return null;
+        }
+        V old = (V) values[slot];
+        values[slot] = value;
+        return old;
+    }
+
+    /**
+     * @param key key
+     * @return the value that was associated with the key, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = find(key);
+        if (slot < 0)
+            return null;
+        V old = (V) values[slot];
+        removeSlot(slot);
+        return old;
+    }
+
+    /**
+     * @return a cursor over the entries, without allocating per entry. The map must not be
+     *         modified while the cursor is in use.
+     */
+    public EntryCursor entryCursor() {
+        return new EntryCursor();
+    }
+
+    /** cursor over the entries: <code>while (cursor.next()) { ... cursor.key(), cursor.value() ... }</code> */
+    public class EntryCursor extends KeyCursor {
+        EntryCursor() {
+        }
+
+        /** @return the value of the current entry */
+        @SuppressWarnings("unchecked")
+        public V value() {
+            if (slot < 0)
+                throw new IllegalStateException("Cursor is not on an entry");
+            return (V) values[slot];
+        }
+    }
+
+    @Override
+    void allocateValues(int length) {
+        values = new Object[length];
+    }
+
+    @Override
+    Object getValues() {
+        return values;
+    }
+
+    @Override
+    void copyValue(Object oldValues, int from, int to) {
+        values[to] = ((Object[]) oldValues)[from];
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("{");
+        EntryCursor cursor = entryCursor();
+        while (cursor.next()) {
+            if (b.length() > 1)
+                b.append(", ");
+            b.append(cursor.key()).append('=').append(cursor.value());
+        }
+        return b.append('}').toString();
+    }
+}
@@ -0,0 +1,59 @@
+package org.projectfloodlight.openflow.util;
+
+import javax.annotation.Nullable;
+
+import org.projectfloodlight.openflow.types.MacAddress;
+
+/**
+ * {@link LongObjectHashMap} keyed by the raw value of a MacAddress (getLong()), without allocating
+ * per entry. Keys from the cursors can be converted back with {@link MacAddress#of(long)}.
+ *
+ * @param <V> value type
+ */
+public class MacAddressMap<V> extends LongObjectHashMap<V> {
+
+    public MacAddressMap() {
+        super();
+    }
+
+    /** @param expectedSize number of entries the map can hold without being resized */
+    public MacAddressMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param mac MAC address
+     * @return the value associated with the MAC address, or null
+     */
+    @Nullable
+    public V get(MacAddress mac) {
+        return get(mac.getLong());
+    }
+
+    /**
+     * @param mac MAC address
+     * @param value value, not null
+     * @return the value previously associated with the MAC address, or null
+     */
+    @Nullable
+    public V put(MacAddress mac, V value) {
+        return put(mac.getLong(), value);
+    }
+
+    /**
+     * @param mac MAC address
+     * @return the value that was associated with the MAC address, or null
+     */
+    @Nullable
+    public V remove(MacAddress mac) {
+        return remove(mac.getLong());
+    }
+
+    /**
+     * @param mac MAC address
+     * @return true iff the map contains the MAC address
+     */
+    public boolean containsKey(MacAddress mac) {
+        return containsKey(mac.getLong());
+    }
+}
@@ -0,0 +1,43 @@
+package org.projectfloodlight.openflow.util;
+
+import org.projectfloodlight.openflow.types.MacAddress;
+
+/**
+ * {@link LongHashSet} of the raw values of MacAddresses (getLong()), without allocating per
+ * element. Elements from the cursor can be converted back with {@link MacAddress#of(long)}.
+ */
+public class MacAddressSet extends LongHashSet {
+
+    public MacAddressSet() {
+        super();
+    }
+
+    /** @param expectedSize number of elements the set can hold without being resized */
+    public MacAddressSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param mac MAC address
+     * @return true iff the set did not contain the MAC address
+     */
+    public boolean add(MacAddress mac) {
+        return add(mac.getLong());
+    }
+
+    /**
+     * @param mac MAC address
+     * @return true iff the set contains the MAC address
+     */
+    public boolean contains(MacAddress mac) {
+        return contains(mac.getLong());
+    }
+
+    /**
+     * @param mac MAC address
+     * @return true iff the set contained the MAC address
+     */
+    public boolean remove(MacAddress mac) {
+        return remove(mac.getLong());
+    }
+}
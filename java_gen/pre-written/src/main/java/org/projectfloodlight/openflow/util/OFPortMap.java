@@ -0,0 +1,59 @@
+package org.projectfloodlight.openflow.util;
+
+import javax.annotation.Nullable;
+
+import org.projectfloodlight.openflow.types.OFPort;
+
+/**
+ * {@link LongObjectHashMap} keyed by the raw value of an OFPort (getPortNumber()), without
+ * allocating per entry. Keys from the cursors can be converted back with {@link OFPort#of(int)}.
+ *
+ * @param <V> value type
+ */
+public class OFPortMap<V> extends LongObjectHashMap<V> {
+
+    public OFPortMap() {
+        super();
+    }
+
+    /** @param expectedSize number of entries the map can hold without being resized */
+    public OFPortMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param port port
+     * @return the value associated with the port, or null
+     */
+    @Nullable
+    public V get(OFPort port) {
+        return get(port.getPortNumber());
+    }
+
+    /**
+     * @param port port
+     * @param value value, not null
+     * @return the value previously associated with the port, or null
+     */
+    @Nullable
+    public V put(OFPort port, V value) {
+        return put(port.getPortNumber(), value);
+    }
+
+    /**
+     * @param port port
+     * @return the value that was associated with the port, or null
+     */
+    @Nullable
+    public V remove(OFPort port) {
+        return remove(port.getPortNumber());
+    }
+
+    /**
+     * @param port port
+     * @return true iff the map contains the port
+     */
+    public boolean containsKey(OFPort port) {
+        return containsKey(port.getPortNumber());
+    }
+}
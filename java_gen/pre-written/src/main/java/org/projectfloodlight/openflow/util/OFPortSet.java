@@ -0,0 +1,43 @@
+package org.projectfloodlight.openflow.util;
+
+import org.projectfloodlight.openflow.types.OFPort;
+
+/**
+ * {@link LongHashSet} of the raw values of OFPorts (getPortNumber()), without allocating per
+ * element. Elements from the cursor can be converted back with {@link OFPort#of(int)}.
+ */
+public class OFPortSet extends LongHashSet {
+
+    public OFPortSet() {
+        super();
+    }
+
+    /** @param expectedSize number of elements the set can hold without being resized */
+    public OFPortSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    /**
+     * @param port port
+     * @return true iff the set did not contain the port
+     */
+    public boolean add(OFPort port) {
+        return add(port.getPortNumber());
+    }
+
+    /**
+     * @param port port
+     * @return true iff the set contains the port
+     */
+    public boolean contains(OFPort port) {
+        return contains(port.getPortNumber());
+    }
+
+    /**
+     * @param port port
+     * @return true iff the set contained the port
+     */
+    public boolean remove(OFPort port) {
+        return remove(port.getPortNumber());
+    }
+}
@@ -0,0 +1,212 @@
+package org.projectfloodlight.openflow.types;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class IPPrefixTrieTest {
+
+    private static <P, V> List<P> keys(Iterable<Map.Entry<P, V>> entries) {
+        List<P> result = new ArrayList<P>();
+        for (Map.Entry<P, V> entry : entries) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    @Test
+    public void testIPv4() {
+        IPv4PrefixTrie<String> trie = new IPv4PrefixTrie<String>();
+        trie.put(IPv4AddressWithMask.of("0.0.0.0/0"), "default");
+        trie.put(IPv4AddressWithMask.of("10.0.0.0/8"), "10/8");
+        trie.put(IPv4AddressWithMask.of("10.1.0.0/16"), "10.1/16");
+        trie.put(IPv4AddressWithMask.of("10.1.2.0/24"), "10.1.2/24");
+        trie.put(IPv4AddressWithMask.of("10.128.0.0/9"), "10.128/9");
+        trie.put(IPv4AddressWithMask.of("192.168.1.1/32"), "host");
+        assertThat(trie.size(), is(6));
+
+        assertThat(trie.lookup(IPv4Address.of("10.1.2.3")), is("10.1.2/24"));
+        assertThat(trie.lookup(IPv4Address.of("10.1.3.3")), is("10.1/16"));
+        assertThat(trie.lookup(IPv4Address.of("10.200.0.1")), is("10.128/9"));
+        assertThat(trie.lookup(IPv4Address.of("11.0.0.1")), is("default"));
+        assertThat(trie.lookup(IPv4Address.of("192.168.1.1").getInt()), is("host"));
+        assertThat(trie.lookupEntry(IPv4Address.of("10.2.0.1")).getKey(),
+                is(IPv4AddressWithMask.of("10.0.0.0/8")));
+
+        // bits outside of the mask are ignored
+        assertThat(trie.get(IPv4AddressWithMask.of("10.1.99.99/16")), is("10.1/16"));
+        assertThat(trie.get(IPv4AddressWithMask.of("10.1.0.0/17")), nullValue());
+
+        assertThat(keys(trie.getCovering(IPv4AddressWithMask.of("10.1.2.128/25"))), contains(
+                IPv4AddressWithMask.of("0.0.0.0/0"),
+                IPv4AddressWithMask.of("10.0.0.0/8"),
+                IPv4AddressWithMask.of("10.1.0.0/16"),
+                IPv4AddressWithMask.of("10.1.2.0/24")));
+        assertThat(keys(trie.getSubtree(IPv4AddressWithMask.of("10.0.0.0/8"))), contains(
+                IPv4AddressWithMask.of("10.0.0.0/8"),
+                IPv4AddressWithMask.of("10.1.0.0/16"),
+                IPv4AddressWithMask.of("10.1.2.0/24"),
+                IPv4AddressWithMask.of("10.128.0.0/9")));
+        assertThat(keys(trie.getSubtree(IPv4AddressWithMask.of("10.0.0.0/12"))), contains(
+                IPv4AddressWithMask.of("10.1.0.0/16"),
+                IPv4AddressWithMask.of("10.1.2.0/24")));
+        assertThat(keys(trie.getSubtree(IPv4AddressWithMask.of("172.16.0.0/12"))), empty());
+
+        assertThat(trie.remove(IPv4AddressWithMask.of("10.1.0.0/16")), is("10.1/16"));
+        assertThat(trie.remove(IPv4AddressWithMask.of("10.1.0.0/16")), nullValue());
+        assertThat(trie.lookup(IPv4Address.of("10.1.3.3")), is("10/8"));
+        assertThat(trie.lookup(IPv4Address.of("10.1.2.3")), is("10.1.2/24"));
+        assertThat(trie.put(IPv4AddressWithMask.of("10.0.0.0/8"), "ten"), is("10/8"));
+        assertThat(trie.size(), is(5));
+        assertThat(keys(trie), contains(
+                IPv4AddressWithMask.of("0.0.0.0/0"),
+                IPv4AddressWithMask.of("10.0.0.0/8"),
+                IPv4AddressWithMask.of("10.1.2.0/24"),
+                IPv4AddressWithMask.of("10.128.0.0/9"),
+                IPv4AddressWithMask.of("192.168.1.1/32")));
+    }
+
+    @Test
+    public void testNonCidrMask() {
+        IPv4AddressWithMask prefix = IPv4Address.of("10.0.0.0").withMask(IPv4Address.of("255.0.255.0"));
+        assertThat(prefix.getMask().isCidrMask(), is(false));
+        try {
+            new IPv4PrefixTrie<String>().put(prefix, "x");
+            fail("Should have thrown IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /** longest prefix match by linear scan, using the CIDR helpers of the address types */
+    private static <F extends IPAddress<F>, P extends IPAddressWithMask<F>> P linearLookup(
+            Iterable<P> prefixes, F address) {
+        P best = null;
+        for (P prefix : prefixes) {
+            if (prefix.contains(address) && (best == null
+                    || prefix.getMask().asCidrMaskLength() > best.getMask().asCidrMaskLength()))
+                best = prefix;
+        }
+        return best;
+    }
+
+    @Test
+    public void testIPv4AgainstLinearScan() {
+        Random random = new Random(42);
+        IPv4PrefixTrie<IPv4AddressWithMask> trie = new IPv4PrefixTrie<IPv4AddressWithMask>();
+        Map<IPv4AddressWithMask, IPv4AddressWithMask> prefixes = new HashMap<IPv4AddressWithMask, IPv4AddressWithMask>();
+        for (int i = 0; i < 2000; i++) {
+            // cluster addresses so that prefixes nest
+            int length = random.nextInt(33);
+            IPv4Address address = IPv4Address.of(random.nextInt(16) << 28 | random.nextInt(1 << 12));
+            IPv4AddressWithMask prefix = IPv4Address.of(address.getInt()
+                    & IPv4Address.ofCidrMaskLength(length).getInt()).withMaskOfLength(length);
+            assertThat(prefix.getMask().isCidrMask(), is(true));
+            if (random.nextInt(4) == 0) {
+                assertThat(trie.remove(prefix), is(prefixes.remove(prefix)));
+            } else {
+                assertThat(trie.put(prefix, prefix), is(prefixes.put(prefix, prefix)));
+            }
+        }
+        assertThat(trie.size(), is(prefixes.size()));
+        for (int i = 0; i < 5000; i++) {
+            IPv4Address address = IPv4Address.of(random.nextInt(16) << 28 | random.nextInt(1 << 13));
+            assertThat(trie.lookup(address), is(linearLookup(prefixes.keySet(), address)));
+        }
+        for (IPv4AddressWithMask prefix : prefixes.keySet()) {
+            for (Map.Entry<IPv4AddressWithMask, IPv4AddressWithMask> entry : trie.getCovering(prefix)) {
+                assertThat(entry.getKey().contains(prefix.getValue()), is(true));
+            }
+            for (Map.Entry<IPv4AddressWithMask, IPv4AddressWithMask> entry : trie.getSubtree(prefix)) {
+                assertThat(prefix.contains(entry.getKey().getValue()), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void testIPv6AgainstLinearScan() {
+        Random random = new Random(7);
+        IPv6PrefixTrie<IPv6AddressWithMask> trie = new IPv6PrefixTrie<IPv6AddressWithMask>();
+        List<IPv6AddressWithMask> prefixes = new ArrayList<IPv6AddressWithMask>();
+        for (int i = 0; i < 1000; i++) {
+            int length = random.nextInt(129);
+            IPv6Address mask = IPv6Address.ofCidrMaskLength(length);
+            IPv6AddressWithMask prefix = IPv6Address.of(0x2001_0db8_0000_0000L | random.nextInt(4),
+                    (long) random.nextInt(4) << 62 | random.nextInt(16)).and(mask).withMask(mask);
+            if (trie.put(prefix, prefix) == null)
+                prefixes.add(prefix);
+        }
+        assertThat(trie.size(), is(prefixes.size()));
+        for (int i = 0; i < 5000; i++) {
+            long raw1 = 0x2001_0db8_0000_0000L | random.nextInt(4);
+            long raw2 = (long) random.nextInt(4) << 62 | random.nextInt(32);
+            IPv6AddressWithMask expected = linearLookup(prefixes, IPv6Address.of(raw1, raw2));
+            assertThat(trie.lookup(IPv6Address.of(raw1, raw2)), is(expected));
+            assertThat(trie.lookup(raw1, raw2), is(expected));
+        }
+        for (IPv6AddressWithMask prefix : prefixes) {
+            assertThat(trie.remove(prefix), is(prefix));
+        }
+        assertThat(trie.isEmpty(), is(true));
+        assertThat(trie.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        final IPv4PrefixTrie<String> trie = new IPv4PrefixTrie<String>();
+        trie.put(IPv4AddressWithMask.of("10.0.0.0/8"), "stable");
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        List<Thread> readers = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random();
+                    while (!done.get()) {
+                        // the writer only adds and removes prefixes of 10.0.0.0/8, or 11.0.0.0/8
+                        String value = trie.lookup(IPv4Address.of(10 << 24 | random.nextInt(1 << 24)));
+                        if (value == null || !(value.equals("stable") || value.startsWith("10.")))
+                            failure.set("Unexpected lookup result " + value);
+                        for (Map.Entry<IPv4AddressWithMask, String> entry : trie) {
+                            if (entry.getValue() == null)
+                                failure.set("Null value for " + entry.getKey());
+                        }
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            int length = 9 + random.nextInt(24);
+            int network = random.nextBoolean() ? 10 : 11;
+            IPv4AddressWithMask prefix = IPv4Address.of(network << 24 | random.nextInt(1 << 24))
+                    .withMaskOfLength(length);
+            if (random.nextBoolean())
+                trie.put(prefix, network + "." + i);
+            else
+                trie.remove(prefix);
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertThat(failure.get(), nullValue());
+        assertThat(trie.get(IPv4AddressWithMask.of("10.0.0.0/8")), is("stable"));
+    }
+}
@@ -0,0 +1,144 @@
+package org.projectfloodlight.openflow.util;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.U16;
+import org.projectfloodlight.openflow.types.U64;
+
+import com.google.common.collect.ImmutableList;
+
+public class LazyListTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private OFFlowStatsEntry createEntry(int i) {
+        return factory.buildFlowStatsEntry()
+                .setCookie(U64.of(i))
+                .setPriority(i)
+                .setMatch(factory.buildMatch().setExact(MatchField.IN_PORT, OFPort.of(i + 1)).build())
+                .build();
+    }
+
+    @Test
+    public void testFlowStatsReplyEntries() throws OFParseError {
+        ImmutableList.Builder<OFFlowStatsEntry> entries = ImmutableList.builder();
+        for (int i = 0; i < 100; i++)
+            entries.add(createEntry(i));
+        OFFlowStatsReply reply = factory.buildFlowStatsReply().setXid(1).setEntries(entries.build()).build();
+
+        ByteBuf bb = Unpooled.buffer();
+        reply.writeTo(bb);
+        byte[] written = new byte[bb.readableBytes()];
+        bb.getBytes(0, written);
+
+        OFMessage read = factory.getReader().readFrom(bb);
+        assertThat(read, equalTo((OFMessage) reply));
+        List<OFFlowStatsEntry> readEntries = ((OFFlowStatsReply) read).getEntries();
+        assertThat(readEntries, instanceOf(LazyList.class));
+        assertThat(readEntries.size(), equalTo(100));
+        assertThat(readEntries.get(42), equalTo(createEntry(42)));
+
+        ByteBuf out = Unpooled.buffer();
+        read.writeTo(out);
+        byte[] rewritten = new byte[out.readableBytes()];
+        out.readBytes(rewritten);
+        assertThat(rewritten, equalTo(written));
+    }
+
+    @Test
+    public void testFixedLength() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        for (int i = 0; i < 10; i++)
+            bb.writeShort(i);
+        List<U16> list = LazyList.readFixedLength(bb, 20, 2, U16.READER);
+        assertThat(bb.readableBytes(), equalTo(0));
+        assertThat(list.size(), equalTo(10));
+        assertThat(list.get(9), equalTo(U16.of(9)));
+        assertThat(list, equalTo((List<U16>) ImmutableList.of(U16.of(0), U16.of(1), U16.of(2), U16.of(3),
+                U16.of(4), U16.of(5), U16.of(6), U16.of(7), U16.of(8), U16.of(9))));
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testFixedLengthMismatch() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        bb.writeZero(5);
+        LazyList.readFixedLength(bb, 5, 2, U16.READER);
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testVariableLengthOverrun() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        // element claims 16 bytes, list only has 8
+        bb.writeShort(16);
+        bb.writeZero(6);
+        LazyList.readVariableLength(bb, 8, 0, 2, U16.READER);
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testVariableLengthBelowMinimum() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        // element claims 4 bytes, the minimum is 8
+        bb.writeShort(4);
+        bb.writeZero(6);
+        LazyList.readVariableLength(bb, 8, 0, 8, U16.READER);
+    }
+
+    /** @return a flow stats reply whose first entry has the given length field */
+    private ByteBuf replyWithEntryLength(int entryLength) {
+        OFFlowStatsReply reply = factory.buildFlowStatsReply().setXid(1)
+                .setEntries(ImmutableList.of(createEntry(1), createEntry(2))).build();
+        ByteBuf bb = Unpooled.buffer();
+        reply.writeTo(bb);
+        // the entries follow the 16 byte multipart reply header
+        bb.setShort(16, entryLength);
+        return bb;
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testReadEntryPastEnd() throws OFParseError {
+        factory.getReader().readFrom(replyWithEntryLength(0xfff0));
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testReadEntryTooShort() throws OFParseError {
+        factory.getReader().readFrom(replyWithEntryLength(8));
+    }
+
+    @Test
+    public void testEquals() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        for (int i = 0; i < 10; i++)
+            bb.writeShort(i);
+        List<U16> list = LazyList.readFixedLength(bb.duplicate(), 20, 2, U16.READER);
+        List<U16> same = LazyList.readFixedLength(bb.duplicate(), 20, 2, U16.READER);
+        bb.setShort(18, 10);
+        List<U16> other = LazyList.readFixedLength(bb, 20, 2, U16.READER);
+        assertThat(list, equalTo(same));
+        assertThat(list.equals(other), equalTo(false));
+        assertThat(list.hashCode(), equalTo(ImmutableList.copyOf(list).hashCode()));
+        assertThat(list.hashCode(), equalTo(same.hashCode()));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        bb.writeZero(4);
+        LazyList.readFixedLength(bb, 4, 2, U16.READER).get(2);
+    }
+}
@@ -0,0 +1,124 @@
+package org.projectfloodlight.openflow.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.types.DatapathId;
+import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.MacAddress;
+import org.projectfloodlight.openflow.types.OFPort;
+
+public class LongHashTableTest {
+
+    @Test
+    public void testObjectMapAgainstHashMap() {
+        Random random = new Random(42);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<Long>();
+        Map<Long, Long> expected = new HashMap<Long, Long>();
+        for (int i = 0; i < 200000; i++) {
+            // small key range, including 0 and negative keys, so that removals shift clusters
+            long key = random.nextInt(2000) - 100;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertThat(map.remove(key), is(expected.remove(key)));
+                    break;
+                default:
+                    assertThat(map.put(key, (long) i), is(expected.put(key, (long) i)));
+                    break;
+            }
+            assertThat(map.get(key), is(expected.get(key)));
+        }
+        assertThat(map.size(), is(expected.size()));
+        for (long key = -200; key < 2000; key++) {
+            assertThat(map.get(key), is(expected.get(key)));
+            assertThat(map.containsKey(key), is(expected.containsKey(key)));
+        }
+
+        Map<Long, Long> iterated = new HashMap<Long, Long>();
+        LongObjectHashMap<Long>.EntryCursor cursor = map.entryCursor();
+        while (cursor.next()) {
+            assertThat(iterated.put(cursor.key(), cursor.value()), nullValue());
+        }
+        assertThat(iterated, is(expected));
+
+        map.clear();
+        assertThat(map.size(), is(0));
+        assertThat(map.get(0), nullValue());
+        assertThat(map.entryCursor().next(), is(false));
+    }
+
+    @Test
+    public void testGrowth() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 0; key < 100000; key++) {
+            map.put(key * 0x10000, key);
+        }
+        assertThat(map.size(), is(100000));
+        for (long key = 0; key < 100000; key++) {
+            assertThat(map.get(key * 0x10000, -1), is(key));
+        }
+        assertThat(map.get(1, -1), is(-1L));
+        assertThat(map.addTo(7, 3), is(3L));
+        assertThat(map.addTo(7, 3), is(6L));
+        assertThat(map.remove(7), is(6L));
+        assertThat(map.containsKey(7), is(false));
+    }
+
+    @Test
+    public void testSetAgainstHashSet() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet(100);
+        Set<Long> expected = new HashSet<Long>();
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextInt(500);
+            if (random.nextBoolean())
+                assertThat(set.add(value), is(expected.add(value)));
+            else
+                assertThat(set.remove(value), is(expected.remove(value)));
+        }
+        assertThat(set.size(), is(expected.size()));
+        Set<Long> iterated = new HashSet<Long>();
+        LongHashTable.KeyCursor cursor = set.keyCursor();
+        while (cursor.next()) {
+            iterated.add(cursor.key());
+        }
+        assertThat(iterated, is(expected));
+    }
+
+    @Test
+    public void testTypedTables() {
+        MacAddressMap<String> macs = new MacAddressMap<String>();
+        macs.put(MacAddress.of("00:11:22:33:44:55"), "a");
+        macs.put(MacAddress.NONE, "none");
+        assertThat(macs.get(MacAddress.of("00:11:22:33:44:55")), is("a"));
+        assertThat(macs.get(MacAddress.NONE), is("none"));
+        assertThat(macs.get(MacAddress.of("00:11:22:33:44:55").getLong()), is("a"));
+
+        IPv4AddressMap<String> addresses = new IPv4AddressMap<String>();
+        addresses.put(IPv4Address.of("255.255.255.255"), "broadcast");
+        assertThat(addresses.get(IPv4Address.of("255.255.255.255")), is("broadcast"));
+        assertThat(addresses.remove(IPv4Address.of("255.255.255.255")), is("broadcast"));
+
+        OFPortSet ports = new OFPortSet();
+        assertThat(ports.add(OFPort.LOCAL), is(true));
+        assertThat(ports.add(OFPort.LOCAL), is(false));
+        assertThat(ports.contains(OFPort.of(1)), is(false));
+        LongHashTable.KeyCursor cursor = ports.keyCursor();
+        assertThat(cursor.next(), is(true));
+        assertThat(OFPort.of((int) cursor.key()), is(OFPort.LOCAL));
+
+        DatapathIdLongMap counters = new DatapathIdLongMap();
+        counters.addTo(DatapathId.of(1), 5);
+        counters.addTo(DatapathId.of(1), 5);
+        assertThat(counters.get(DatapathId.of(1), 0), is(10L));
+        assertThat(counters.containsKey(DatapathId.of(2)), is(false));
+    }
+}
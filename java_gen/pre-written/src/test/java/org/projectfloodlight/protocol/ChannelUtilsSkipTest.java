@@ -0,0 +1,108 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFObject;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.protocol.stat.StatField;
+import org.projectfloodlight.openflow.protocol.ver10.ChannelUtilsVer10;
+import org.projectfloodlight.openflow.protocol.ver11.ChannelUtilsVer11;
+import org.projectfloodlight.openflow.protocol.ver12.ChannelUtilsVer12;
+import org.projectfloodlight.openflow.protocol.ver13.ChannelUtilsVer13;
+import org.projectfloodlight.openflow.protocol.ver14.ChannelUtilsVer14;
+import org.projectfloodlight.openflow.protocol.ver15.ChannelUtilsVer15;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.U64;
+
+public class ChannelUtilsSkipTest {
+    private static final int SENTINEL = 0xcafebabe;
+
+    /** @return a buffer containing a match, padded from OF1.2, followed by the sentinel */
+    private static ByteBuf matchWithSentinel(OFVersion version) {
+        OFFactory factory = OFFactories.getFactory(version);
+        Match.Builder builder = factory.buildMatch();
+        // the OF1.1 match builder does not support setting fields
+        if (version != OFVersion.OF_11)
+            builder.setExact(MatchField.ETH_TYPE, EthType.IPv4);
+        return withSentinel(builder.build());
+    }
+
+    private static ByteBuf withSentinel(OFObject object) {
+        ByteBuf bb = Unpooled.buffer();
+        object.writeTo(bb);
+        bb.writeInt(SENTINEL);
+        return bb;
+    }
+
+    @Test
+    public void testSkipMatch() throws OFParseError {
+        ByteBuf bb = matchWithSentinel(OFVersion.OF_10);
+        ChannelUtilsVer10.skipOFMatch(bb);
+        assertThat(bb.readInt(), equalTo(SENTINEL));
+
+        bb = matchWithSentinel(OFVersion.OF_11);
+        ChannelUtilsVer11.skipOFMatch(bb);
+        assertThat(bb.readInt(), equalTo(SENTINEL));
+
+        bb = matchWithSentinel(OFVersion.OF_12);
+        ChannelUtilsVer12.skipOFMatch(bb);
+        assertThat(bb.readInt(), equalTo(SENTINEL));
+
+        bb = matchWithSentinel(OFVersion.OF_13);
+        ChannelUtilsVer13.skipOFMatch(bb);
+        assertThat(bb.readInt(), equalTo(SENTINEL));
+
+        bb = matchWithSentinel(OFVersion.OF_14);
+        ChannelUtilsVer14.skipOFMatch(bb);
+        assertThat(bb.readInt(), equalTo(SENTINEL));
+
+        bb = matchWithSentinel(OFVersion.OF_15);
+        ChannelUtilsVer15.skipOFMatch(bb);
+        assertThat(bb.readInt(), equalTo(SENTINEL));
+    }
+
+    @Test
+    public void testSkipStat() throws OFParseError {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_15);
+        ByteBuf bb = withSentinel(factory.buildStat().set(StatField.DURATION, U64.of(7)).build());
+        ChannelUtilsVer15.skipOFStat(bb);
+        assertThat(bb.readInt(), equalTo(SENTINEL));
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testSkipMatchTruncated10() throws OFParseError {
+        ByteBuf bb = matchWithSentinel(OFVersion.OF_10);
+        ChannelUtilsVer10.skipOFMatch(bb.slice(0, 20));
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testSkipMatchTruncatedHeader() throws OFParseError {
+        ChannelUtilsVer13.skipOFMatch(Unpooled.wrappedBuffer(new byte[] { 0, 1, 0 }));
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testSkipMatchTruncatedBody() throws OFParseError {
+        ByteBuf bb = matchWithSentinel(OFVersion.OF_13);
+        ChannelUtilsVer13.skipOFMatch(bb.slice(0, 12));
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testSkipMatchWrongLength() throws OFParseError {
+        ChannelUtilsVer14.skipOFMatch(Unpooled.wrappedBuffer(new byte[] { 0, 1, 0, 2, 0, 0, 0, 0 }));
+    }
+
+    @Test(expected = OFParseError.class)
+    public void testSkipStatTruncated() throws OFParseError {
+        ChannelUtilsVer15.skipOFStat(Unpooled.wrappedBuffer(new byte[] { 0, 0 }));
+    }
+}
@@ -0,0 +1,122 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowAdd;
+import org.projectfloodlight.openflow.protocol.OFObject;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.TableId;
+
+public class OFBuilderReuseTest {
+
+    private static byte[] encode(OFObject object) {
+        ByteBuf bb = Unpooled.buffer();
+        object.writeTo(bb);
+        byte[] bytes = new byte[bb.readableBytes()];
+        bb.readBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] bytes(ByteBuf bb) {
+        byte[] bytes = new byte[bb.readableBytes()];
+        bb.readBytes(bytes);
+        return bytes;
+    }
+
+    private void testReset(OFVersion version) {
+        OFFactory factory = OFFactories.getFactory(version);
+        OFFlowAdd.Builder builder = factory.buildFlowAdd();
+        builder.setXid(1).setPriority(100).setIdleTimeout(10);
+        builder.reset();
+        assertThat(builder.setXid(2).build(), equalTo(factory.buildFlowAdd().setXid(2).build()));
+
+        // a reset builder from the factory draws a new xid
+        long xid = builder.reset().build().getXid();
+        assertThat(xid, not(equalTo(0L)));
+        assertThat(builder.reset().build().getXid(), not(equalTo(xid)));
+
+        // a reset builder of an existing message reverts to the message
+        OFFlowAdd flowAdd = factory.buildFlowAdd().setXid(3).setPriority(7).build();
+        OFFlowAdd.Builder parentBuilder = flowAdd.createBuilder().setPriority(8);
+        parentBuilder.reset();
+        assertThat(parentBuilder.build(), equalTo(flowAdd));
+    }
+
+    @Test
+    public void testReset10() {
+        testReset(OFVersion.OF_10);
+    }
+
+    @Test
+    public void testReset13() {
+        testReset(OFVersion.OF_13);
+    }
+
+    @Test
+    public void testResetMatch() {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        Match.Builder builder = factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.IPv4);
+        builder.reset();
+        assertThat(builder.build(), equalTo(factory.buildMatch().build()));
+    }
+
+    private void testWriteTo(OFVersion version) {
+        OFFactory factory = OFFactories.getFactory(version);
+        Match match = factory.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setExact(MatchField.IPV4_DST, IPv4Address.of("10.0.0.1"))
+                .build();
+        OFFlowAdd.Builder builder = factory.buildFlowAdd()
+                .setXid(42)
+                .setMatch(match)
+                .setPriority(100)
+                .setHardTimeout(30);
+        if (version != OFVersion.OF_10)
+            builder.setTableId(TableId.of(3));
+        ByteBuf bb = Unpooled.buffer();
+        builder.writeTo(bb);
+        assertThat(bytes(bb), equalTo(encode(builder.build())));
+
+        // from a message
+        OFFlowAdd.Builder parentBuilder = builder.build().createBuilder().setXid(43);
+        parentBuilder.writeTo(bb);
+        assertThat(bytes(bb), equalTo(encode(parentBuilder.build())));
+    }
+
+    @Test
+    public void testWriteTo10() {
+        testWriteTo(OFVersion.OF_10);
+    }
+
+    @Test
+    public void testWriteTo13() {
+        testWriteTo(OFVersion.OF_13);
+    }
+
+    @Test
+    public void testWriteToMatch() {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_15);
+        Match.Builder builder = factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.ARP);
+        ByteBuf bb = Unpooled.buffer();
+        builder.writeTo(bb);
+        assertThat(bytes(bb), equalTo(encode(builder.build())));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteToMissingProperty() {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        factory.buildFlowRemoved().writeTo(Unpooled.buffer());
+    }
+}
@@ -0,0 +1,228 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFErrorMsgException;
+import org.projectfloodlight.openflow.protocol.BundleIdGenerators;
+import org.projectfloodlight.openflow.protocol.OFBadRequestCode;
+import org.projectfloodlight.openflow.protocol.OFBundleAddMsg;
+import org.projectfloodlight.openflow.protocol.OFBundleCtrlMsg;
+import org.projectfloodlight.openflow.protocol.OFBundleCtrlType;
+import org.projectfloodlight.openflow.protocol.OFBundleFailedCode;
+import org.projectfloodlight.openflow.protocol.OFBundleFlags;
+import org.projectfloodlight.openflow.protocol.OFBundlePacker;
+import org.projectfloodlight.openflow.protocol.OFErrorMsg;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowAdd;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFRequestCorrelator;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.test.TestUtils.FakeTicker;
+import org.projectfloodlight.test.TestUtils.ListSink;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class OFBundlePackerTest {
+    private static final Set<OFBundleFlags> FLAGS = ImmutableSet.of(OFBundleFlags.ATOMIC);
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final ListSink sink = new ListSink();
+    private final OFRequestCorrelator correlator =
+            new OFRequestCorrelator(1, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, ticker);
+
+    private OFBundlePacker createPacker(OFFactory factory, int maxMessages, int maxBytes) {
+        return new OFBundlePacker(factory, sink, correlator, FLAGS, maxMessages, maxBytes,
+                10, TimeUnit.MILLISECONDS, BundleIdGenerators.create(), ticker);
+    }
+
+    private static OFFlowAdd flowAdd(OFFactory factory, long xid) {
+        return factory.buildFlowAdd().setXid(xid).setPriority((int) xid).build();
+    }
+
+    private static void assertCtrl(OFMessage message, OFBundleCtrlType type, OFBundleAddMsg add) {
+        assertThat(message, instanceOf(OFBundleCtrlMsg.class));
+        OFBundleCtrlMsg ctrl = (OFBundleCtrlMsg) message;
+        assertThat(ctrl.getBundleCtrlType(), equalTo(type));
+        assertThat(ctrl.getBundleId(), equalTo(add.getBundleId()));
+        assertThat(ctrl.getFlags(), equalTo(FLAGS));
+    }
+
+    private static Throwable getCause(ListenableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Expected the future to fail");
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private void testCountAndCommit(OFVersion version) throws Exception {
+        OFFactory factory = OFFactories.getFactory(version);
+        OFBundlePacker packer = createPacker(factory, 2, Integer.MAX_VALUE);
+
+        OFFlowAdd first = flowAdd(factory, 11);
+        OFFlowAdd second = flowAdd(factory, 12);
+        ListenableFuture<OFBundleCtrlMsg> firstResult = packer.add(first);
+        assertThat(sink.messages.size(), equalTo(2));
+        assertThat(packer.getPendingMessages(), equalTo(1));
+        ListenableFuture<OFBundleCtrlMsg> secondResult = packer.add(second);
+        assertThat(secondResult, sameInstance(firstResult));
+        assertThat(packer.getPendingMessages(), equalTo(0));
+
+        // open, add, add, commit
+        assertThat(sink.messages.size(), equalTo(4));
+        OFBundleAddMsg add1 = (OFBundleAddMsg) sink.messages.get(1);
+        OFBundleAddMsg add2 = (OFBundleAddMsg) sink.messages.get(2);
+        assertCtrl(sink.messages.get(0), OFBundleCtrlType.OPEN_REQUEST, add1);
+        assertCtrl(sink.messages.get(3), OFBundleCtrlType.COMMIT_REQUEST, add1);
+        assertThat(add2.getBundleId(), equalTo(add1.getBundleId()));
+        assertThat(add1.getFlags(), equalTo(FLAGS));
+
+        // the bundle-adds inherit the xids of their messages
+        assertThat(add1.getXid(), equalTo(11L));
+        assertThat(add2.getXid(), equalTo(12L));
+        OFMessage wrapped = version == OFVersion.OF_14 ? add1.getData() : add1.getMessage();
+        assertThat(wrapped, equalTo((OFMessage) first));
+
+        // the commit reply completes the future
+        OFBundleCtrlMsg commit = (OFBundleCtrlMsg) sink.messages.get(3);
+        assertThat(firstResult.isDone(), equalTo(false));
+        OFBundleCtrlMsg reply = factory.buildBundleCtrlMsg()
+                .setXid(commit.getXid())
+                .setBundleId(commit.getBundleId())
+                .setBundleCtrlType(OFBundleCtrlType.COMMIT_REPLY)
+                .setFlags(FLAGS)
+                .build();
+        assertThat(correlator.receive(reply), equalTo(true));
+        assertThat(firstResult.get(), sameInstance(reply));
+
+        // the next message opens a new bundle
+        ListenableFuture<OFBundleCtrlMsg> thirdResult = packer.add(flowAdd(factory, 13));
+        assertThat(thirdResult, not(sameInstance(firstResult)));
+        OFBundleAddMsg add3 = (OFBundleAddMsg) sink.messages.get(5);
+        assertCtrl(sink.messages.get(4), OFBundleCtrlType.OPEN_REQUEST, add3);
+        assertThat(add3.getBundleId(), not(equalTo(add1.getBundleId())));
+    }
+
+    @Test
+    public void testCountAndCommit14() throws Exception {
+        testCountAndCommit(OFVersion.OF_14);
+    }
+
+    @Test
+    public void testCountAndCommit15() throws Exception {
+        testCountAndCommit(OFVersion.OF_15);
+    }
+
+    @Test
+    public void testBytes() throws Exception {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_14);
+        int length = flowAdd(factory, 1).getWireLength();
+        OFBundlePacker packer = createPacker(factory, 100, 2 * length + length / 2);
+
+        ListenableFuture<OFBundleCtrlMsg> first = packer.add(flowAdd(factory, 1));
+        packer.add(flowAdd(factory, 2));
+        assertThat(packer.getPendingMessages(), equalTo(2));
+        // a third message would exceed the limit, so the bundle is committed before it
+        ListenableFuture<OFBundleCtrlMsg> third = packer.add(flowAdd(factory, 3));
+        assertThat(third, not(sameInstance(first)));
+        assertThat(packer.getPendingMessages(), equalTo(1));
+        assertThat(sink.messages.size(), equalTo(6));
+        assertCtrl(sink.messages.get(3), OFBundleCtrlType.COMMIT_REQUEST,
+                (OFBundleAddMsg) sink.messages.get(1));
+        assertCtrl(sink.messages.get(4), OFBundleCtrlType.OPEN_REQUEST,
+                (OFBundleAddMsg) sink.messages.get(5));
+    }
+
+    @Test
+    public void testDelay() throws Exception {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_14);
+        OFBundlePacker packer = createPacker(factory, 100, Integer.MAX_VALUE);
+        assertThat(packer.commitExpired(), equalTo(false));
+
+        packer.add(flowAdd(factory, 1));
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(5);
+        packer.add(flowAdd(factory, 2));
+        assertThat(packer.commitExpired(), equalTo(false));
+        assertThat(sink.messages.size(), equalTo(3));
+
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(5);
+        assertThat(packer.commitExpired(), equalTo(true));
+        assertThat(sink.messages.size(), equalTo(4));
+        assertCtrl(sink.messages.get(3), OFBundleCtrlType.COMMIT_REQUEST,
+                (OFBundleAddMsg) sink.messages.get(1));
+        assertThat(packer.commitExpired(), equalTo(false));
+    }
+
+    @Test
+    public void testError() throws Exception {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_14);
+        OFBundlePacker packer = createPacker(factory, 100, Integer.MAX_VALUE);
+        ListenableFuture<OFBundleCtrlMsg> result = packer.add(flowAdd(factory, 1));
+        packer.commit();
+        // committing without an open bundle does nothing
+        packer.commit();
+        assertThat(sink.messages.size(), equalTo(3));
+
+        OFErrorMsg error = factory.errorMsgs().buildBadRequestErrorMsg()
+                .setXid(sink.messages.get(2).getXid())
+                .setCode(OFBadRequestCode.BAD_TYPE)
+                .build();
+        assertThat(correlator.receive(error), equalTo(true));
+        Throwable cause = getCause(result);
+        assertThat(cause, instanceOf(OFErrorMsgException.class));
+        assertThat(((OFErrorMsgException) cause).getErrorMsg(), equalTo(error));
+    }
+
+    @Test
+    public void testOpenError() throws Exception {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_14);
+        OFBundlePacker packer = createPacker(factory, 100, Integer.MAX_VALUE);
+        ListenableFuture<OFBundleCtrlMsg> result = packer.add(flowAdd(factory, 1));
+        packer.commit();
+        assertThat(correlator.size(), equalTo(2));
+
+        OFErrorMsg error = factory.errorMsgs().buildBundleFailedErrorMsg()
+                .setXid(sink.messages.get(0).getXid())
+                .setCode(OFBundleFailedCode.BAD_ID)
+                .build();
+        assertThat(correlator.receive(error), equalTo(true));
+        Throwable cause = getCause(result);
+        assertThat(((OFErrorMsgException) cause).getErrorMsg(), equalTo(error));
+    }
+
+    @Test
+    public void testOpenReply() throws Exception {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_14);
+        OFBundlePacker packer = createPacker(factory, 100, Integer.MAX_VALUE);
+        ListenableFuture<OFBundleCtrlMsg> result = packer.add(flowAdd(factory, 1));
+        OFBundleCtrlMsg open = (OFBundleCtrlMsg) sink.messages.get(0);
+        OFBundleCtrlMsg reply = factory.buildBundleCtrlMsg()
+                .setXid(open.getXid())
+                .setBundleId(open.getBundleId())
+                .setBundleCtrlType(OFBundleCtrlType.OPEN_REPLY)
+                .setFlags(FLAGS)
+                .build();
+        assertThat(correlator.receive(reply), equalTo(true));
+        // only the commit reply completes the result
+        assertThat(result.isDone(), equalTo(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVersion() {
+        createPacker(OFFactories.getFactory(OFVersion.OF_13), 100, Integer.MAX_VALUE);
+    }
+}
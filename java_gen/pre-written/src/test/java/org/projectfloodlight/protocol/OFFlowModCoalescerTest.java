@@ -0,0 +1,286 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFBarrierReply;
+import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowAdd;
+import org.projectfloodlight.openflow.protocol.OFFlowDelete;
+import org.projectfloodlight.openflow.protocol.OFFlowDeleteStrict;
+import org.projectfloodlight.openflow.protocol.OFFlowMod;
+import org.projectfloodlight.openflow.protocol.OFFlowModCoalescer;
+import org.projectfloodlight.openflow.protocol.OFFlowModCommand;
+import org.projectfloodlight.openflow.protocol.OFFlowModFlags;
+import org.projectfloodlight.openflow.protocol.OFFlowModifyStrict;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFRequestCorrelator;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.action.OFAction;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.OFBufferId;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.TableId;
+import org.projectfloodlight.openflow.types.U64;
+import org.projectfloodlight.test.TestUtils.FakeTicker;
+import org.projectfloodlight.test.TestUtils.ListSink;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class OFFlowModCoalescerTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final ListSink sink = new ListSink();
+    private final OFRequestCorrelator correlator =
+            new OFRequestCorrelator(1, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, ticker);
+    private final OFFlowModCoalescer coalescer =
+            new OFFlowModCoalescer(factory, sink, correlator, 100, 10, TimeUnit.MILLISECONDS, ticker);
+
+    private final Match match = factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.IPv4).build();
+    private final Match otherMatch = factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.ARP).build();
+
+    private List<OFAction> output(int port) {
+        return ImmutableList.<OFAction>of(factory.actions().output(OFPort.of(port), 0xffFF));
+    }
+
+    private OFFlowAdd add(Match match, int port) {
+        return factory.buildFlowAdd().setMatch(match).setPriority(10).setActions(output(port)).build();
+    }
+
+    private OFFlowModifyStrict modify(Match match, int port) {
+        return factory.buildFlowModifyStrict().setMatch(match).setPriority(10).setActions(output(port)).build();
+    }
+
+    private OFFlowDeleteStrict delete(Match match) {
+        return factory.buildFlowDeleteStrict().setMatch(match).setPriority(10).build();
+    }
+
+    /** flush and check that the sink got the flow-mods followed by a barrier */
+    private void assertFlushed(OFFlowMod... expected) {
+        coalescer.flush();
+        assertThat(sink.messages.size(), equalTo(expected.length + 1));
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(sink.messages.get(i), equalTo((OFMessage) expected[i]));
+        }
+        assertThat(sink.messages.get(expected.length), instanceOf(OFBarrierRequest.class));
+    }
+
+    @Test
+    public void testAddModifyMerged() {
+        OFFlowAdd add = add(match, 1);
+        coalescer.add(add);
+        coalescer.add(modify(match, 2));
+        assertThat(coalescer.getPendingMessages(), equalTo(1));
+        assertFlushed(add.createBuilder().setInstructions(modify(match, 2).getInstructions()).build());
+        assertThat(((OFFlowMod) sink.messages.get(0)).getCommand(), equalTo(OFFlowModCommand.ADD));
+    }
+
+    @Test
+    public void testAddModifyDelete() {
+        OFFlowDeleteStrict delete = delete(match);
+        coalescer.add(add(match, 1));
+        coalescer.add(modify(match, 2));
+        coalescer.add(delete);
+        assertFlushed(delete);
+    }
+
+    @Test
+    public void testSupersede() {
+        OFFlowAdd add = add(match, 3);
+        coalescer.add(delete(match));
+        coalescer.add(add(match, 1));
+        coalescer.add(add);
+        OFFlowModifyStrict modify = modify(otherMatch, 1);
+        coalescer.add(modify(otherMatch, 2));
+        coalescer.add(modify);
+        assertFlushed(add, modify);
+    }
+
+    @Test
+    public void testOrderKept() {
+        // a modify is merged in the place of the add, before the add of another flow
+        OFFlowAdd add1 = add(match, 1);
+        OFFlowAdd add2 = add(otherMatch, 1);
+        coalescer.add(add1);
+        coalescer.add(add2);
+        coalescer.add(modify(match, 2));
+        assertFlushed(add1.createBuilder().setInstructions(modify(match, 2).getInstructions()).build(), add2);
+    }
+
+    @Test
+    public void testInterleavedCheckOverlap() {
+        // the overlap check of the second add fails while the first flow exists, so deleting the
+        // first flow may neither replace the first add nor move before the second add
+        OFFlowAdd add1 = add(match, 1);
+        OFFlowAdd add2 = factory.buildFlowAdd()
+                .setPriority(10)
+                .setFlags(ImmutableSet.of(OFFlowModFlags.CHECK_OVERLAP))
+                .setActions(output(2))
+                .build();
+        OFFlowDeleteStrict delete = delete(match);
+        coalescer.add(add1);
+        coalescer.add(add2);
+        coalescer.add(delete);
+        assertFlushed(add1, add2, delete);
+    }
+
+    @Test
+    public void testFilteredNotReplaced() {
+        OFFlowModifyStrict filtered = modify(match, 1).createBuilder().setCookieMask(U64.of(0xff)).build();
+        OFFlowAdd add = add(match, 2);
+        coalescer.add(filtered);
+        coalescer.add(add);
+        assertFlushed(filtered, add);
+    }
+
+    @Test
+    public void testDistinctKeys() {
+        OFFlowAdd add1 = add(match, 1);
+        OFFlowAdd add2 = add1.createBuilder().setPriority(20).build();
+        OFFlowAdd add3 = add1.createBuilder().setTableId(TableId.of(1)).build();
+        OFFlowAdd add4 = add(otherMatch, 1);
+        coalescer.add(add1);
+        coalescer.add(add2);
+        coalescer.add(add3);
+        coalescer.add(add4);
+        assertFlushed(add1, add2, add3, add4);
+    }
+
+    @Test
+    public void testNonStrictOrdering() {
+        OFFlowAdd add1 = add(match, 1);
+        // filtered by cookie, so it may not delete the added flow
+        OFFlowDelete delete = factory.buildFlowDelete().setCookieMask(U64.of(0xff)).build();
+        OFFlowAdd add2 = add(match, 2);
+        coalescer.add(add1);
+        coalescer.add(delete);
+        coalescer.add(add2);
+        assertFlushed(add1, delete, add2);
+    }
+
+    @Test
+    public void testNonStrictDelete() {
+        OFFlowAdd subset = add(match, 1);
+        OFFlowAdd otherTable = add(match, 1).createBuilder().setTableId(TableId.of(1)).build();
+        OFFlowAdd disjoint = add(otherMatch, 1);
+        OFFlowDelete deleteIpv4 = factory.buildFlowDelete().setMatch(match).build();
+        coalescer.add(subset);
+        coalescer.add(modify(match, 2));
+        coalescer.add(otherTable);
+        coalescer.add(disjoint);
+        coalescer.add(deleteIpv4);
+        assertThat(coalescer.getPendingMessages(), equalTo(3));
+
+        OFFlowDelete deleteAll = factory.buildFlowDelete().setTableId(TableId.ALL).build();
+        coalescer.add(deleteAll);
+        assertFlushed(otherTable, disjoint, deleteIpv4, deleteAll);
+    }
+
+    @Test
+    public void testNonStrictDeleteObserved() {
+        // the flow-removed message of the added flow is observed by the controller
+        OFFlowAdd add = add(match, 1).createBuilder()
+                .setFlags(ImmutableSet.of(OFFlowModFlags.SEND_FLOW_REM))
+                .build();
+        OFFlowDelete delete = factory.buildFlowDelete().setMatch(match).build();
+        coalescer.add(add);
+        coalescer.add(delete);
+        assertFlushed(add, delete);
+    }
+
+    @Test
+    public void testBufferedModifyMerged() {
+        OFFlowAdd add = add(match, 1);
+        OFFlowModifyStrict modify = modify(match, 2).createBuilder().setBufferId(OFBufferId.of(7)).build();
+        coalescer.add(add);
+        coalescer.add(modify);
+        assertFlushed(add.createBuilder()
+                .setInstructions(modify.getInstructions())
+                .setBufferId(OFBufferId.of(7))
+                .build());
+    }
+
+    @Test
+    public void testNotCoalesced() {
+        // a filtered delete may not delete the added flow
+        OFFlowAdd add = add(match, 1);
+        OFFlowDeleteStrict filtered = delete(match).createBuilder().setCookieMask(U64.of(0xff)).build();
+        coalescer.add(add);
+        coalescer.add(filtered);
+        // an add that releases a buffered packet must be sent
+        OFFlowAdd buffered = add(otherMatch, 1).createBuilder().setBufferId(OFBufferId.of(7)).build();
+        OFFlowDeleteStrict delete = delete(otherMatch);
+        coalescer.add(buffered);
+        coalescer.add(delete);
+        assertFlushed(add, filtered, buffered, delete);
+    }
+
+    @Test
+    public void testOF10() {
+        OFFactory factory10 = OFFactories.getFactory(OFVersion.OF_10);
+        OFFlowModCoalescer coalescer10 = new OFFlowModCoalescer(factory10, sink, correlator, 100,
+                10, TimeUnit.MILLISECONDS, ticker);
+        Match match10 = factory10.buildMatch().setExact(MatchField.ETH_TYPE, EthType.IPv4).build();
+        List<OFAction> actions = ImmutableList.<OFAction>of(factory10.actions().output(OFPort.of(2), 0xffFF));
+        OFFlowAdd add = factory10.buildFlowAdd().setMatch(match10).setPriority(10).build();
+        coalescer10.add(add);
+        coalescer10.add(factory10.buildFlowModifyStrict().setMatch(match10).setPriority(10)
+                .setActions(actions).build());
+        coalescer10.flush();
+        assertThat(sink.messages.get(0), equalTo((OFMessage) add.createBuilder().setActions(actions).build()));
+        assertThat(sink.messages.size(), equalTo(2));
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        OFFlowModCoalescer small = new OFFlowModCoalescer(factory, sink, correlator, 2,
+                10, TimeUnit.MILLISECONDS, ticker);
+        assertThat(small.flush(), nullValue());
+        assertThat(small.flushExpired(), equalTo(false));
+
+        ListenableFuture<OFBarrierReply> first = small.add(add(match, 1));
+        // coalesced, so the batch is not full
+        assertThat(small.add(add(match, 2)), sameInstance(first));
+        assertThat(sink.messages.size(), equalTo(0));
+        assertThat(small.add(add(otherMatch, 1)), sameInstance(first));
+        assertThat(sink.messages.size(), equalTo(3));
+        assertThat(small.getPendingMessages(), equalTo(0));
+
+        OFBarrierRequest barrier = (OFBarrierRequest) sink.messages.get(2);
+        assertThat(first.isDone(), equalTo(false));
+        OFBarrierReply reply = factory.buildBarrierReply().setXid(barrier.getXid()).build();
+        assertThat(correlator.receive(reply), equalTo(true));
+        assertThat(first.get(), sameInstance(reply));
+
+        ListenableFuture<OFBarrierReply> second = small.add(delete(match));
+        assertThat(second, not(sameInstance(first)));
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(9);
+        assertThat(small.flushExpired(), equalTo(false));
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(1);
+        assertThat(small.flushExpired(), equalTo(true));
+        assertThat(sink.messages.size(), equalTo(5));
+        assertThat(sink.messages.get(4), instanceOf(OFBarrierRequest.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVersionMismatch() {
+        coalescer.add(OFFactories.getFactory(OFVersion.OF_10).buildFlowAdd()
+                .setActions(Collections.<OFAction>emptyList()).build());
+    }
+}
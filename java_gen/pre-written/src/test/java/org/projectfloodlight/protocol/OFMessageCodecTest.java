@@ -0,0 +1,100 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFMessageDecoder;
+import org.projectfloodlight.openflow.protocol.OFMessageEncoder;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+
+/**
+ * Tests the Netty OpenFlow frame decoder and encoder.
+ */
+public class OFMessageCodecTest {
+    private final OFFactory factory13 = OFFactories.getFactory(OFVersion.OF_13);
+    private final OFFactory factory10 = OFFactories.getFactory(OFVersion.OF_10);
+
+    @Test
+    public void testDecodeFramesInOnePass() {
+        OFMessage hello = factory13.buildHello().setXid(1).build();
+        OFMessage echo = factory10.buildEchoRequest().setXid(2).setData(new byte[] { 1, 2, 3 }).build();
+        OFMessage barrier = factory13.buildBarrierRequest().setXid(3).build();
+
+        ByteBuf bb = Unpooled.buffer();
+        hello.writeTo(bb);
+        echo.writeTo(bb);
+        barrier.writeTo(bb);
+
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageDecoder());
+        channel.writeInbound(bb);
+        assertThat(channel.readInbound(), equalTo((Object) hello));
+        assertThat(channel.readInbound(), equalTo((Object) echo));
+        assertThat(channel.readInbound(), equalTo((Object) barrier));
+        assertThat(channel.readInbound(), nullValue());
+        channel.finish();
+    }
+
+    @Test
+    public void testDecodePartialFrames() {
+        OFMessage echo = factory13.buildEchoRequest().setXid(2).setData(new byte[] { 1, 2, 3 }).build();
+        ByteBuf bb = Unpooled.buffer();
+        echo.writeTo(bb);
+        echo.writeTo(bb);
+
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageDecoder());
+        // header incomplete
+        channel.writeInbound(bb.readSlice(5).retain());
+        assertThat(channel.readInbound(), nullValue());
+        // header complete, body incomplete
+        channel.writeInbound(bb.readSlice(5).retain());
+        assertThat(channel.readInbound(), nullValue());
+        // rest of first frame and part of second
+        channel.writeInbound(bb.readSlice(10).retain());
+        assertThat(channel.readInbound(), equalTo((Object) echo));
+        assertThat(channel.readInbound(), nullValue());
+        channel.writeInbound(bb.readSlice(bb.readableBytes()).retain());
+        assertThat(channel.readInbound(), equalTo((Object) echo));
+        assertThat(channel.readInbound(), nullValue());
+        bb.release();
+        channel.finish();
+    }
+
+    @Test
+    public void testDecodeInvalidLength() {
+        ByteBuf bb = Unpooled.wrappedBuffer(new byte[] { 4, 0, 0, 4, 0, 0, 0, 1 });
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageDecoder());
+        try {
+            channel.writeInbound(bb);
+            fail("Expected DecoderException");
+        } catch (DecoderException e) {
+            assertThat(e.getCause().getClass(), equalTo((Object) OFParseError.class));
+        }
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        OFMessage flowAdd = factory13.buildFlowAdd().setXid(42).setPriority(100).build();
+
+        EmbeddedChannel encoder = new EmbeddedChannel(new OFMessageEncoder());
+        encoder.writeOutbound(flowAdd);
+        ByteBuf encoded = (ByteBuf) encoder.readOutbound();
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new OFMessageDecoder());
+        decoder.writeInbound(encoded);
+        assertThat(decoder.readInbound(), equalTo((Object) flowAdd));
+        encoder.finish();
+        decoder.finish();
+    }
+}
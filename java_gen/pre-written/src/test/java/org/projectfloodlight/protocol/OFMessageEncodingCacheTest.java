@@ -0,0 +1,94 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowAdd;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFMessageEncodingCache;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.action.OFAction;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.OFPort;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests the cached encoding of messages sent to many switches.
+ */
+public class OFMessageEncodingCacheTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private OFFlowAdd createFlowAdd() {
+        return factory.buildFlowAdd()
+                .setXid(1)
+                .setPriority(100)
+                .setMatch(factory.buildMatch()
+                        .setExact(MatchField.IN_PORT, OFPort.of(1))
+                        .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                        .build())
+                .setActions(ImmutableList.<OFAction>of(factory.actions().output(OFPort.of(2), 0)))
+                .build();
+    }
+
+    @Test
+    public void testEncodePatchesXid() throws OFParseError {
+        OFFlowAdd flowAdd = createFlowAdd();
+        OFMessageEncodingCache cache = new OFMessageEncodingCache(16);
+
+        for (long xid = 10; xid < 13; xid++) {
+            ByteBuf bb = cache.encode(flowAdd, xid);
+            assertThat(bb.readableBytes(), equalTo(flowAdd.getWireLength()));
+            OFMessage read = factory.getReader().readFrom(bb);
+            assertThat(read, equalTo((OFMessage) flowAdd.createBuilder().setXid(xid).build()));
+            assertThat(bb.release(), equalTo(true));
+        }
+        assertThat(cache.size(), equalTo(1L));
+        assertThat(cache.stats().missCount(), equalTo(1L));
+        assertThat(cache.stats().hitCount(), equalTo(2L));
+
+        // cached encoding is still intact after all handed out buffers were released
+        ByteBuf bb = cache.encode(flowAdd, 1);
+        assertThat(factory.getReader().readFrom(bb), equalTo((OFMessage) flowAdd));
+        bb.release();
+    }
+
+    @Test
+    public void testWriteTo() throws OFParseError {
+        OFFlowAdd flowAdd = createFlowAdd();
+        OFMessageEncodingCache cache = new OFMessageEncodingCache(16);
+
+        ByteBuf bb = Unpooled.buffer();
+        cache.writeTo(flowAdd, 0x80000001L, bb);
+        cache.writeTo(flowAdd, 2, bb);
+        assertThat(factory.getReader().readFrom(bb),
+                equalTo((OFMessage) flowAdd.createBuilder().setXid(0x80000001L).build()));
+        assertThat(factory.getReader().readFrom(bb),
+                equalTo((OFMessage) flowAdd.createBuilder().setXid(2).build()));
+        assertThat(cache.hitRate(), equalTo(0.5));
+    }
+
+    @Test
+    public void testIdentityKeysAndEviction() {
+        OFMessageEncodingCache cache = new OFMessageEncodingCache(1);
+        OFFlowAdd a = createFlowAdd();
+        OFFlowAdd b = createFlowAdd();
+
+        cache.encode(a, 1).release();
+        cache.encode(b, 1).release();
+        assertThat(cache.stats().missCount(), equalTo(2L));
+        assertThat(cache.size(), equalTo(1L));
+        assertThat(cache.stats().evictionCount(), equalTo(1L));
+
+        cache.invalidateAll();
+        assertThat(cache.size(), equalTo(0L));
+    }
+}
@@ -0,0 +1,199 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
+import org.projectfloodlight.openflow.protocol.OFListVisitor;
+import org.projectfloodlight.openflow.protocol.OFMultipartEntries;
+import org.projectfloodlight.openflow.protocol.OFMultipartReassembler;
+import org.projectfloodlight.openflow.protocol.OFPortStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFPortStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.TableId;
+import org.projectfloodlight.openflow.types.U64;
+import org.projectfloodlight.test.TestUtils.FakeTicker;
+
+import com.google.common.collect.ImmutableSet;
+
+public class OFMultipartReassemblerTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final OFMultipartReassembler<String> reassembler =
+            new OFMultipartReassembler<String>(100, 1, TimeUnit.SECONDS, ticker);
+
+    private List<OFFlowStatsEntry> entries(int first, int count) {
+        List<OFFlowStatsEntry> entries = new ArrayList<OFFlowStatsEntry>();
+        for (int i = first; i < first + count; i++) {
+            entries.add(factory.buildFlowStatsEntry()
+                    .setTableId(TableId.of(1))
+                    .setCookie(U64.of(i))
+                    .build());
+        }
+        return entries;
+    }
+
+    private OFFlowStatsReply reply(long xid, boolean more, List<OFFlowStatsEntry> entries) {
+        return factory.buildFlowStatsReply()
+                .setXid(xid)
+                .setFlags(more ? ImmutableSet.of(OFStatsReplyFlags.REPLY_MORE)
+                        : ImmutableSet.<OFStatsReplyFlags>of())
+                .setEntries(entries)
+                .build();
+    }
+
+    @Test
+    public void testEntriesInterface() {
+        assertThat(reply(1, false, entries(0, 1)), instanceOf(OFMultipartEntries.class));
+        assertThat(factory.buildPortStatsReply().build(), instanceOf(OFMultipartEntries.class));
+    }
+
+    @Test
+    public void testReceive() {
+        List<OFFlowStatsEntry> single = entries(0, 3);
+        assertThat(reassembler.receive("a", reply(1, false, single), OFFlowStatsEntry.class), equalTo(single));
+        assertThat(reassembler.size(), equalTo(0));
+
+        List<OFFlowStatsEntry> expected = new ArrayList<OFFlowStatsEntry>();
+        for (int i = 0; i < 5; i++) {
+            // interleave a sequence with the same xid on another connection
+            List<OFFlowStatsEntry> chunk = entries(i * 10, i == 2 ? 0 : 7);
+            expected.addAll(chunk);
+            assertThat(reassembler.receive("a", reply(2, true, chunk), OFFlowStatsEntry.class), nullValue());
+            assertThat(reassembler.receive("b", reply(2, true, entries(0, 1)), OFFlowStatsEntry.class), nullValue());
+        }
+        assertThat(reassembler.size(), equalTo(2));
+        List<OFFlowStatsEntry> last = entries(100, 2);
+        expected.addAll(last);
+        List<OFFlowStatsEntry> merged = reassembler.receive("a", reply(2, false, last), OFFlowStatsEntry.class);
+        assertThat(merged, equalTo(expected));
+        assertThat(new ArrayList<OFFlowStatsEntry>(merged), equalTo(expected));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(merged.get(i), equalTo(expected.get(i)));
+        }
+        assertThat(reassembler.size(), equalTo(1));
+        assertThat(reassembler.receive("b", reply(2, false, entries(0, 1)), OFFlowStatsEntry.class).size(), equalTo(6));
+        assertThat(reassembler.size(), equalTo(0));
+    }
+
+    @Test
+    public void testReceiveStatsReply() {
+        // e.g., replies as received from the channel
+        OFStatsReply first = reply(7, true, entries(0, 2));
+        OFStatsReply last = reply(7, false, entries(2, 1));
+        assertThat(reassembler.receive("a", first), nullValue());
+        List<?> merged = reassembler.receive("a", last);
+        assertThat(new ArrayList<Object>(merged), equalTo(new ArrayList<Object>(entries(0, 3))));
+    }
+
+    @Test
+    public void testStreamStatsReply() {
+        final List<Object> visited = new ArrayList<Object>();
+        OFListVisitor<Object> visitor = new OFListVisitor<Object>() {
+            @Override
+            public void visit(Object element) {
+                visited.add(element);
+            }
+        };
+        OFStatsReply first = reply(8, true, entries(0, 2));
+        assertThat(reassembler.stream("a", first, visitor), equalTo(false));
+        assertThat(reassembler.stream("a", reply(8, false, entries(2, 1)), visitor), equalTo(true));
+        assertThat(visited, equalTo((List<Object>) new ArrayList<Object>(entries(0, 3))));
+        assertThat(reassembler.size(), equalTo(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReceiveNoEntries() {
+        reassembler.receive("a", factory.buildDescStatsReply().build());
+    }
+
+    @Test
+    public void testOverflow() {
+        assertThat(reassembler.receive("a", reply(3, true, entries(0, 60)), OFFlowStatsEntry.class), nullValue());
+        try {
+            reassembler.receive("a", reply(3, true, entries(60, 60)), OFFlowStatsEntry.class);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        // the rest of the sequence is ignored
+        assertThat(reassembler.receive("a", reply(3, true, entries(120, 10)), OFFlowStatsEntry.class), nullValue());
+        assertThat(reassembler.receive("a", reply(3, false, entries(130, 10)), OFFlowStatsEntry.class), nullValue());
+        assertThat(reassembler.size(), equalTo(0));
+    }
+
+    @Test
+    public void testOverflowSingleReply() {
+        List<OFFlowStatsEntry> full = entries(0, 100);
+        assertThat(reassembler.receive("a", reply(4, false, full), OFFlowStatsEntry.class), equalTo(full));
+        try {
+            reassembler.receive("a", reply(5, false, entries(0, 101)), OFFlowStatsEntry.class);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertThat(reassembler.size(), equalTo(0));
+    }
+
+    @Test
+    public void testStream() {
+        final List<OFPortStatsEntry> visited = new ArrayList<OFPortStatsEntry>();
+        OFListVisitor<OFPortStatsEntry> visitor = new OFListVisitor<OFPortStatsEntry>() {
+            @Override
+            public void visit(OFPortStatsEntry element) {
+                visited.add(element);
+            }
+        };
+        List<OFPortStatsEntry> expected = new ArrayList<OFPortStatsEntry>();
+        // far more entries than maxEntries, as nothing is buffered
+        for (int i = 0; i < 300; i++) {
+            OFPortStatsEntry entry = factory.buildPortStatsEntry().setPortNo(OFPort.of(i + 1)).build();
+            expected.add(entry);
+            OFPortStatsReply reply = factory.buildPortStatsReply()
+                    .setXid(4)
+                    .setFlags(i < 299 ? ImmutableSet.of(OFStatsReplyFlags.REPLY_MORE)
+                            : ImmutableSet.<OFStatsReplyFlags>of())
+                    .setEntries(Collections.singletonList(entry))
+                    .build();
+            assertThat(reassembler.stream("a", reply, OFPortStatsEntry.class, visitor), equalTo(i == 299));
+        }
+        assertThat(visited, equalTo(expected));
+        assertThat(reassembler.size(), equalTo(0));
+    }
+
+    @Test
+    public void testEviction() {
+        reassembler.receive("a", reply(5, true, entries(0, 1)), OFFlowStatsEntry.class);
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(600);
+        reassembler.receive("a", reply(6, true, entries(0, 1)), OFFlowStatsEntry.class);
+        reassembler.receive("b", reply(5, true, entries(0, 1)), OFFlowStatsEntry.class);
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(600);
+        assertThat(reassembler.evictExpired(), equalTo(1));
+        assertThat(reassembler.size(), equalTo(2));
+
+        // the evicted sequence starts anew
+        assertThat(reassembler.receive("a", reply(5, false, entries(7, 1)), OFFlowStatsEntry.class), equalTo(entries(7, 1)));
+
+        reassembler.removeConnection("a");
+        assertThat(reassembler.size(), equalTo(1));
+        ticker.nanos += TimeUnit.SECONDS.toNanos(1);
+        assertThat(reassembler.evictExpired(), equalTo(1));
+        assertThat(reassembler.size(), equalTo(0));
+    }
+}
@@ -1,7 +1,11 @@
 package org.projectfloodlight.protocol;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Before;
@@ -10,10 +14,16 @@ import org.projectfloodlight.openflow.protocol.OFFactories;
 import org.projectfloodlight.openflow.protocol.OFOxmList;
 import org.projectfloodlight.openflow.protocol.OFVersion;
 import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.protocol.match.MatchFields;
+import org.projectfloodlight.openflow.protocol.oxm.OFOxm;
 import org.projectfloodlight.openflow.protocol.oxm.OFOxmIpv6DstMasked;
 import org.projectfloodlight.openflow.protocol.oxm.OFOxmIpv6SrcMasked;
 import org.projectfloodlight.openflow.protocol.oxm.OFOxms;
+import org.projectfloodlight.openflow.types.EthType;
 import org.projectfloodlight.openflow.types.IPv6AddressWithMask;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.U16;
+import org.projectfloodlight.openflow.types.VFI;
 
 public class OFOxmListTest {
     private OFOxms oxms;
@@ -38,4 +48,39 @@ public class OFOxmListTest {
         assertThat(list.get(MatchField.IPV6_DST), CoreMatchers.nullValue());
         assertFalse(list.get(MatchField.IPV6_SRC).isMasked());
     }
+
+    @Test
+    public void testCompactLookup() {
+        // fields on both halves of the presence bitmap
+        assertTrue(MatchFields.BSN_TCP_FLAGS.ordinal() >= 64);
+        assertTrue(MatchFields.BSN_VFI.ordinal() >= 64);
+
+        OFOxm<?> vfi = oxms.bsnVfi(VFI.ofVfi(7));
+        OFOxm<?> inPort = oxms.inPort(OFPort.of(1));
+        OFOxm<?> tcpFlags = oxms.bsnTcpFlags(U16.of(2));
+        OFOxm<?> ethType = oxms.ethType(EthType.IPv4);
+        OFOxmList list = OFOxmList.of(vfi, inPort, tcpFlags, ethType);
+
+        assertThat(list.size(), equalTo(4));
+        assertThat(list.get(MatchField.IN_PORT).getValue(), equalTo(OFPort.of(1)));
+        assertThat(list.get(MatchField.ETH_TYPE).getValue(), equalTo(EthType.IPv4));
+        assertThat(list.get(MatchField.BSN_TCP_FLAGS).getValue(), equalTo(U16.of(2)));
+        assertThat(list.get(MatchField.BSN_VFI).getValue(), equalTo(VFI.ofVfi(7)));
+        assertThat(list.get(MatchField.ETH_DST), CoreMatchers.nullValue());
+        assertThat(list.get(MatchField.BSN_VRF), CoreMatchers.nullValue());
+
+        // iteration is in field order
+        Iterator<OFOxm<?>> it = list.iterator();
+        assertThat(it.next(), equalTo((Object) inPort));
+        assertThat(it.next(), equalTo((Object) ethType));
+        assertThat(it.next(), equalTo((Object) tcpFlags));
+        assertThat(it.next(), equalTo((Object) vfi));
+        assertFalse(it.hasNext());
+
+        OFOxmList other = OFOxmList.of(ethType, tcpFlags, inPort, vfi);
+        assertThat(other, equalTo(list));
+        assertThat(other.hashCode(), equalTo(list.hashCode()));
+        assertFalse(OFOxmList.of(ethType, inPort).equals(list));
+        assertThat(list.createBuilder().build(), equalTo(list));
+    }
 }
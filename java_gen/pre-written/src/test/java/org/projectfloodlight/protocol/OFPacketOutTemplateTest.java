@@ -0,0 +1,174 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFPacketOut;
+import org.projectfloodlight.openflow.protocol.OFPacketOutTemplate;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.action.OFAction;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.MacAddress;
+import org.projectfloodlight.openflow.types.OFBufferId;
+import org.projectfloodlight.openflow.types.OFMetadata;
+import org.projectfloodlight.openflow.types.OFPort;
+
+import com.google.common.collect.ImmutableList;
+
+public class OFPacketOutTemplateTest {
+    private static final byte[] PAYLOAD = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14 };
+
+    private static OFPacketOut packetOut(OFFactory factory, long xid, OFPort inPort, OFPort outPort,
+            byte[] data) {
+        // the output port follows actions of other types and lengths
+        List<OFAction> actions = ImmutableList.<OFAction>of(
+                factory.getVersion() == OFVersion.OF_10
+                        ? factory.actions().setDlSrc(MacAddress.of(1L))
+                        : factory.actions().setField(factory.oxms().ethSrc(MacAddress.of(1L))),
+                factory.actions().output(OFPort.CONTROLLER, 0xffFF),
+                factory.actions().output(outPort, 0xffFF));
+        OFPacketOut.Builder builder = factory.buildPacketOut()
+                .setXid(xid)
+                .setBufferId(OFBufferId.NO_BUFFER)
+                .setActions(actions)
+                .setData(data);
+        if (factory.getVersion().compareTo(OFVersion.OF_15) >= 0)
+            builder.setMatch(factory.buildMatch()
+                    .setExact(MatchField.METADATA, OFMetadata.ofRaw(7))
+                    .setExact(MatchField.IN_PORT, inPort)
+                    .build());
+        else
+            builder.setInPort(inPort);
+        return builder.build();
+    }
+
+    private static byte[] getBytes(ByteBuf bb) {
+        byte[] bytes = new byte[bb.readableBytes()];
+        bb.getBytes(bb.readerIndex(), bytes);
+        return bytes;
+    }
+
+    private static byte[] encode(OFPacketOut packetOut) {
+        ByteBuf bb = Unpooled.buffer();
+        packetOut.writeTo(bb);
+        return getBytes(bb);
+    }
+
+    private void testStamp(OFVersion version) {
+        OFFactory factory = OFFactories.getFactory(version);
+        OFPacketOut prototype = packetOut(factory, 1, OFPort.of(1), OFPort.of(2), PAYLOAD);
+        OFPacketOutTemplate template = OFPacketOutTemplate.of(prototype, 1);
+        assertThat(template.getLength(), equalTo(prototype.getWireLength()));
+        assertThat(template.getPayloadLength(), equalTo(PAYLOAD.length));
+
+        byte[] data = PAYLOAD.clone();
+        data[0] = (byte) 0xaa;
+        data[6] = 0x11;
+        data[7] = 0x22;
+        data[8] = 0x33;
+        data[9] = 0x44;
+        data[10] = 0x55;
+        data[11] = 0x66;
+        data[13] = (byte) 0xbb;
+        OFPacketOut expected = packetOut(factory, 0x12345678L, OFPort.of(13), OFPort.of(42), data);
+
+        ByteBuf bb = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            bb.writeZero(3);
+            int start = template.writeTo(bb);
+            assertThat(start, equalTo(3));
+            template.setXid(bb, start, 0x12345678L);
+            template.setInPort(bb, start, OFPort.of(13));
+            template.setOutPort(bb, start, OFPort.of(42));
+            template.setPayloadByte(bb, start, 0, 0xaa);
+            template.setPayloadLong(bb, start, 6, 0x112233445566L, 6);
+            template.setPayloadBytes(bb, start, 13, new byte[] { (byte) 0xbb }, 0, 1);
+            bb.skipBytes(start);
+            assertThat(getBytes(bb), equalTo(encode(expected)));
+        } finally {
+            bb.release();
+        }
+    }
+
+    @Test
+    public void testStamp10() {
+        testStamp(OFVersion.OF_10);
+    }
+
+    @Test
+    public void testStamp13() {
+        testStamp(OFVersion.OF_13);
+    }
+
+    @Test
+    public void testStamp15() {
+        testStamp(OFVersion.OF_15);
+    }
+
+    @Test
+    public void testNewBuffer() {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        OFPacketOut packetOut = packetOut(factory, 5, OFPort.of(1), OFPort.of(2), PAYLOAD);
+        OFPacketOutTemplate template = OFPacketOutTemplate.of(packetOut);
+        ByteBuf bb = template.newBuffer(PooledByteBufAllocator.DEFAULT);
+        try {
+            template.setBufferId(bb, 0, OFBufferId.of(9));
+            // rewrite the first payload bytes with their own values
+            template.setPayloadShort(bb, 0, 0, 0x0102);
+            template.setPayloadInt(bb, 0, 2, 0x03040506);
+            assertThat(getBytes(bb),
+                    equalTo(encode(packetOut.createBuilder().setBufferId(OFBufferId.of(9)).build())));
+            // the first output action is to the controller
+            template.setOutPort(bb, 0, OFPort.of(2));
+            assertThat(getBytes(bb), equalTo(encode(packetOut.createBuilder()
+                    .setBufferId(OFBufferId.of(9))
+                    .setActions(ImmutableList.<OFAction>of(packetOut.getActions().get(0),
+                            factory.actions().output(OFPort.of(2), 0xffFF),
+                            factory.actions().output(OFPort.of(2), 0xffFF)))
+                    .build())));
+        } finally {
+            bb.release();
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPayloadBounds() {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        OFPacketOutTemplate template = OFPacketOutTemplate.of(
+                packetOut(factory, 5, OFPort.of(1), OFPort.of(2), PAYLOAD));
+        ByteBuf bb = Unpooled.buffer();
+        template.setPayloadInt(bb, template.writeTo(bb), PAYLOAD.length - 3, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoInPort15() {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_15);
+        OFPacketOutTemplate template = OFPacketOutTemplate.of(factory.buildPacketOut()
+                .setMatch(factory.buildMatch().build())
+                .setActions(ImmutableList.<OFAction>of(factory.actions().output(OFPort.of(1), 0)))
+                .setData(PAYLOAD)
+                .build());
+        assertThat(template.hasInPort(), equalTo(false));
+        assertThat(template.hasOutPort(), equalTo(true));
+        ByteBuf bb = Unpooled.buffer();
+        template.setInPort(bb, template.writeTo(bb), OFPort.of(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoOutput() {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        OFPacketOutTemplate.of(factory.buildPacketOut()
+                .setActions(ImmutableList.<OFAction>of())
+                .setData(PAYLOAD)
+                .build(), 0);
+    }
+}
@@ -0,0 +1,166 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFErrorMsgException;
+import org.projectfloodlight.openflow.protocol.OFBadRequestCode;
+import org.projectfloodlight.openflow.protocol.OFEchoReply;
+import org.projectfloodlight.openflow.protocol.OFEchoRequest;
+import org.projectfloodlight.openflow.protocol.OFErrorMsg;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFRequestCorrelator;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.test.TestUtils.FakeTicker;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class OFRequestCorrelatorTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private final FakeTicker ticker = new FakeTicker();
+    /** timeout of 1 second, with ticks of 100 milliseconds */
+    private final OFRequestCorrelator correlator =
+            new OFRequestCorrelator(1, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, ticker);
+
+    private static Throwable getCause(ListenableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Expected the future to fail");
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    @Test
+    public void testReply() throws Exception {
+        OFEchoRequest request = factory.buildEchoRequest().setXid(1).build();
+        ListenableFuture<OFEchoReply> future = correlator.register(request);
+        assertThat(correlator.size(), equalTo(1));
+
+        // messages of other types with the same xid are not replies
+        assertThat(correlator.receive(factory.buildBarrierReply().setXid(1).build()), equalTo(false));
+        assertThat(correlator.receive(factory.buildEchoReply().setXid(2).build()), equalTo(false));
+        assertThat(future.isDone(), equalTo(false));
+
+        OFEchoReply reply = factory.buildEchoReply().setXid(1).build();
+        assertThat(correlator.receive(reply), equalTo(true));
+        assertThat(future.get(), sameInstance(reply));
+        assertThat(correlator.size(), equalTo(0));
+        assertThat(correlator.receive(reply), equalTo(false));
+    }
+
+    @Test
+    public void testError() throws Exception {
+        ListenableFuture<OFEchoReply> future = correlator.register(factory.buildEchoRequest().setXid(7).build());
+        OFErrorMsg error = factory.errorMsgs().buildBadRequestErrorMsg()
+                .setXid(7)
+                .setCode(OFBadRequestCode.BAD_TYPE)
+                .build();
+        assertThat(correlator.receive(error), equalTo(true));
+        Throwable cause = getCause(future);
+        assertThat(cause, instanceOf(OFErrorMsgException.class));
+        assertThat(((OFErrorMsgException) cause).getErrorMsg(), equalTo(error));
+    }
+
+    @Test
+    public void testMultipart() throws Exception {
+        OFFlowStatsRequest request = factory.buildFlowStatsRequest().setXid(3).build();
+        ListenableFuture<List<OFFlowStatsReply>> future = correlator.registerMultipart(request);
+        List<OFFlowStatsReply> replies = new ArrayList<OFFlowStatsReply>();
+        for (int i = 0; i < 3; i++) {
+            OFFlowStatsReply reply = factory.buildFlowStatsReply()
+                    .setXid(3)
+                    .setFlags(i < 2 ? ImmutableSet.of(OFStatsReplyFlags.REPLY_MORE)
+                            : ImmutableSet.<OFStatsReplyFlags>of())
+                    .build();
+            replies.add(reply);
+            // each reply restarts the timeout
+            ticker.nanos += TimeUnit.MILLISECONDS.toNanos(800);
+            assertThat(correlator.expire(), equalTo(0));
+            assertThat(correlator.receive(reply), equalTo(true));
+        }
+        assertThat(future.get(), equalTo(replies));
+
+        // a multipart reply to a request registered as single reply fails the future
+        ListenableFuture<OFFlowStatsReply> single = correlator.register(request);
+        correlator.receive(replies.get(0));
+        assertThat(getCause(single), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        ListenableFuture<OFEchoReply> early = correlator.register(factory.buildEchoRequest().setXid(1).build());
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(500);
+        ListenableFuture<OFEchoReply> late = correlator.register(factory.buildEchoRequest().setXid(2).build());
+
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(450);
+        assertThat(correlator.expire(), equalTo(0));
+        ticker.nanos += TimeUnit.MILLISECONDS.toNanos(100);
+        assertThat(correlator.expire(), equalTo(1));
+        assertThat(getCause(early), instanceOf(TimeoutException.class));
+        assertThat(late.isDone(), equalTo(false));
+
+        // expire is not called for many rounds of the wheel
+        ticker.nanos += TimeUnit.SECONDS.toNanos(100);
+        assertThat(correlator.expire(), equalTo(1));
+        assertThat(getCause(late), instanceOf(TimeoutException.class));
+        assertThat(correlator.size(), equalTo(0));
+    }
+
+    @Test
+    public void testCancelAndDuplicate() throws Exception {
+        OFEchoRequest request = factory.buildEchoRequest().setXid(5).build();
+        ListenableFuture<OFEchoReply> future = correlator.register(request);
+        try {
+            correlator.register(request);
+            fail("Expected IllegalArgumentException for an outstanding xid");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        future.cancel(false);
+        assertThat(correlator.size(), equalTo(0));
+        assertThat(correlator.receive(factory.buildEchoReply().setXid(5).build()), equalTo(false));
+    }
+
+    @Test
+    public void testManyOutstanding() throws Exception {
+        List<ListenableFuture<OFEchoReply>> futures = new ArrayList<ListenableFuture<OFEchoReply>>();
+        for (int xid = 1; xid <= 100000; xid++) {
+            futures.add(correlator.register(factory.buildEchoRequest().setXid(xid).build()));
+            if (xid % 1000 == 0)
+                ticker.nanos += TimeUnit.MILLISECONDS.toNanos(10);
+        }
+        assertThat(correlator.size(), equalTo(100000));
+        for (int xid = 1; xid <= 100000; xid += 2) {
+            assertThat(correlator.receive(factory.buildEchoReply().setXid(xid).build()), equalTo(true));
+        }
+        ticker.nanos += TimeUnit.SECONDS.toNanos(2);
+        assertThat(correlator.expire(), equalTo(50000));
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).isDone(), equalTo(true));
+        }
+
+        ListenableFuture<OFEchoReply> future = correlator.register(factory.buildEchoRequest().setXid(1).build());
+        IllegalStateException closed = new IllegalStateException("closed");
+        correlator.failAll(closed);
+        assertThat(getCause(future), sameInstance((Throwable) closed));
+        assertThat(correlator.size(), equalTo(0));
+    }
+}
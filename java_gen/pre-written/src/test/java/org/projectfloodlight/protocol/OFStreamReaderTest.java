@@ -0,0 +1,76 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
+import org.projectfloodlight.openflow.protocol.OFListVisitor;
+import org.projectfloodlight.openflow.protocol.OFPortStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFPortStatsReply;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.U64;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests streaming the entries of multipart replies to an OFListVisitor.
+ */
+public class OFStreamReaderTest {
+
+    @Test
+    public void testFlowStatsReply() throws OFParseError {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        ImmutableList.Builder<OFFlowStatsEntry> entries = ImmutableList.builder();
+        for (int i = 0; i < 10; i++)
+            entries.add(factory.buildFlowStatsEntry().setPacketCount(U64.of(i)).build());
+        OFFlowStatsReply reply = factory.buildFlowStatsReply().setXid(7).setEntries(entries.build()).build();
+        ByteBuf bb = Unpooled.buffer();
+        reply.writeTo(bb);
+
+        final long[] packetCount = new long[1];
+        OFFlowStatsReply read = factory.getFlowStatsReplyStreamReader(new OFListVisitor<OFFlowStatsEntry>() {
+            @Override
+            public void visit(OFFlowStatsEntry entry) {
+                packetCount[0] += entry.getPacketCount().getValue();
+            }
+        }).readFrom(bb);
+
+        assertThat(bb.readableBytes(), equalTo(0));
+        assertThat(read.getXid(), equalTo(7L));
+        assertThat(read.getEntries().isEmpty(), equalTo(true));
+        assertThat(packetCount[0], equalTo(45L));
+    }
+
+    @Test
+    public void testPortStatsReplyOF10() throws OFParseError {
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_10);
+        List<OFPortStatsEntry> entries = ImmutableList.of(
+                factory.buildPortStatsEntry().setPortNo(OFPort.of(1)).build(),
+                factory.buildPortStatsEntry().setPortNo(OFPort.of(2)).build());
+        OFPortStatsReply reply = factory.buildPortStatsReply().setEntries(entries).build();
+        ByteBuf bb = Unpooled.buffer();
+        reply.writeTo(bb);
+
+        final List<OFPortStatsEntry> visited = new ArrayList<OFPortStatsEntry>();
+        factory.getPortStatsReplyStreamReader(new OFListVisitor<Object>() {
+            @Override
+            public void visit(Object entry) {
+                visited.add((OFPortStatsEntry) entry);
+            }
+        }).readFrom(bb);
+
+        assertThat(visited, equalTo(entries));
+    }
+}
@@ -0,0 +1,227 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCounted;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowRemoved;
+import org.projectfloodlight.openflow.protocol.OFFlowRemovedReason;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFPacketIn;
+import org.projectfloodlight.openflow.protocol.OFPacketInReason;
+import org.projectfloodlight.openflow.protocol.OFPacketOut;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.action.OFAction;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.ArpOpcode;
+import org.projectfloodlight.openflow.types.OFBufferId;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.TableId;
+import org.projectfloodlight.openflow.types.U64;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests the zero-copy view readers against the regular immutable readers.
+ */
+public class OFViewReaderTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private OFPacketIn createPacketIn() {
+        return factory.buildPacketIn()
+                .setXid(0x12345678)
+                .setBufferId(OFBufferId.of(100))
+                .setTotalLen(17000)
+                .setReason(OFPacketInReason.ACTION)
+                .setTableId(TableId.of(20))
+                .setCookie(U64.parseHex("FEDCBA9876543210"))
+                .setMatch(factory.buildMatch()
+                        .setMasked(MatchField.IN_PORT, OFPort.of(4), OFPort.of(5))
+                        .setExact(MatchField.ARP_OP, ArpOpcode.REQUEST)
+                        .build())
+                .setData(new byte[] { 97, 98, 99 })
+                .build();
+    }
+
+    @Test
+    public void testPacketInView() throws OFParseError {
+        OFPacketIn packetIn = createPacketIn();
+        ByteBuf bb = Unpooled.buffer();
+        packetIn.writeTo(bb);
+        int length = bb.readableBytes();
+
+        OFMessage message = factory.getViewReader().readFrom(bb);
+        assertThat(bb.readableBytes(), equalTo(0));
+        assertThat(message, instanceOf(ReferenceCounted.class));
+        assertThat(bb.refCnt(), equalTo(2));
+
+        OFPacketIn view = (OFPacketIn) message;
+        assertThat(view.getXid(), equalTo(packetIn.getXid()));
+        assertThat(view.getBufferId(), equalTo(packetIn.getBufferId()));
+        assertThat(view.getTotalLen(), equalTo(packetIn.getTotalLen()));
+        assertThat(view.getReason(), equalTo(packetIn.getReason()));
+        assertThat(view.getTableId(), equalTo(packetIn.getTableId()));
+        assertThat(view.getCookie(), equalTo(packetIn.getCookie()));
+        assertThat(view.getMatch(), equalTo(packetIn.getMatch()));
+        assertThat(view.getData(), equalTo(packetIn.getData()));
+        assertThat(view, equalTo((OFMessage) packetIn));
+        assertThat(packetIn, equalTo((OFMessage) view));
+        assertThat(view.hashCode(), equalTo(packetIn.hashCode()));
+
+        ByteBuf out = Unpooled.buffer();
+        view.writeTo(out);
+        assertThat(out.readableBytes(), equalTo(length));
+        assertThat(out, equalTo(bb.readerIndex(0)));
+
+        ((ReferenceCounted) view).release();
+        assertThat(bb.refCnt(), equalTo(1));
+    }
+
+    @Test
+    public void testRawGetters() throws OFParseError {
+        OFPacketIn packetIn = createPacketIn();
+        assertThat(packetIn.getRawCookie(), equalTo(0xFEDCBA9876543210L));
+
+        ByteBuf bb = Unpooled.buffer();
+        packetIn.writeTo(bb);
+        OFPacketIn view = (OFPacketIn) factory.getViewReader().readFrom(bb);
+        assertThat(view.getRawCookie(), equalTo(packetIn.getRawCookie()));
+        ((ReferenceCounted) view).release();
+
+        OFFlowRemoved flowRemoved = factory.buildFlowRemoved()
+                .setReason(OFFlowRemovedReason.DELETE)
+                .setCookie(U64.of(7))
+                .setPacketCount(U64.of(-1))
+                .setByteCount(U64.of(1L << 40))
+                .build();
+        bb = Unpooled.buffer();
+        flowRemoved.writeTo(bb);
+        OFFlowRemoved flowRemovedView = (OFFlowRemoved) factory.getViewReader().readFrom(bb);
+        assertThat(flowRemovedView.getRawCookie(), equalTo(7L));
+        assertThat(flowRemovedView.getRawPacketCount(), equalTo(-1L));
+        assertThat(flowRemovedView.getRawByteCount(), equalTo(flowRemoved.getRawByteCount()));
+        assertThat(flowRemovedView.getRawByteCount(), equalTo(1L << 40));
+        ((ReferenceCounted) flowRemovedView).release();
+    }
+
+    @Test
+    public void testRawGetters10() throws OFParseError {
+        OFFactory factory10 = OFFactories.getFactory(OFVersion.OF_10);
+        for (OFPort port : new OFPort[] { OFPort.of(1), OFPort.of(0x8000), OFPort.MAX, OFPort.LOCAL }) {
+            OFPacketIn packetIn = factory10.buildPacketIn()
+                    .setBufferId(OFBufferId.NO_BUFFER)
+                    .setInPort(port)
+                    .setReason(OFPacketInReason.NO_MATCH)
+                    .setData(new byte[0])
+                    .build();
+            assertThat(packetIn.getRawInPort(), equalTo(port.getPortNumber()));
+
+            ByteBuf bb = Unpooled.buffer();
+            packetIn.writeTo(bb);
+            OFPacketIn view = (OFPacketIn) factory10.getViewReader().readFrom(bb);
+            assertThat(view.getRawInPort(), equalTo(view.getInPort().getPortNumber()));
+            assertThat(view.getRawInPort(), equalTo(port.getPortNumber()));
+            ((ReferenceCounted) view).release();
+        }
+    }
+
+    private static byte[] getBytes(ByteBuf bb) {
+        byte[] bytes = new byte[bb.readableBytes()];
+        bb.getBytes(bb.readerIndex(), bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testDataSlice() throws OFParseError {
+        OFPacketIn packetIn = createPacketIn();
+        ByteBuf dataSlice = packetIn.getDataSlice();
+        assertThat(getBytes(dataSlice), equalTo(packetIn.getData()));
+
+        ByteBuf bb = Unpooled.buffer();
+        packetIn.writeTo(bb);
+        OFPacketIn view = (OFPacketIn) factory.getViewReader().readFrom(bb);
+        ByteBuf viewSlice = view.getDataSlice();
+        assertThat(getBytes(viewSlice), equalTo(packetIn.getData()));
+        assertThat(viewSlice.isWritable(), equalTo(false));
+        // slice shares the reference count of the view
+        assertThat(viewSlice.refCnt(), equalTo(2));
+        ((ReferenceCounted) view).release();
+        assertThat(viewSlice.refCnt(), equalTo(1));
+    }
+
+    @Test
+    public void testDataSliceForward() throws OFParseError {
+        OFPacketIn packetIn = createPacketIn();
+        ByteBuf bb = Unpooled.buffer();
+        packetIn.writeTo(bb);
+        OFPacketIn view = (OFPacketIn) factory.getViewReader().readFrom(bb);
+        List<OFAction> actions = ImmutableList.<OFAction>of(factory.actions().output(OFPort.of(2), 0));
+        OFPacketOut expected = factory.buildPacketOut()
+                .setXid(7)
+                .setActions(actions)
+                .setData(packetIn.getData())
+                .build();
+
+        ByteBuf dataSlice = view.getDataSlice();
+        OFPacketOut.Builder builder = factory.buildPacketOut()
+                .setXid(7)
+                .setActions(actions)
+                .setDataSlice(dataSlice);
+        ByteBuf out = Unpooled.buffer();
+        builder.writeTo(out);
+        assertThat(getBytes(out), equalTo(getBytes(encode(expected))));
+        assertThat(dataSlice.readableBytes(), equalTo(packetIn.getData().length));
+        assertThat(builder.getData(), equalTo(packetIn.getData()));
+        assertThat(builder.build(), equalTo(expected));
+
+        // the payload of a built message does not depend on the slice
+        OFPacketOut built = builder.build();
+        ((ReferenceCounted) view).release();
+        assertThat(built.getDataSlice(), equalTo(Unpooled.wrappedBuffer(packetIn.getData())));
+
+        // setData replaces the slice, and vice versa
+        assertThat(builder.setData(new byte[] { 1 }).build().getData(), equalTo(new byte[] { 1 }));
+        assertThat(builder.setDataSlice(Unpooled.wrappedBuffer(new byte[] { 2 })).build().getData(),
+                equalTo(new byte[] { 2 }));
+        assertThat(built.createBuilder().setDataSlice(Unpooled.wrappedBuffer(new byte[] { 3 })).build(),
+                equalTo(built.withData(new byte[] { 3 })));
+    }
+
+    private static ByteBuf encode(OFMessage message) {
+        ByteBuf bb = Unpooled.buffer();
+        message.writeTo(bb);
+        return bb;
+    }
+
+    @Test
+    public void testPartialFrame() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        createPacketIn().writeTo(bb);
+        ByteBuf partial = bb.slice(0, bb.readableBytes() - 1);
+
+        assertThat(factory.getViewReader().readFrom(partial), nullValue());
+        assertThat(partial.readerIndex(), equalTo(0));
+    }
+
+    @Test
+    public void testNonViewMessage() throws OFParseError {
+        ByteBuf bb = Unpooled.buffer();
+        factory.buildHello().setXid(42).build().writeTo(bb);
+
+        OFMessage message = OFFactories.getGenericViewReader().readFrom(bb);
+        assertThat(message, not(instanceOf(ReferenceCounted.class)));
+        assertThat(message.getXid(), equalTo(42L));
+    }
+}
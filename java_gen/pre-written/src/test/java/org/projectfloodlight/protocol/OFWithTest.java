@@ -0,0 +1,105 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowAdd;
+import org.projectfloodlight.openflow.protocol.OFFlowMod;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFPacketIn;
+import org.projectfloodlight.openflow.protocol.OFPacketInReason;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.action.OFAction;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.OFBufferId;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.U64;
+
+import com.google.common.collect.ImmutableList;
+
+public class OFWithTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private OFFlowAdd flowAdd() {
+        return factory.buildFlowAdd()
+                .setXid(1)
+                .setCookie(U64.of(2))
+                .setPriority(3)
+                .setMatch(factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.IPv4).build())
+                .build();
+    }
+
+    @Test
+    public void testWith() {
+        OFFlowAdd flowAdd = flowAdd();
+        OFFlowAdd copy = flowAdd.withXid(10);
+        assertThat(copy, equalTo(flowAdd.createBuilder().setXid(10).build()));
+        assertThat(copy.getMatch(), sameInstance(flowAdd.getMatch()));
+        assertThat(flowAdd.getXid(), equalTo(1L));
+
+        assertThat(flowAdd.withCookie(U64.of(7)).withPriority(8),
+                equalTo(flowAdd.createBuilder().setCookie(U64.of(7)).setPriority(8).build()));
+
+        // through the parent interfaces
+        OFFlowMod flowMod = flowAdd;
+        OFMessage message = flowMod.withPriority(9);
+        assertThat(message.withXid(11), equalTo((OFMessage) flowAdd.createBuilder().setPriority(9).setXid(11).build()));
+    }
+
+    @Test
+    public void testWithConverted() {
+        // actions are converted to instructions from OF1.1, as by the builder
+        OFFlowAdd flowAdd = flowAdd();
+        List<OFAction> actions = ImmutableList.<OFAction>of(factory.actions().output(OFPort.of(1), 0));
+        assertThat(flowAdd.withActions(actions), equalTo(flowAdd.createBuilder().setActions(actions).build()));
+        assertThat(flowAdd.withActions(actions).getActions(), equalTo(actions));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testWithNull() {
+        flowAdd().withCookie(null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWithUnsupported() {
+        OFFactories.getFactory(OFVersion.OF_10).buildFlowAdd().build().withTableId(null);
+    }
+
+    @Test
+    public void testViewWithXid() throws Exception {
+        Match match = factory.buildMatch().setExact(MatchField.IN_PORT, OFPort.of(3)).build();
+        OFPacketIn packetIn = factory.buildPacketIn()
+                .setXid(5)
+                .setBufferId(OFBufferId.NO_BUFFER)
+                .setReason(OFPacketInReason.NO_MATCH)
+                .setMatch(match)
+                .setData(new byte[] { 1, 2, 3 })
+                .build();
+        ByteBuf bb = Unpooled.buffer();
+        packetIn.writeTo(bb);
+        OFPacketIn view = (OFPacketIn) factory.getViewReader().readFrom(bb);
+
+        OFPacketIn copy = view.withXid(6);
+        assertThat(copy.getXid(), equalTo(6L));
+        assertThat(view.getXid(), equalTo(5L));
+        assertThat(copy.getData(), equalTo(packetIn.getData()));
+        ByteBuf encoded = Unpooled.buffer();
+        copy.writeTo(encoded);
+        ByteBuf expected = Unpooled.buffer();
+        packetIn.withXid(6).writeTo(expected);
+        assertThat(encoded, equalTo(expected));
+
+        assertThat(view.withTotalLen(3).getTotalLen(), equalTo(3));
+    }
+}
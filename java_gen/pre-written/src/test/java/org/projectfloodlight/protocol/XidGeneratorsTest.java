@@ -0,0 +1,86 @@
+package org.projectfloodlight.protocol;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.XidGenerator;
+import org.projectfloodlight.openflow.protocol.XidGenerators;
+
+public class XidGeneratorsTest {
+
+    /** draw xids from many threads at once and check that none is handed out twice */
+    private static void assertUnique(final XidGenerator generator, int threads, final int perThread)
+            throws InterruptedException {
+        final long[][] xids = new long[threads][perThread];
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final long[] result = xids[t];
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        result[i] = generator.nextXid();
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        BitSet seen = new BitSet();
+        for (long[] result : xids) {
+            for (long xid : result) {
+                assertThat(xid > 0 && xid <= 0xFFffFFffL, equalTo(true));
+                assertThat("duplicate xid " + xid, seen.get((int) xid), equalTo(false));
+                seen.set((int) xid);
+            }
+        }
+        assertThat(seen.cardinality(), equalTo(threads * perThread));
+    }
+
+    @Test
+    public void testStandardUnique() throws InterruptedException {
+        assertUnique(XidGenerators.create(), 8, 20000);
+    }
+
+    @Test
+    public void testBlockAllocatingUnique() throws InterruptedException {
+        assertUnique(XidGenerators.createBlockAllocating(), 8, 20000);
+        assertUnique(XidGenerators.createBlockAllocating(1), 8, 20000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBlockSize() {
+        XidGenerators.createBlockAllocating(1000);
+    }
+
+    @Test
+    public void testSetGlobal() {
+        XidGenerator previous = XidGenerators.global();
+        try {
+            XidGenerators.setGlobal(XidGenerators.createBlockAllocating(16));
+            long xid = OFFactories.getFactory(OFVersion.OF_13).nextXid();
+            assertThat(OFFactories.getFactory(OFVersion.OF_10).nextXid(), equalTo(xid + 1));
+        } finally {
+            XidGenerators.setGlobal(previous);
+        }
+    }
+}
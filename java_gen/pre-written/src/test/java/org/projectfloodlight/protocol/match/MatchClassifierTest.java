@@ -0,0 +1,144 @@
+package org.projectfloodlight.protocol.match;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchClassifier;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.protocol.match.PackedMatch;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.IPv4AddressWithMask;
+import org.projectfloodlight.openflow.types.IpProtocol;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.TransportPort;
+
+public class MatchClassifierTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private Match ipv4(String dst) {
+        return factory.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setMasked(MatchField.IPV4_DST, IPv4AddressWithMask.of(dst))
+                .build();
+    }
+
+    private Match packet(int inPort, String dst, int tcpDst) {
+        return factory.buildMatch()
+                .setExact(MatchField.IN_PORT, OFPort.of(inPort))
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setExact(MatchField.IPV4_DST, IPv4Address.of(dst))
+                .setExact(MatchField.IP_PROTO, IpProtocol.TCP)
+                .setExact(MatchField.TCP_DST, TransportPort.of(tcpDst))
+                .build();
+    }
+
+    @Test
+    public void testPriorities() {
+        MatchClassifier<String> classifier = new MatchClassifier<String>();
+        classifier.insert(0, factory.buildMatch().build(), "default");
+        classifier.insert(100, ipv4("10.0.0.0/8"), "10/8");
+        classifier.insert(200, ipv4("10.1.0.0/16"), "10.1/16");
+        classifier.insert(50, ipv4("10.1.2.0/24"), "10.1.2/24 low");
+        classifier.insert(300, factory.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setExact(MatchField.IP_PROTO, IpProtocol.TCP)
+                .setExact(MatchField.TCP_DST, TransportPort.of(22))
+                .build(), "ssh");
+
+        assertThat(classifier.size(), equalTo(5));
+        assertThat(classifier.lookup(packet(1, "10.1.2.3", 80)), equalTo("10.1/16"));
+        assertThat(classifier.lookup(packet(1, "10.2.2.3", 80)), equalTo("10/8"));
+        assertThat(classifier.lookup(packet(1, "11.2.2.3", 80)), equalTo("default"));
+        assertThat(classifier.lookup(packet(1, "10.1.2.3", 22)), equalTo("ssh"));
+
+        assertThat(classifier.remove(200, ipv4("10.1.0.0/16")), equalTo("10.1/16"));
+        assertThat(classifier.remove(200, ipv4("10.1.0.0/16")), nullValue());
+        assertThat(classifier.lookup(packet(1, "10.1.2.3", 80)), equalTo("10/8"));
+        assertThat(classifier.remove(100, ipv4("10.0.0.0/8")), equalTo("10/8"));
+        assertThat(classifier.lookup(packet(1, "10.1.2.3", 80)), equalTo("10.1.2/24 low"));
+        assertThat(classifier.size(), equalTo(3));
+    }
+
+    @Test
+    public void testReplaceSameFlow() {
+        MatchClassifier<String> classifier = new MatchClassifier<String>();
+        assertThat(classifier.insert(10, ipv4("10.0.0.0/8"), "a"), nullValue());
+        assertThat(classifier.insert(10, ipv4("10.0.0.0/8"), "b"), equalTo("a"));
+        assertThat(classifier.insert(20, ipv4("10.0.0.0/8"), "c"), nullValue());
+        assertThat(classifier.size(), equalTo(2));
+        assertThat(classifier.getSubtableCount(), equalTo(1));
+        assertThat(classifier.lookup(packet(1, "10.0.0.1", 80)), equalTo("c"));
+        classifier.remove(20, ipv4("10.0.0.0/8"));
+        assertThat(classifier.lookup(packet(1, "10.0.0.1", 80)), equalTo("b"));
+        classifier.remove(10, ipv4("10.0.0.0/8"));
+        assertThat(classifier.getSubtableCount(), equalTo(0));
+        assertThat(classifier.lookup(packet(1, "10.0.0.1", 80)), nullValue());
+    }
+
+    @Test
+    public void testManyFlowsOneSubtable() {
+        MatchClassifier<Integer> classifier = new MatchClassifier<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            classifier.insert(10, ipv4(IPv4Address.of(0x0A000000 + (i << 8)) + "/24"), i);
+        }
+        assertThat(classifier.getSubtableCount(), equalTo(1));
+        for (int i = 0; i < 1000; i += 2) {
+            assertThat(classifier.remove(10, ipv4(IPv4Address.of(0x0A000000 + (i << 8)) + "/24")),
+                    equalTo(i));
+        }
+        assertThat(classifier.size(), equalTo(500));
+        for (int i = 0; i < 1000; i++) {
+            String dst = IPv4Address.of(0x0A000001 + (i << 8)).toString();
+            PackedMatch packet = PackedMatch.of(packet(1, dst, 80));
+            assertThat(classifier.lookup(packet), equalTo(i % 2 == 0 ? null : Integer.valueOf(i)));
+        }
+    }
+
+    @Test
+    public void testAgainstLinearScan() {
+        Random random = new Random(42);
+        MatchClassifier<Integer> classifier = new MatchClassifier<Integer>();
+        List<PackedMatch> flows = new ArrayList<PackedMatch>();
+        List<Integer> priorities = new ArrayList<Integer>();
+        for (int i = 0; i < 500; i++) {
+            Match.Builder builder = factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.IPv4);
+            if (random.nextBoolean())
+                builder.setExact(MatchField.IN_PORT, OFPort.of(1 + random.nextInt(4)));
+            int prefix = random.nextInt(25);
+            if (prefix > 0)
+                builder.setMasked(MatchField.IPV4_DST,
+                        IPv4Address.of(random.nextInt()).withMaskOfLength(prefix));
+            Match match = builder.build();
+            // unique priorities, so the expected result is well defined
+            int priority = i * 7;
+            classifier.insert(priority, match, i);
+            flows.add(PackedMatch.of(match));
+            priorities.add(priority);
+        }
+
+        for (int p = 0; p < 2000; p++) {
+            PackedMatch packet = PackedMatch.of(packet(1 + random.nextInt(4),
+                    IPv4Address.of(random.nextInt()).toString(), 80));
+            Integer expected = null;
+            int best = Integer.MIN_VALUE;
+            for (int i = 0; i < flows.size(); i++) {
+                if (flows.get(i).matches(packet) && priorities.get(i) > best) {
+                    best = priorities.get(i);
+                    expected = i;
+                }
+            }
+            assertThat(classifier.lookup(packet), equalTo(expected));
+        }
+    }
+}
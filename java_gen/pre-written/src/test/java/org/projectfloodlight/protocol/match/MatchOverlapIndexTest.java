@@ -0,0 +1,126 @@
+package org.projectfloodlight.protocol.match;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.protocol.match.MatchOverlapIndex;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.IPv4AddressWithMask;
+import org.projectfloodlight.openflow.types.IpProtocol;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.TransportPort;
+
+public class MatchOverlapIndexTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private Match ipv4(String src, String dst) {
+        return factory.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setMasked(MatchField.IPV4_SRC, IPv4AddressWithMask.of(src))
+                .setMasked(MatchField.IPV4_DST, IPv4AddressWithMask.of(dst))
+                .build();
+    }
+
+    @Test
+    public void testOverlappingAndSupersets() {
+        MatchOverlapIndex<String> index = new MatchOverlapIndex<String>();
+        index.put(factory.buildMatch().build(), "all");
+        index.put(ipv4("10.0.0.0/8", "0.0.0.0/0"), "src 10/8");
+        index.put(ipv4("0.0.0.0/0", "192.168.0.0/16"), "dst 192.168/16");
+        index.put(ipv4("11.0.0.0/8", "192.168.1.0/24"), "src 11/8 dst 192.168.1/24");
+        index.put(factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.ARP).build(), "arp");
+        assertThat(index.size(), equalTo(5));
+
+        Match candidate = ipv4("10.1.0.0/16", "192.168.2.0/24");
+        assertThat(index.getOverlapping(candidate), Matchers.containsInAnyOrder(
+                "all", "src 10/8", "dst 192.168/16"));
+        assertThat(index.getSupersets(candidate), Matchers.containsInAnyOrder(
+                "all", "src 10/8", "dst 192.168/16"));
+
+        candidate = ipv4("0.0.0.0/0", "192.168.1.1/32");
+        assertThat(index.getOverlapping(candidate), Matchers.containsInAnyOrder(
+                "all", "src 10/8", "dst 192.168/16", "src 11/8 dst 192.168.1/24"));
+        assertThat(index.getSupersets(candidate), Matchers.containsInAnyOrder(
+                "all", "dst 192.168/16"));
+
+        assertThat(index.put(ipv4("10.0.0.0/8", "0.0.0.0/0"), "replaced"), equalTo("src 10/8"));
+        assertThat(index.remove(ipv4("0.0.0.0/0", "192.168.0.0/16")), equalTo("dst 192.168/16"));
+        assertThat(index.remove(ipv4("0.0.0.0/0", "192.168.0.0/16")), nullValue());
+        assertThat(index.getOverlapping(candidate), Matchers.containsInAnyOrder(
+                "all", "replaced", "src 11/8 dst 192.168.1/24"));
+        assertThat(index.get(ipv4("10.0.0.0/8", "0.0.0.0/0")), equalTo("replaced"));
+        assertThat(index.size(), equalTo(4));
+    }
+
+    private Match randomMatch(Random random) {
+        Match.Builder builder = factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.IPv4);
+        if (random.nextBoolean())
+            builder.setExact(MatchField.IN_PORT, OFPort.of(1 + random.nextInt(4)));
+        int prefix = random.nextInt(9);
+        if (prefix > 0)
+            builder.setMasked(MatchField.IPV4_SRC,
+                    IPv4Address.of(random.nextInt(4) << 28).withMaskOfLength(prefix));
+        prefix = random.nextInt(9);
+        if (prefix > 0)
+            builder.setMasked(MatchField.IPV4_DST,
+                    IPv4Address.of(random.nextInt(4) << 28).withMaskOfLength(prefix));
+        if (random.nextBoolean()) {
+            builder.setExact(MatchField.IP_PROTO, IpProtocol.TCP);
+            if (random.nextBoolean())
+                builder.setExact(MatchField.TCP_DST, TransportPort.of(random.nextInt(3)));
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testAgainstLinearScan() {
+        Random random = new Random(42);
+        MatchOverlapIndex<Integer> index = new MatchOverlapIndex<Integer>();
+        List<Match> matches = new ArrayList<Match>();
+        for (int i = 0; i < 300; i++) {
+            Match match = randomMatch(random);
+            // a duplicate replaces the value of the equal match, which is already in the list
+            if (index.put(match, i) == null)
+                matches.add(match);
+        }
+        for (int i = 0; i < 50; i++) {
+            Match match = matches.remove(random.nextInt(matches.size()));
+            assertThat(index.remove(match) != null, equalTo(true));
+        }
+        assertThat(index.size(), equalTo(matches.size()));
+
+        for (int q = 0; q < 500; q++) {
+            Match candidate = randomMatch(random);
+            List<Integer> overlapping = new ArrayList<Integer>();
+            List<Integer> supersets = new ArrayList<Integer>();
+            for (Match match : matches) {
+                if (match.overlaps(candidate))
+                    overlapping.add(index.get(match));
+                if (candidate.isSubsetOf(match))
+                    supersets.add(index.get(match));
+            }
+            assertThat(sorted(index.getOverlapping(candidate)), equalTo(sorted(overlapping)));
+            assertThat(sorted(index.getSupersets(candidate)), equalTo(sorted(supersets)));
+        }
+    }
+
+    private static List<Integer> sorted(List<Integer> list) {
+        List<Integer> result = new ArrayList<Integer>(list);
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package org.projectfloodlight.protocol.match;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.IPv6Address;
+import org.projectfloodlight.openflow.types.IpProtocol;
+import org.projectfloodlight.openflow.types.MacAddress;
+import org.projectfloodlight.openflow.types.OFMetadata;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.OFVlanVidMatch;
+import org.projectfloodlight.openflow.types.TransportPort;
+import org.projectfloodlight.openflow.types.U64;
+
+public class MatchRawLongTest {
+
+    private static Match createMatch(OFFactory factory) {
+        return factory.buildMatch()
+                .setExact(MatchField.IN_PORT, OFPort.LOCAL)
+                .setExact(MatchField.ETH_SRC, MacAddress.of("fe:dc:ba:98:76:54"))
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setExact(MatchField.VLAN_VID, OFVlanVidMatch.ofVlan(42))
+                .setExact(MatchField.IPV4_SRC, IPv4Address.of("10.0.0.1"))
+                .setMasked(MatchField.IPV4_DST, IPv4Address.of("192.168.1.0").withMaskOfLength(24))
+                .setExact(MatchField.IP_PROTO, IpProtocol.TCP)
+                .setExact(MatchField.TCP_DST, TransportPort.of(65535))
+                .build();
+    }
+
+    private static void testRawLong(OFFactory factory) {
+        Match match = createMatch(factory);
+
+        assertThat(match.getRawLong(MatchField.IN_PORT), equalTo(0xFFFFFFFEL));
+        assertThat(match.getRawLong(MatchField.IN_PORT),
+                equalTo(match.get(MatchField.IN_PORT).getPortNumber() & 0xFFFFFFFFL));
+        assertThat(match.getRawLong(MatchField.ETH_SRC), equalTo(0xFEDCBA987654L));
+        assertThat(match.getRawLong(MatchField.ETH_SRC),
+                equalTo(match.get(MatchField.ETH_SRC).getLong()));
+        assertThat(match.getRawLong(MatchField.IPV4_SRC), equalTo(0x0A000001L));
+        assertThat(match.getRawLong(MatchField.IPV4_SRC),
+                equalTo(match.get(MatchField.IPV4_SRC).getInt() & 0xFFFFFFFFL));
+        assertThat(match.getRawLong(MatchField.IPV4_DST), equalTo(0xC0A80100L));
+        assertThat(match.getRawLong(MatchField.IPV4_DST),
+                equalTo(match.getMasked(MatchField.IPV4_DST).getValue().getInt() & 0xFFFFFFFFL));
+        assertThat(match.getRawLong(MatchField.ETH_TYPE), equalTo(0x800L));
+        assertThat(match.getRawLong(MatchField.VLAN_VID), equalTo(0x1000L | 42));
+        assertThat(match.getRawLong(MatchField.IP_PROTO), equalTo(6L));
+        assertThat(match.getRawLong(MatchField.TCP_DST), equalTo(65535L));
+
+        try {
+            match.getRawLong(MatchField.ETH_DST);
+            fail("Expected IllegalStateException for a wildcarded field");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            match.getRawLong(MatchField.UDP_DST);
+            fail("Expected IllegalStateException for a field with unmet prerequisites");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRawLong10() {
+        testRawLong(OFFactories.getFactory(OFVersion.OF_10));
+    }
+
+    @Test
+    public void testRawLong13() {
+        testRawLong(OFFactories.getFactory(OFVersion.OF_13));
+    }
+
+    @Test
+    public void testMetadata13() {
+        Match match = OFFactories.getFactory(OFVersion.OF_13).buildMatch()
+                .setExact(MatchField.METADATA, OFMetadata.of(U64.of(0xFEDCBA9876543210L)))
+                .build();
+        assertThat(match.getRawLong(MatchField.METADATA), equalTo(0xFEDCBA9876543210L));
+        assertThat(match.getRawLong(MatchField.METADATA),
+                equalTo(match.get(MatchField.METADATA).getValue().getValue()));
+    }
+
+    @Test
+    public void testUnsupported() {
+        Match match = OFFactories.getFactory(OFVersion.OF_13).buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv6)
+                .setExact(MatchField.IPV6_SRC, IPv6Address.of("2001:db8::1"))
+                .build();
+        try {
+            match.getRawLong(MatchField.IPV6_SRC);
+            fail("Expected UnsupportedOperationException for an IPv6 address");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        Match match10 = OFFactories.getFactory(OFVersion.OF_10).buildMatch().build();
+        try {
+            match10.getRawLong(MatchField.METADATA);
+            fail("Expected UnsupportedOperationException for metadata in OF 1.0");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
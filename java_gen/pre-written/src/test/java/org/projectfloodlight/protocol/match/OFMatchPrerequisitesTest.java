@@ -20,6 +20,8 @@ import org.projectfloodlight.openflow.protocol.match.Match;
 import org.projectfloodlight.openflow.protocol.match.MatchField;
 import org.projectfloodlight.openflow.types.EthType;
 import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.IpProtocol;
+import org.projectfloodlight.openflow.types.TransportPort;
 
 @RunWith(Parameterized.class)
 public class OFMatchPrerequisitesTest {
@@ -82,5 +84,26 @@ public class OFMatchPrerequisitesTest {
         assertThat(matchFields, Matchers.<MatchField<?>>contains(MatchField.ETH_TYPE, MatchField.IPV4_SRC));
     }
 
+    @Test
+    public void testTransitivePreRequisites() {
+        // TCP_SRC requires IP_PROTO == TCP, which in turn requires an IP ETH_TYPE
+        Match match = factory.buildMatch()
+           .setExact(ETH_TYPE, EthType.LLDP)
+           .setExact(MatchField.IP_PROTO, IpProtocol.TCP)
+           .setExact(MatchField.TCP_SRC, TransportPort.of(80))
+           .build();
+
+        assertThat(match.get(MatchField.IP_PROTO), nullValue());
+        assertThat(match.get(MatchField.TCP_SRC), nullValue());
+        assertThat(match.isFullyWildcarded(MatchField.TCP_SRC), equalTo(true));
+        assertThat(match.getMatchFields(), Matchers.<MatchField<?>>contains(MatchField.ETH_TYPE));
 
+        match = factory.buildMatch()
+           .setExact(ETH_TYPE, EthType.IPv4)
+           .setExact(MatchField.IP_PROTO, IpProtocol.TCP)
+           .setExact(MatchField.TCP_SRC, TransportPort.of(80))
+           .build();
+        assertThat(match.get(MatchField.TCP_SRC), equalTo(TransportPort.of(80)));
+        assertThat(match.getMatchFields(), Matchers.<MatchField<?>>iterableWithSize(3));
+    }
 }
@@ -0,0 +1,77 @@
+package org.projectfloodlight.protocol.match;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFMatchV3;
+import org.projectfloodlight.openflow.protocol.OFOxmList;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.IPv4AddressWithMask;
+import org.projectfloodlight.openflow.types.OFPort;
+
+public class OFMatchV3BuilderTest {
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    @Test
+    public void testReadsFromWorkingFields() {
+        Match.Builder builder = factory.buildMatch()
+                .setExact(MatchField.IN_PORT, OFPort.of(1))
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setMasked(MatchField.IPV4_SRC, IPv4AddressWithMask.of("10.0.0.0/8"));
+
+        assertThat(builder.get(MatchField.IN_PORT), equalTo(OFPort.of(1)));
+        assertThat(builder.isPartiallyMasked(MatchField.IPV4_SRC), equalTo(true));
+        assertThat(builder.isFullyWildcarded(MatchField.IPV4_DST), equalTo(true));
+
+        // fully masked values are canonicalized to exact matches
+        builder.setMasked(MatchField.IPV4_SRC, IPv4Address.of("10.0.0.1"), IPv4Address.NO_MASK);
+        assertThat(builder.isExact(MatchField.IPV4_SRC), equalTo(true));
+
+        builder.wildcard(MatchField.IN_PORT);
+        assertThat(builder.get(MatchField.IN_PORT), nullValue());
+
+        Match match = builder.build();
+        assertThat(match.get(MatchField.IN_PORT), nullValue());
+        assertThat(match.get(MatchField.ETH_TYPE), equalTo(EthType.IPv4));
+        assertThat(match.get(MatchField.IPV4_SRC), equalTo(IPv4Address.of("10.0.0.1")));
+    }
+
+    @Test
+    public void testBuildIsRepeatable() {
+        Match.Builder builder = factory.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4);
+        Match first = builder.build();
+        builder.setExact(MatchField.IPV4_DST, IPv4Address.of("1.2.3.4"));
+        Match second = builder.build();
+
+        assertThat(first.get(MatchField.IPV4_DST), nullValue());
+        assertThat(second.get(MatchField.IPV4_DST), equalTo(IPv4Address.of("1.2.3.4")));
+        assertThat(second.get(MatchField.ETH_TYPE), equalTo(EthType.IPv4));
+    }
+
+    @Test
+    public void testOxmListProperty() {
+        OFMatchV3.Builder builder = (OFMatchV3.Builder) factory.buildMatch();
+        builder.setExact(MatchField.ETH_TYPE, EthType.IPv4);
+        OFOxmList oxmList = builder.getOxmList();
+        assertThat(oxmList.get(MatchField.ETH_TYPE).getValue(), equalTo(EthType.IPv4));
+
+        // fields set after an explicit list extend that list
+        builder.setExact(MatchField.IN_PORT, OFPort.of(3));
+        OFMatchV3 match = builder.build();
+        assertThat(match.get(MatchField.ETH_TYPE), equalTo(EthType.IPv4));
+        assertThat(match.get(MatchField.IN_PORT), equalTo(OFPort.of(3)));
+
+        builder.setOxmList(OFOxmList.EMPTY);
+        assertThat(builder.get(MatchField.IN_PORT), nullValue());
+        assertThat(builder.build().getOxmList(), equalTo(OFOxmList.EMPTY));
+    }
+}
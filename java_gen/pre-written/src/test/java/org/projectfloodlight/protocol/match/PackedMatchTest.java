@@ -0,0 +1,189 @@
+package org.projectfloodlight.protocol.match;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.protocol.match.Match;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.protocol.match.PackedMatch;
+import org.projectfloodlight.openflow.types.EthType;
+import org.projectfloodlight.openflow.types.IPv4Address;
+import org.projectfloodlight.openflow.types.IPv4AddressWithMask;
+import org.projectfloodlight.openflow.types.IPv6AddressWithMask;
+import org.projectfloodlight.openflow.types.IpProtocol;
+import org.projectfloodlight.openflow.types.MacAddress;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.OFVlanVidMatch;
+import org.projectfloodlight.openflow.types.TransportPort;
+import org.projectfloodlight.openflow.types.U32;
+
+public class PackedMatchTest {
+    private final OFFactory factory10 = OFFactories.getFactory(OFVersion.OF_10);
+    private final OFFactory factory13 = OFFactories.getFactory(OFVersion.OF_13);
+
+    private Match createIpv4Match(OFFactory factory) {
+        return factory.buildMatch()
+                .setExact(MatchField.IN_PORT, OFPort.of(7))
+                .setExact(MatchField.ETH_DST, MacAddress.of("01:02:03:04:05:06"))
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setExact(MatchField.VLAN_VID, OFVlanVidMatch.ofVlan(100))
+                .setMasked(MatchField.IPV4_SRC, IPv4AddressWithMask.of("10.1.0.0/16"))
+                .setExact(MatchField.IP_PROTO, IpProtocol.TCP)
+                .setExact(MatchField.TCP_DST, TransportPort.of(443))
+                .build();
+    }
+
+    @Test
+    public void testRoundTrip13() {
+        Match match = createIpv4Match(factory13);
+        PackedMatch packed = PackedMatch.of(match);
+        assertThat(packed.toMatch(factory13), equalTo(match));
+
+        Match ipv6 = factory13.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv6)
+                .setMasked(MatchField.IPV6_DST, IPv6AddressWithMask.of("2001:db8::/33"))
+                .setExact(MatchField.OFDPA_MPLS_L2_PORT, U32.of(12))
+                .build();
+        assertThat(PackedMatch.of(ipv6).toMatch(factory13), equalTo(ipv6));
+    }
+
+    @Test
+    public void testRoundTrip10() {
+        Match match = createIpv4Match(factory10);
+        PackedMatch packed = PackedMatch.of(match);
+        assertThat(packed.toMatch(factory10), equalTo(match));
+        // the packed form is version independent
+        assertThat(packed, equalTo(PackedMatch.of(createIpv4Match(factory13))));
+        assertThat(packed.hashCode(), equalTo(PackedMatch.of(createIpv4Match(factory13)).hashCode()));
+
+        Match all = factory10.buildMatch().build();
+        assertThat(PackedMatch.of(all), equalTo(PackedMatch.ALL));
+        assertThat(PackedMatch.ALL.toMatch(factory10), equalTo(all));
+    }
+
+    @Test
+    public void testMatches() {
+        PackedMatch match = PackedMatch.of(factory13.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setMasked(MatchField.IPV4_DST, IPv4AddressWithMask.of("192.168.0.0/16"))
+                .build());
+
+        PackedMatch hit = PackedMatch.of(factory13.buildMatch()
+                .setExact(MatchField.IN_PORT, OFPort.of(1))
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setExact(MatchField.IPV4_DST, IPv4Address.of("192.168.3.4"))
+                .build());
+        PackedMatch miss = PackedMatch.of(factory13.buildMatch()
+                .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                .setExact(MatchField.IPV4_DST, IPv4Address.of("192.169.3.4"))
+                .build());
+
+        assertThat(match.matches(hit), equalTo(true));
+        assertThat(match.matches(miss), equalTo(false));
+        assertThat(PackedMatch.ALL.matches(miss), equalTo(true));
+        assertThat(match, not(equalTo(hit)));
+    }
+
+    private Match ipv4(OFFactory factory, String src, String dst) {
+        Match.Builder builder = factory.buildMatch().setExact(MatchField.ETH_TYPE, EthType.IPv4);
+        if (src != null)
+            builder.setMasked(MatchField.IPV4_SRC, IPv4AddressWithMask.of(src));
+        if (dst != null)
+            builder.setMasked(MatchField.IPV4_DST, IPv4AddressWithMask.of(dst));
+        return builder.build();
+    }
+
+    @Test
+    public void testOverlapsSubsetIntersect() {
+        for (OFFactory factory : new OFFactory[] { factory10, factory13 }) {
+            Match a = ipv4(factory, "10.0.0.0/8", null);
+            Match b = ipv4(factory, null, "192.168.0.0/16");
+            Match c = ipv4(factory, "10.1.0.0/16", "192.168.1.0/24");
+            Match d = ipv4(factory, "11.0.0.0/8", null);
+
+            assertThat(a.overlaps(b), equalTo(true));
+            assertThat(a.overlaps(d), equalTo(false));
+            assertThat(c.isSubsetOf(a), equalTo(true));
+            assertThat(c.isSubsetOf(b), equalTo(true));
+            assertThat(a.isSubsetOf(c), equalTo(false));
+            assertThat(a.isSubsetOf(a), equalTo(true));
+
+            assertThat(a.intersect(b), equalTo(ipv4(factory, "10.0.0.0/8", "192.168.0.0/16")));
+            assertThat(a.intersect(c), sameInstance(c));
+            assertThat(c.intersect(a), sameInstance(c));
+            assertThat(a.intersect(d), nullValue());
+
+            // different versions can be compared; the intersection has the version of this match
+            Match other = ipv4(factory == factory10 ? factory13 : factory10, null, "192.168.0.0/16");
+            assertThat(a.overlaps(other), equalTo(true));
+            assertThat(a.intersect(other).getVersion(), equalTo(factory.getVersion()));
+        }
+    }
+
+    @Test
+    public void testAlgebraRespectsPrerequisites() {
+        for (OFFactory factory : new OFFactory[] { factory10, factory13 }) {
+            // the transport port is ignored without an IP protocol
+            Match port = factory.buildMatch()
+                    .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                    .setExact(MatchField.TCP_DST, TransportPort.of(80))
+                    .build();
+            Match ip = factory.buildMatch()
+                    .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                    .build();
+            Match udp = factory.buildMatch()
+                    .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                    .setExact(MatchField.IP_PROTO, IpProtocol.UDP)
+                    .setExact(MatchField.UDP_DST, TransportPort.of(53))
+                    .build();
+            assertThat(ip.isSubsetOf(port), equalTo(true));
+            assertThat(port.isSubsetOf(ip), equalTo(true));
+            assertThat(udp.isSubsetOf(port), equalTo(true));
+
+            Match arp = factory.buildMatch()
+                    .setExact(MatchField.ETH_TYPE, EthType.ARP)
+                    .build();
+            assertThat(arp.overlaps(udp), equalTo(false));
+            assertThat(arp.overlaps(factory.buildMatch().build()), equalTo(true));
+        }
+    }
+
+    @Test
+    public void testRawValue() {
+        for (OFFactory factory : new OFFactory[] { factory10, factory13 }) {
+            PackedMatch packed = PackedMatch.of(factory.buildMatch()
+                    .setExact(MatchField.IN_PORT, OFPort.LOCAL)
+                    .setExact(MatchField.ETH_SRC, MacAddress.of("fe:dc:ba:98:76:54"))
+                    .setExact(MatchField.ETH_TYPE, EthType.IPv4)
+                    .setExact(MatchField.VLAN_VID, OFVlanVidMatch.ofVlan(42))
+                    .setMasked(MatchField.IPV4_SRC, IPv4AddressWithMask.of("192.168.1.0/24"))
+                    .setExact(MatchField.IP_PROTO, IpProtocol.TCP)
+                    .setExact(MatchField.TCP_DST, TransportPort.of(65535))
+                    .build());
+            assertThat(packed.getRawValue(MatchField.IN_PORT), equalTo(0xFFFFFFFEL));
+            assertThat(packed.getRawValue(MatchField.ETH_SRC), equalTo(0xfedcba987654L));
+            assertThat(packed.getRawMask(MatchField.ETH_SRC), equalTo(0xFFFFFFFFFFFFL));
+            assertThat(packed.getRawValue(MatchField.ETH_TYPE), equalTo(0x0800L));
+            assertThat(packed.getRawValue(MatchField.VLAN_VID), equalTo(0x1000L | 42));
+            assertThat(packed.getRawValue(MatchField.IPV4_SRC), equalTo(0xC0A80100L));
+            assertThat(packed.getRawMask(MatchField.IPV4_SRC), equalTo(0xFFFFFF00L));
+            assertThat(packed.getRawValue(MatchField.IP_PROTO), equalTo(6L));
+            assertThat(packed.getRawValue(MatchField.TCP_DST), equalTo(65535L));
+            // wildcarded
+            assertThat(packed.getRawValue(MatchField.ETH_DST), equalTo(0L));
+            assertThat(packed.getRawMask(MatchField.ETH_DST), equalTo(0L));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRawValueTooLong() {
+        PackedMatch.of(factory13.buildMatch().build()).getRawValue(MatchField.IPV6_SRC);
+    }
+}
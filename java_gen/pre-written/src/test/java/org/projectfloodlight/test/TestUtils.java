@@ -4,9 +4,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
+import org.projectfloodlight.openflow.protocol.OFBundlePacker;
+import org.projectfloodlight.openflow.protocol.OFFlowModCoalescer;
+import org.projectfloodlight.openflow.protocol.OFMessage;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
+import com.google.common.base.Ticker;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Bytes;
 
@@ -15,6 +19,26 @@ public class TestUtils {
 
      private static final int PER_LINE = 8;
 
+     /** ticker whose time is set by the test */
+     public static class FakeTicker extends Ticker {
+         public long nanos = 1000;
+
+         @Override
+         public long read() {
+             return nanos;
+         }
+     }
+
+     /** sink that collects the messages sent */
+     public static class ListSink implements OFBundlePacker.MessageSink, OFFlowModCoalescer.MessageSink {
+         public final List<OFMessage> messages = new ArrayList<OFMessage>();
+
+         @Override
+         public void send(OFMessage message) {
+             messages.add(message);
+         }
+     }
+
      public static void betterAssertArrayEquals(byte[] expected, byte[] got) {
          int maxlen = Math.max(expected.length, got.length);
 
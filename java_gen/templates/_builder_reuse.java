@@ -0,0 +1,29 @@
+        @Override
+        public ${msg.interface.name}.Builder reset() {
+//:: for prop in msg.data_members:
+//::    if prop.name == "xid" and not has_parent:
+            // builds a new message, so draws a new xid as the factory does
+            this.xid = XidGenerators.global().nextXid();
+            this.xidSet = true;
+//::    else:
+            this.${prop.name}Set = false;
+//::    if not prop.java_type.is_primitive:
+            this.${prop.name} = null;
+//::    #endif
+//::    #endif
+//:: #endfor
+//:: if msg.has_data_slice:
+            this.dataSlice = null;
+//:: #endif
+//:: if os.path.exists("%s/custom/%s.Builder_reset_stanza.java" % (template_dir, msg.name)):
+//:: include("custom/%s.Builder_reset_stanza.java" % msg.name, msg=msg, version=version, has_parent=has_parent)
+//:: #endif
+            return this;
+        }
+
+        @Override
+        public void writeTo(ByteBuf bb) {
+//:: include("_builder_values.java", msg=msg, version=version, has_parent=has_parent)
+            Writer.write(bb${"".join(", " + prop.name for prop in msg.data_members)}${", dataSlice" if msg.has_data_slice else ""});
+        }
+
@@ -0,0 +1,23 @@
+//:: # effective property values of a builder, as local variables named after the properties
+//:: for prop in msg.data_members:
+//::    if has_parent:
+            ${prop.java_type.public_type} ${prop.name} = this.${prop.name}Set ? this.${prop.name} : parentMessage.${prop.name};
+//::    elif prop.default_value:
+            ${prop.java_type.public_type} ${prop.name} = this.${prop.name}Set ? this.${prop.name} : ${prop.default_name};
+//::    else:
+            if(!this.${prop.name}Set)
+                throw new IllegalStateException("Property ${prop.name} doesn't have default value -- must be set");
+//::    #endif
+//::    if not prop.is_nullable and not prop.java_type.is_primitive:
+//::       if msg.has_data_slice and prop.name == "data":
+            if(${prop.name} == null && dataSlice == null)
+//::       else:
+            if(${prop.name} == null)
+//::       #endif
+                throw new NullPointerException("Property ${prop.name} must not be null");
+//::    #endif
+//:: #endfor
+
+//:: if os.path.exists("%s/custom/%s.Builder_normalize_stanza.java" % (template_dir, msg.name)):
+//:: include("custom/%s.Builder_normalize_stanza.java" % msg.name, msg=msg, version=version, has_parent=False)
+//:: #endif
@@ -19,6 +19,8 @@
         ByteBuf c = new LengthCountingPseudoByteBuf();
         WRITER.write(c, ${ "this" if not builder else "({0}) this.getMessage()".format(msg.name) });
         return c.writerIndex();
+//::    elif builder and msg.has_data_slice and prop.name == "data":
+        return dataSlice != null ? ChannelUtils.getBytes(dataSlice) : data;
 //::    else:
         return ${version_prop.name};
 //::    #endif
@@ -27,6 +29,41 @@
 //:: #endif
     }
 //:: #endif
+//:: if not builder and prop.java_type.has_raw:
+
+    @Override
+    public ${prop.java_type.raw_type} ${prop.raw_getter_name}()${ "" if prop in msg.members else "throws UnsupportedOperationException"} {
+//::    if prop in msg.members and not msg.member_by_name(prop.name).is_fixed_value and not os.path.exists(getter_template_file_name):
+        return ${prop.java_type.raw_get_op(version, name=prop.name)};
+//::    else:
+        return ${prop.java_type.raw_get_op(version, name=prop.getter_name + "()")};
+//::    #endif
+    }
+//:: #endif
+
+//:: if not builder and prop.needs_setter:
+    @Override
+    public ${msg.interface.name} ${prop.with_name}(${prop.java_type.public_type} ${prop.name})${ "" if prop in msg.members else " throws UnsupportedOperationException"} {
+        //:: custom_setter = os.path.exists("%s/custom/%s.Builder_%s.java" % (template_dir, msg.name, prop.setter_name))
+        //:: if prop.is_writeable and (prop in msg.members or custom_setter):
+        //::    customized = custom_setter or os.path.exists("%s/custom/%s.Builder_normalize_stanza.java" % (template_dir, msg.name))
+        //::    customized = customized or (hasattr(prop, "custom_template") and prop.custom_template != None)
+        //::    if customized:
+        // the builder normalizes or converts the value
+        return createBuilder().${prop.setter_name}(${prop.name}).build();
+        //::    else:
+        // the other fields are shared with this message
+        return new ${msg.name}(
+                ${",\n                ".join(p.name if p.name == prop.name else "this." + p.name for p in msg.data_members)}
+                );
+        //::    #endif
+        //:: elif prop.is_writeable:
+        throw new UnsupportedOperationException("Property ${prop.name} not supported in version #{version}");
+        //:: else:
+        throw new UnsupportedOperationException("Property ${prop.name} is not writeable");
+        //:: #endif
+    }
+//:: #endif
 
 //:: if generate_setters and prop.needs_setter:
     //:: setter_template_file_name = "%s/custom/%s_%s.java" % (template_dir, msg.name if not builder else msg.name + '.Builder', prop.setter_name)
@@ -39,6 +76,9 @@
         //:: if prop.is_writeable and prop in msg.members:
         this.${prop.name} = ${prop.name};
         this.${prop.name}Set = true;
+        //::    if msg.has_data_slice and prop.name == "data":
+        this.dataSlice = null;
+        //::    #endif
         return this;
         //:: elif prop.is_writeable:
             throw new UnsupportedOperationException("Property ${prop.name} not supported in version #{version}");
@@ -47,5 +87,15 @@
         //:: #endif
     }
     //:: #endif
+    //:: if msg.has_data_slice and prop.name == "data":
+
+    @Override
+    public ${msg.interface.name}.Builder setDataSlice(ByteBuf dataSlice) {
+        this.dataSlice = dataSlice;
+        this.data = null;
+        this.dataSet = true;
+        return this;
+    }
+    //:: #endif
     //:: #endif
 //:: #endfor
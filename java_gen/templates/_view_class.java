@@ -0,0 +1,227 @@
+//:: import os
+//:: if os.path.exists("%s/custom/interface/%s.java" % (template_dir, msg.interface.name)) and msg.interface.name != "OFMessage":
+//::    raise Exception("View not supported for %s: custom interface methods" % msg.name)
+//:: #endif
+//:: layout = dict((m.name, (anchor, delta)) for m, anchor, delta in msg.view_layout if not m.is_pad)
+//:: anchors = [ m for m, _, _ in msg.view_layout if any(a == m for _, a, _ in msg.view_layout) ]
+    final static ViewReader VIEW_READER = new ViewReader();
+    static class ViewReader implements OFMessageReader<${msg.interface.name}> {
+        @Override
+        public ${msg.interface.name} readFrom(ByteBuf bb) throws OFParseError {
+//:: if msg.is_fixed_length:
+            if(bb.readableBytes() < LENGTH)
+//:: else:
+            if(bb.readableBytes() < MINIMUM_LENGTH)
+//:: #endif
+                return null;
+            int start = bb.readerIndex();
+//:: frame_length = "LENGTH"
+//:: for prop, anchor, delta in msg.view_layout:
+//::    if anchor is not None:
+//::        break
+//::    elif prop.is_length_value:
+//::        frame_length = prop.name
+            bb.readerIndex(start + ${delta});
+            ${prop.java_type.public_type} ${prop.name} = ${prop.java_type.read_op(version, pub_type=True)};
+            //:: if prop.is_fixed_value:
+            if(${prop.name} != ${prop.value})
+                throw new OFParseError("Wrong ${prop.name}: Expected=${prop.enum_value}(${prop.value}), got="+${prop.name});
+            //:: else:
+            if(${prop.name} < MINIMUM_LENGTH)
+                throw new OFParseError("Wrong ${prop.name}: Expected to be >= " + MINIMUM_LENGTH + ", was: " + ${prop.name});
+            //:: #endif
+            if(bb.readableBytes() + (bb.readerIndex() - start) < ${prop.name}) {
+                // Buffer does not have all data yet
+                bb.readerIndex(start);
+                return null;
+            }
+//::    elif prop.is_fixed_value and not prop.is_data:
+            // fixed value property ${prop.name} == ${prop.value}
+            bb.readerIndex(start + ${delta});
+            ${prop.java_type.priv_type} ${prop.name} = ${prop.java_type.read_op(version, pub_type=False)};
+            if(${prop.name} != ${prop.priv_value})
+                throw new OFParseError("Wrong ${prop.name}: Expected=${prop.enum_value}(${prop.value}), got="+${prop.name});
+//::    #endif
+//:: #endfor
+            bb.readerIndex(start);
+            // retained slice is released through View.release()
+            return new View(bb.readSlice(${frame_length}).retain());
+        }
+    }
+
+    /**
+     * Zero-copy view of a ${msg.name} that is backed by a retained slice of the buffer
+     * it was read from. Properties are decoded from the buffer on each access, writeTo
+     * copies the raw wire bytes. The slice must be released through
+     * {@link ReferenceCounted#release()} when the message is no longer used.
+     */
+    static class View implements ${msg.interface.inherited_declaration()}, ReferenceCounted {
+        private final ByteBuf buf;
+//:: for anchor in anchors:
+        private int ${anchor.name}EndIndex = -1;
+//:: #endfor
+
+        View(ByteBuf buf) {
+            this.buf = buf;
+        }
+
+        /** @return the immutable ${impl_class} decoded from the backing buffer */
+        ${impl_class} decode() {
+            try {
+                return (${impl_class}) READER.readFrom(buf.duplicate());
+            } catch (OFParseError e) {
+                throw new IllegalStateException("${msg.name}: cannot decode view", e);
+            }
+        }
+
+//:: for anchor in anchors:
+        // index into buf after the variable length member ${anchor.name}
+        private int ${anchor.name}End() {
+            int end = ${anchor.name}EndIndex;
+            if(end < 0) {
+                ByteBuf bb = buf.duplicate();
+                bb.readerIndex(${msg.view_offset(*layout[anchor.name])});
+                try {
+                    ${anchor.java_type.skip_op(version, length="bb.readableBytes()")};
+                } catch (Exception e) {
+                    throw new IllegalStateException("${msg.name}: cannot skip property ${anchor.name} in view", e);
+                }
+                ${anchor.name}EndIndex = end = bb.readerIndex();
+            }
+            return end;
+        }
+
+//:: #endfor
+//:: for prop in msg.interface.members:
+//::    if prop in msg.members:
+//::        version_prop = msg.member_by_name(prop.name)
+//::    #endif
+        @Override
+        public ${prop.java_type.public_type} ${prop.getter_name}()${ "" if prop in msg.members else "throws UnsupportedOperationException"} {
+//::    if not prop in msg.members:
+            throw new UnsupportedOperationException("Property ${prop.name} not supported in version #{version}");
+//::    elif os.path.exists("%s/custom/%s_%s.java" % (template_dir, msg.name, prop.getter_name)):
+            return decode().${prop.getter_name}();
+//::    elif version_prop.is_fixed_value:
+            return ${version_prop.enum_value};
+//::    else:
+            ByteBuf bb = buf.duplicate();
+            bb.readerIndex(${msg.view_offset(*layout[prop.name])});
+            try {
+                return ${version_prop.java_type.read_op(version, pub_type=True, length="bb.readableBytes()")};
+            } catch (Exception e) {
+                throw new IllegalStateException("${msg.name}: cannot decode property ${prop.name} from view", e);
+            }
+//::    #endif
+        }
+
+//::    if prop.java_type.has_raw:
+        @Override
+        public ${prop.java_type.raw_type} ${prop.raw_getter_name}()${ "" if prop in msg.members else "throws UnsupportedOperationException"} {
+//::        if prop in msg.members and not version_prop.is_fixed_value and version_prop.java_type.has_raw and not os.path.exists("%s/custom/%s_%s.java" % (template_dir, msg.name, prop.getter_name)):
+            int index = ${msg.view_offset(*layout[prop.name])};
+            return ${version_prop.java_type.raw_read_op(version, buf="buf", index="index")};
+//::        else:
+            return ${prop.java_type.raw_get_op(version, name=prop.getter_name + "()")};
+//::        #endif
+        }
+
+//::    #endif
+//::    if prop.needs_setter:
+        @Override
+        public ${msg.interface.name} ${prop.with_name}(${prop.java_type.public_type} ${prop.name})${ "" if prop in msg.members else " throws UnsupportedOperationException"} {
+//::        if prop.name == "xid" and prop in msg.members:
+            // copy the encoding with the xid patched, instead of decoding it
+            ByteBuf copy = Unpooled.buffer(buf.readableBytes());
+            copy.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+            copy.setInt(4, U32.t(xid));
+            return new View(copy);
+//::        else:
+            return decode().${prop.with_name}(${prop.name});
+//::        #endif
+        }
+
+//::    #endif
+//:: #endfor
+//:: if msg.has_data_slice:
+        @Override
+        public ByteBuf getDataSlice() {
+            int start = ${msg.view_offset(*layout["data"])};
+            return Unpooled.unmodifiableBuffer(buf.slice(start, buf.writerIndex() - start));
+        }
+
+//:: #endif
+        @Override
+        public ${msg.interface.name}.Builder createBuilder() {
+            return decode().createBuilder();
+        }
+
+        @Override
+        public void writeTo(ByteBuf bb) {
+            bb.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+        }
+
+        @Override
+        public int getWireLength() {
+            return buf.readableBytes();
+        }
+
+        @Override
+        public void putTo(PrimitiveSink sink) {
+            decode().putTo(sink);
+        }
+
+        @Override
+        public int refCnt() {
+            return buf.refCnt();
+        }
+
+        @Override
+        public View retain() {
+            buf.retain();
+            return this;
+        }
+
+        @Override
+        public View retain(int increment) {
+            buf.retain(increment);
+            return this;
+        }
+
+        @Override
+        public boolean release() {
+            return buf.release();
+        }
+
+        @Override
+        public boolean release(int decrement) {
+            return buf.release(decrement);
+        }
+
+        @Override
+        public String toString() {
+            return decode().toString();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return decode().equals(obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return decode().hashCode();
+        }
+//:: if any(m.name == 'xid' for m in msg.data_members):
+
+        @Override
+        public boolean equalsIgnoreXid(Object obj) {
+            return decode().equalsIgnoreXid(obj);
+        }
+
+        @Override
+        public int hashCodeIgnoreXid() {
+            return decode().hashCodeIgnoreXid();
+        }
+//:: #endif
+    }
@@ -140,6 +140,54 @@
         return (Masked<F>)result;
     }
 
+    @Override
+    public <F extends OFValueType<F>> long getRawLong(MatchField<F> field)
+            throws UnsupportedOperationException {
+        if (!supports(field))
+            throw new UnsupportedOperationException("OFMatch does not support matching on field " + field.getName());
+        if (isFullyWildcarded(field))
+            throw new IllegalStateException("OFMatch: field " + field.getName() + " is not matched");
+
+        switch (field.id) {
+            case IN_PORT:
+                return inPort.getPortNumber() & 0xFFFFFFFFL;
+            case ETH_DST:
+                return ethDst.getLong();
+            case ETH_SRC:
+                return ethSrc.getLong();
+            case ETH_TYPE:
+                return ethType.getValue();
+            case VLAN_VID:
+                return vlanVid.getRawVid() & 0xFFFF;
+            case VLAN_PCP:
+                return vlanPcp.getValue() & 0xFF;
+            case ARP_OP:
+            case IP_PROTO:
+                return ipProto.getIpProtocolNumber();
+            case IP_DSCP:
+                return ipDscp.getDscpValue() & 0xFF;
+            case ARP_SPA:
+            case IPV4_SRC:
+                return ipv4Src.getInt() & ((-1) << (32 - getIpv4SrcCidrMaskLen())) & 0xFFFFFFFFL;
+            case ARP_TPA:
+            case IPV4_DST:
+                return ipv4Dst.getInt() & ((-1) << (32 - getIpv4DstCidrMaskLen())) & 0xFFFFFFFFL;
+            case TCP_SRC:
+            case UDP_SRC:
+            case SCTP_SRC:
+            case ICMPV4_TYPE:
+                return tcpSrc.getPort();
+            case TCP_DST:
+            case UDP_DST:
+            case SCTP_DST:
+            case ICMPV4_CODE:
+                return tcpDst.getPort();
+            // NOT SUPPORTED:
+            default:
+                throw new UnsupportedOperationException("OFMatch does not support matching on field " + field.getName());
+        }
+    }
+
     @Override
     public boolean supports(MatchField<?> field) {
         switch (field.id) {
@@ -412,3 +460,4 @@
             builder.add(MatchField.IP_DSCP);
         return builder.build();
     }
+//:: include("custom/OFMatch_algebra.java", msg=msg)
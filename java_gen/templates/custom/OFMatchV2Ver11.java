@@ -13,6 +13,12 @@
         return null;
     }
 
+    @Override
+    public <F extends OFValueType<F>> long getRawLong(MatchField<F> field)
+            throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("${msg.name} does not support matching on field " + field.getName());
+    }
+
     @Override
     public boolean supports(MatchField<?> field) {
         // FIXME yotam - please replace with real implementation
@@ -47,3 +53,18 @@
     public Iterable<MatchField<?>> getMatchFields() {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public boolean overlaps(Match other) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isSubsetOf(Match other) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Match intersect(Match other) {
+        throw new UnsupportedOperationException();
+    }
@@ -1,18 +1,26 @@
 
+    /** working copy of the OXMs while fields are set, materialized into oxmList on build */
     private OFOxmList.Builder oxmListBuilder;
 
     private void initBuilder() {
         if (oxmListBuilder != null)
             return;
-        oxmListBuilder = new OFOxmList.Builder();
-    }
-
-    private void updateOxmList() {
-        this.oxmList = this.oxmListBuilder.build();
-        this.oxmListSet = true;
+        if (this.oxmListSet && this.oxmList != null)
+            oxmListBuilder = this.oxmList.createBuilder();
+//:: if has_parent:
+        else if (!this.oxmListSet)
+            oxmListBuilder = parentMessage.oxmList.createBuilder();
+//:: #endif
+        else
+            oxmListBuilder = new OFOxmList.Builder();
+        // the working copy now holds the state of the property
+        this.oxmList = null;
+        this.oxmListSet = false;
     }
 
     private <F extends OFValueType<F>> OFOxm<F> getOxm(MatchField<F> field) {
+        if (this.oxmListBuilder != null)
+            return this.oxmListBuilder.get(field);
 //:: if has_parent:
         return this.oxmListSet ? this.oxmList.get(field) : parentMessage.oxmList.get(field);
 //:: else:
@@ -73,7 +81,6 @@
         initBuilder();
         OFOxm<F> oxm = OFFactories.getFactory(OFVersion.${version.constant_version}).oxms().fromValue(value, field);
         this.oxmListBuilder.set(oxm);
-        updateOxmList();
         return this;
     }
 
@@ -83,7 +90,6 @@
         initBuilder();
         OFOxm<F> oxm = OFFactories.getFactory(OFVersion.${version.constant_version}).oxms().fromValueAndMask(value, mask, field);
         this.oxmListBuilder.set(oxm);
-        updateOxmList();
         return this;
     }
 
@@ -93,7 +99,6 @@
         initBuilder();
         OFOxm<F> oxm = OFFactories.getFactory(OFVersion.${version.constant_version}).oxms().fromMasked(valueWithMask, field);
         this.oxmListBuilder.set(oxm);
-        updateOxmList();
         return this;
     }
 
@@ -101,6 +106,5 @@
     public <F extends OFValueType<F>> Match.Builder wildcard(MatchField<F> field) {
         initBuilder();
         this.oxmListBuilder.unset(field);
-        updateOxmList();
         return this;
     }
@@ -0,0 +1,9 @@
+    @Override
+    public OFOxmList getOxmList() {
+        if (this.oxmListBuilder != null) {
+            this.oxmList = this.oxmListBuilder.build();
+            this.oxmListSet = true;
+            this.oxmListBuilder = null;
+        }
+        return oxmList;
+    }
@@ -0,0 +1,2 @@
+                if (this.oxmListBuilder != null)
+                    oxmList = this.oxmListBuilder.build();
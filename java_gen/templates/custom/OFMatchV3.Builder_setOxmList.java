@@ -0,0 +1,7 @@
+    @Override
+    public ${msg.interface.name}.Builder setOxmList(OFOxmList oxmList) {
+        this.oxmList = oxmList;
+        this.oxmListSet = true;
+        this.oxmListBuilder = null;
+        return this;
+    }
@@ -1,17 +1,41 @@
 //:: from generic_utils import OrderedSet
 //:: from java_gen.java_model import model
+    /**
+     * bitmap of the ordinals of the fields that are present and have their prerequisites
+     * satisfied, computed on first use
+     */
+    private volatile long[] validFields;
+
+    private long[] getValidFields() {
+        long[] valid = validFields;
+        if (valid == null) {
+            valid = new long[(MatchFields.values().length + 63) / 64];
+            for (OFOxm<?> oxm : oxmList) {
+                MatchField<?> field = oxm.getMatchField();
+                if (field.arePrerequisitesOK(oxmList))
+                    valid[field.id.ordinal() >>> 6] |= 1L << field.id.ordinal();
+            }
+            validFields = valid;
+        }
+        return valid;
+    }
+
+    /** @return true iff the field is present and its prerequisites are satisfied */
+    private boolean isValid(MatchField<?> field) {
+        int ordinal = field.id.ordinal();
+        return (getValidFields()[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
     @Override
     public <F extends OFValueType<F>> F get(MatchField<F> field)
             throws UnsupportedOperationException {
         if (!supports(field))
             throw new UnsupportedOperationException("${msg.name} does not support matching on field " + field.getName());
 
-        OFOxm<F> oxm = this.oxmList.get(field);
-
-        if (oxm == null || !field.arePrerequisitesOK(this))
+        if (!isValid(field))
             return null;
 
-        return oxm.getValue();
+        return this.oxmList.get(field).getValue();
     }
 
     @Override
@@ -20,11 +44,10 @@
         if (!supportsMasked(field))
             throw new UnsupportedOperationException("${msg.name} does not support masked matching on field " + field.getName());
 
-        OFOxm<F> oxm = this.oxmList.get(field);
-
-        if (oxm == null || !field.arePrerequisitesOK(this))
+        if (!isValid(field))
             return null;
 
+        OFOxm<F> oxm = this.oxmList.get(field);
         if (oxm.getMask() == null)
             return null;
 
@@ -32,6 +55,23 @@
         return Masked.of(oxm.getValue(), oxm.getMask());
     }
 
+    @Override
+    public <F extends OFValueType<F>> long getRawLong(MatchField<F> field)
+            throws UnsupportedOperationException {
+        if (!supports(field))
+            throw new UnsupportedOperationException("${msg.name} does not support matching on field " + field.getName());
+
+        if (!isValid(field))
+            throw new IllegalStateException("${msg.name}: field " + field.getName() + " is not matched");
+
+        // read the cached packed words rather than unwrapping the oxm value
+        try {
+            return getPacked().getRawValue(field);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedOperationException(e.getMessage(), e);
+        }
+    }
+
     private static boolean supportsField(MatchField<?> field) {
         switch (field.id) {
             //:: for id_constant in sorted(set(id_constant for _, id_constant, _ in model.oxm_map.values())):
@@ -58,36 +98,27 @@
         if (!supports(field))
             throw new UnsupportedOperationException("${msg.name} does not support matching on field " + field.getName());
 
-        if(!field.arePrerequisitesOK(this))
+        if(!isValid(field))
             return false;
 
-        OFOxm<?> oxm = this.oxmList.get(field);
-
-        return oxm != null && !oxm.isMasked();
+        return !this.oxmList.get(field).isMasked();
     }
 
     @Override
     public boolean isFullyWildcarded(MatchField<?> field) {
         if (!supports(field))
             throw new UnsupportedOperationException("${msg.name} does not support matching on field " + field.getName());
-        if(!field.arePrerequisitesOK(this))
-            return true;
-
-        OFOxm<?> oxm = this.oxmList.get(field);
-
-        return oxm == null;
+        return !isValid(field);
     }
 
     @Override
     public boolean isPartiallyMasked(MatchField<?> field) {
         if (!supports(field))
             throw new UnsupportedOperationException("${msg.name} does not support matching on field " + field.getName());
-        if(!field.arePrerequisitesOK(this))
+        if(!isValid(field))
             return false;
 
-        OFOxm<?> oxm = this.oxmList.get(field);
-
-        return oxm != null && oxm.isMasked();
+        return this.oxmList.get(field).isMasked();
     }
 
     private class MatchFieldIterator extends AbstractIterator<MatchField<?>> {
@@ -101,7 +132,7 @@
         protected MatchField<?> computeNext() {
             while(oxmIterator.hasNext()) {
                 OFOxm<?> oxm = oxmIterator.next();
-                if(oxm.getMatchField().arePrerequisitesOK(${msg.name}.this))
+                if(isValid(oxm.getMatchField()))
                    return oxm.getMatchField();
             }
             endOfData();
@@ -0,0 +1 @@
+//:: include("custom/OFMatchV3.Builder_getOxmList.java", msg=msg, version=version, has_parent=False)
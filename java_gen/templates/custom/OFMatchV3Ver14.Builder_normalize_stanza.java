@@ -0,0 +1 @@
+//:: include("custom/OFMatchV3.Builder_normalize_stanza.java", msg=msg, version=version, has_parent=False)
@@ -0,0 +1 @@
+//:: include("custom/OFMatchV3.Builder_reset_stanza.java", msg=msg, version=version, has_parent=has_parent)
@@ -1 +1,2 @@
 //:: include("custom/OFMatchV3.java", msg=msg, has_parent=False)
+//:: include("custom/OFMatch_algebra.java", msg=msg)
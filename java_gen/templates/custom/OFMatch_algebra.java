@@ -0,0 +1,45 @@
+    /** packed form of this match, computed on first use */
+    private volatile PackedMatch packed;
+
+    private PackedMatch getPacked() {
+        PackedMatch result = packed;
+        if (result == null) {
+            result = PackedMatch.of(this);
+            packed = result;
+        }
+        return result;
+    }
+
+    private static PackedMatch pack(Match match) {
+        try {
+            if (match instanceof ${msg.name})
+                return ((${msg.name}) match).getPacked();
+            return PackedMatch.of(match);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedOperationException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean overlaps(Match other) {
+        return pack(this).overlaps(pack(other));
+    }
+
+    @Override
+    public boolean isSubsetOf(Match other) {
+        return pack(this).isSubsetOf(pack(other));
+    }
+
+    @Override
+    public Match intersect(Match other) {
+        PackedMatch self = pack(this);
+        PackedMatch otherPacked = pack(other);
+        PackedMatch intersection = self.intersect(otherPacked);
+        if (intersection == null)
+            return null;
+        if (intersection == self)
+            return this;
+        if (intersection == otherPacked && other.getVersion() == getVersion())
+            return other;
+        return intersection.toMatch(OFFactories.getFactory(getVersion()));
+    }
@@ -0,0 +1 @@
+//:: include("custom/OFStatV6.Builder_reset_stanza.java", msg=msg, has_parent=has_parent)
@@ -93,6 +93,13 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
 
     // Accessors for OF message fields
     //:: include("_field_accessors.java", msg=msg, generate_setters=False, builder=False, has_parent=False)
+    //:: if msg.has_data_slice:
+
+    @Override
+    public ByteBuf getDataSlice() {
+        return Unpooled.unmodifiableBuffer(Unpooled.wrappedBuffer(data));
+    }
+    //:: #endif
 
     //:: if os.path.exists("%s/custom/%s.java" % (template_dir, msg.name)):
     //:: include("custom/%s.java" % msg.name, msg=msg, version=version)
@@ -111,6 +118,10 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
         private boolean ${prop.name}Set;
         private ${prop.java_type.public_type} ${prop.name};
 //:: #endfor
+//:: if msg.has_data_slice:
+        // payload set by setDataSlice, replaces data
+        private ByteBuf dataSlice;
+//:: #endif
 
         BuilderWithParent(${impl_class} parentMessage) {
             this.parentMessage = parentMessage;
@@ -121,25 +132,20 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
 
         @Override
         public ${msg.interface.name} build() {
-                //:: for prop in msg.data_members:
-                ${prop.java_type.public_type} ${prop.name} = this.${prop.name}Set ? this.${prop.name} : parentMessage.${prop.name};
-                //::    if not prop.is_nullable and not prop.java_type.is_primitive:
-                if(${prop.name} == null)
-                    throw new NullPointerException("Property ${prop.name} must not be null");
-                //::    #endif
-                //:: #endfor
-
-                //
-                //:: if os.path.exists("%s/custom/%s.Builder_normalize_stanza.java" % (template_dir, msg.name)):
-                //:: include("custom/%s.Builder_normalize_stanza.java" % msg.name, msg=msg, version=version, has_parent=False)
-                //:: #endif
-                return new ${impl_class}(
+//:: include("_builder_values.java", msg=msg, version=version, has_parent=True)
+//:: if msg.has_data_slice:
+            if(dataSlice != null)
+                data = ChannelUtils.getBytes(dataSlice);
+//:: #endif
+            return new ${impl_class}(
                 //:: for i, prop in enumerate(msg.data_members):
                 //::    comma = "," if i < len(msg.data_members)-1 else ""
                     ${prop.name}${comma}
                 //:: #endfor
                 );
         }
+
+//:: include("_builder_reuse.java", msg=msg, version=version, has_parent=True)
         //:: if os.path.exists("%s/custom/%s.Builder.java" % (template_dir, msg.name)):
         //:: include("custom/%s.Builder.java" % msg.name, msg=msg, version=version, has_parent=True)
         //:: #endif
@@ -152,28 +158,20 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
         private boolean ${prop.name}Set;
         private ${prop.java_type.public_type} ${prop.name};
 //:: #endfor
+//:: if msg.has_data_slice:
+        // payload set by setDataSlice, replaces data
+        private ByteBuf dataSlice;
+//:: #endif
 
 //:: include("_field_accessors.java", msg=msg, generate_setters=True, builder=True, has_parent=False)
 //
         @Override
         public ${msg.interface.name} build() {
-            //:: for prop in msg.data_members:
-            //::    if prop.default_value:
-            ${prop.java_type.public_type} ${prop.name} = this.${prop.name}Set ? this.${prop.name} : ${prop.default_name};
-            //:: else:
-            if(!this.${prop.name}Set)
-                throw new IllegalStateException("Property ${prop.name} doesn't have default value -- must be set");
-            //::    #endif
-            //::    if not prop.is_nullable and not prop.java_type.is_primitive:
-            if(${prop.name} == null)
-                throw new NullPointerException("Property ${prop.name} must not be null");
-            //::    #endif
-            //:: #endfor
-
-            //:: if os.path.exists("%s/custom/%s.Builder_normalize_stanza.java" % (template_dir, msg.name)):
-            //:: include("custom/%s.Builder_normalize_stanza.java" % msg.name, msg=msg, version=version, has_parent=False)
-            //:: #endif
-
+//:: include("_builder_values.java", msg=msg, version=version, has_parent=False)
+//:: if msg.has_data_slice:
+            if(dataSlice != null)
+                data = ChannelUtils.getBytes(dataSlice);
+//:: #endif
             return new ${impl_class}(
                 //:: for i, prop in enumerate(msg.data_members):
                 //::    comma = "," if i < len(msg.data_members)-1 else ""
@@ -181,6 +179,8 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
                 //:: #endfor
                 );
         }
+
+//:: include("_builder_reuse.java", msg=msg, version=version, has_parent=False)
         //:: if os.path.exists("%s/custom/%s.Builder.java" % (template_dir, msg.name)):
         //:: include("custom/%s.Builder.java" % msg.name, msg=msg, version=version, has_parent=False)
         //:: #endif
@@ -194,8 +194,24 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
     //:: #endif
 
 
+//:: stream_prop = msg.stream_member
+//:: if stream_prop:
+    final static Reader READER = new Reader(null);
+    static class Reader implements OFMessageReader<${msg.interface.name}> {
+        private final OFListVisitor<? super ${stream_prop.list_element_type}> ${stream_prop.name}Visitor;
+
+        /**
+         * @param ${stream_prop.name}Visitor if not null, ${stream_prop.name} are passed to the visitor as they are read,
+         *        instead of being collected into the ${stream_prop.name} list of the message (which is then empty)
+         */
+        Reader(OFListVisitor<? super ${stream_prop.list_element_type}> ${stream_prop.name}Visitor) {
+            this.${stream_prop.name}Visitor = ${stream_prop.name}Visitor;
+        }
+
+//:: else:
     final static Reader READER = new Reader();
     static class Reader implements OFMessageReader<${msg.interface.name}> {
+//:: #endif
         @Override
         public ${msg.interface.name} readFrom(ByteBuf bb) throws OFParseError {
 //:: for prop in msg.members:
@@ -208,6 +224,15 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
 //:: for prop in msg.members:
 //:: if prop.is_virtual:
 //::    continue
+//:: elif prop.is_data and stream_prop and prop.name == stream_prop.name:
+//::    list_length = fields_with_length_member[prop.c_name] if prop.c_name in fields_with_length_member else "length - (bb.readerIndex() - start)"
+            ${prop.java_type.public_type} ${prop.name};
+            if(${prop.name}Visitor == null) {
+                ${prop.name} = ${prop.java_type.read_op(version, pub_type=True, length=list_length)};
+            } else {
+                ChannelUtils.readList(bb, ${list_length}, ${prop.list_element_type}Ver${version.dotless_version}.READER, ${prop.name}Visitor);
+                ${prop.name} = ${prop.default_value};
+            }
 //:: elif prop.is_data:
             ${prop.java_type.public_type} ${prop.name} = ${prop.java_type.read_op(version, pub_type=True,
                     length=fields_with_length_member[prop.c_name] if prop.c_name in fields_with_length_member else None)};
@@ -277,6 +302,11 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
         }
     }
 
+    //:: if msg.has_view:
+    //:: include("_view_class.java", msg=msg, version=version, impl_class=impl_class)
+
+    //:: #endif
+
     public void putTo(PrimitiveSink sink) {
         FUNNEL.funnel(this, sink);
     }
@@ -308,10 +338,40 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
         WRITER.write(bb, this);
     }
 
+    @Override
+    public int getWireLength() {
+//:: if msg.is_fixed_length:
+        return LENGTH;
+//:: else:
+//::    fixed = sum(p.fixed_length for p in msg.members if not p.is_virtual and p.fixed_length is not None)
+        int length = ${fixed};
+//::    for prop in msg.members:
+//::        if not prop.is_virtual and prop.fixed_length is None:
+        length += ${prop.java_type.length_op(version, prop.name, pub_type=True)};
+//::        #endif
+//::    #endfor
+//::    if msg.align and any(p.is_length_value for p in msg.members):
+        // aligned to ${msg.align} bytes
+        length = (length + ${msg.align-1})/${msg.align} * ${msg.align};
+//::    #endif
+        return length;
+//:: #endif
+    }
+
     final static Writer WRITER = new Writer();
     static class Writer implements OFMessageWriter<${impl_class}> {
         @Override
         public void write(ByteBuf bb, ${impl_class} message) {
+            write(bb${"".join(", message." + prop.name for prop in msg.data_members)}${", null" if msg.has_data_slice else ""});
+        }
+
+//:: if msg.has_data_slice:
+        /** write a message with the given property values, e.g., those of a builder, and the
+            payload dataSlice instead of data if it is not null */
+//:: else:
+        /** write a message with the given property values, e.g., those of a builder */
+//:: #endif
+        static void write(ByteBuf bb${"".join(", %s %s" % (prop.java_type.public_type, prop.name) for prop in msg.data_members)}${", ByteBuf dataSlice" if msg.has_data_slice else ""}) {
 //:: if not msg.is_fixed_length:
             int startIndex = bb.writerIndex();
 //:: #endif
@@ -323,8 +383,13 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
 //:: #endif
 //:: if prop.is_virtual:
 //::    continue
+//:: elif prop.is_data and msg.has_data_slice and prop.name == "data":
+            if(dataSlice != null)
+                bb.writeBytes(dataSlice, dataSlice.readerIndex(), dataSlice.readableBytes());
+            else
+                ${prop.java_type.write_op(version, prop.name, pub_type=True)};
 //:: elif prop.is_data:
-            ${prop.java_type.write_op(version, "message." + prop.name, pub_type=True)};
+            ${prop.java_type.write_op(version, prop.name, pub_type=True)};
 //:: elif prop.is_pad:
             // pad: ${prop.length} bytes
             bb.writeZero(${prop.length});
@@ -395,6 +460,10 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
             return true;
         if (obj == null)
             return false;
+        //:: if msg.has_view:
+        if (obj instanceof View)
+            obj = ((View) obj).decode();
+        //:: #endif
         if (getClass() != obj.getClass())
             return false;
         //:: if len(msg.data_members) > 0:
@@ -426,6 +495,10 @@ class ${impl_class} implements ${msg.interface.inherited_declaration()} {
             return true;
         if (obj == null)
             return false;
+        //:: if msg.has_view:
+        if (obj instanceof View)
+            obj = ((View) obj).decode();
+        //:: #endif
         if (getClass() != obj.getClass())
             return false;
         //:: if len(msg.data_members) > 0:
@@ -36,7 +36,8 @@ package org.projectfloodlight.openflow.protocol;
 
 public final class OFFactories {
 
-    private static final GenericReader GENERIC_READER = new GenericReader();
+    private static final GenericReader GENERIC_READER = new GenericReader(false);
+    private static final GenericReader GENERIC_VIEW_READER = new GenericReader(true);
 
     public static OFFactory getFactory(OFVersion version) {
         switch(version) {
@@ -50,6 +51,12 @@ public final class OFFactories {
     }
 
     private static class GenericReader implements OFMessageReader<OFMessage> {
+        private final boolean views;
+
+        GenericReader(boolean views) {
+            this.views = views;
+        }
+
         public OFMessage readFrom(ByteBuf bb) throws OFParseError {
             if(!bb.isReadable())
                 return null;
@@ -64,11 +71,19 @@ public final class OFFactories {
             default:
                 throw new IllegalArgumentException("Unknown wire version: " + wireVersion);
             }
-            return factory.getReader().readFrom(bb);
+            return views ? factory.getViewReader().readFrom(bb) : factory.getReader().readFrom(bb);
         }
     }
 
     public static OFMessageReader<OFMessage> getGenericReader() {
         return GENERIC_READER;
     }
+
+    /**
+     * Returns a version-agnostic reader that decodes hot messages (e.g., OFPacketIn) into
+     * zero-copy views. See {@link OFFactory#getViewReader()}.
+     */
+    public static OFMessageReader<OFMessage> getGenericViewReader() {
+        return GENERIC_VIEW_READER;
+    }
 }
@@ -40,10 +40,6 @@ import org.projectfloodlight.openflow.protocol.OFOxmList;
 public class ${factory.name} implements ${factory.interface.name} {
     public final static ${factory.name} INSTANCE = new ${factory.name}();
 
-    //:: if factory.interface.xid_generator:
-    private final XidGenerator xidGenerator = XidGenerators.global();
-    //:: #endif
-
     //:: for name, clazz in factory.interface.sub_factories.items():
     public ${clazz} ${name}() {
         return ${clazz}Ver${factory.version.dotless_version}.INSTANCE;
@@ -95,6 +91,15 @@ public class ${factory.name} implements ${factory.interface.name} {
         //:: #endif
     }
     //:: #endif
+    //:: if i.stream_member:
+    public OFMessageReader<${i.name}> get${i.name[2:]}StreamReader(OFListVisitor<? super ${i.stream_member.list_element_type}> ${i.stream_member.name}Visitor) {
+        //::   if i.has_version(factory.version) and model.generate_class(i.versioned_class(factory.version)):
+        return new ${i.versioned_class(factory.version).name}.Reader(${i.stream_member.name}Visitor);
+        //:: else:
+        throw new UnsupportedOperationException("${i.name} not supported in version ${factory.version}");
+        //:: #endif
+    }
+    //:: #endif
 //:: #endfor
 
     public OFMessageReader<${factory.base_class}> getReader() {
@@ -110,6 +115,10 @@ public class ${factory.name} implements ${factory.interface.name} {
     public Stat.Builder buildStat() {
             return buildStatV6();
     }
+
+    public OFMessageReader<${factory.base_class}> getViewReader() {
+        return ${factory.versioned_base_class.name}.VIEW_READER;
+    }
 //:: elif factory.interface.name == 'OFOxms':
     @SuppressWarnings("unchecked")
     public <F extends OFValueType<F>> OFOxm<F> fromValue(F value, MatchField<F> field) {
@@ -187,7 +196,7 @@ public class ${factory.name} implements ${factory.interface.name} {
 //:: #endif
 //:: if factory.interface.xid_generator:
     public long nextXid() {
-        return xidGenerator.nextXid();
+        return XidGenerators.global().nextXid();
     }
 //:: #endif
 
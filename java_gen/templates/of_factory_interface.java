@@ -51,6 +51,9 @@ public interface ${factory.name}${" extends XidGenerator" if factory.xid_generat
     //:: if len(i.writeable_members) <= 2:
     ${i.name} ${factory.method_name(i, builder=False )}(${", ".join("%s %s" % (p.java_type.public_type, p.name) for p in i.writeable_members if p.name != "xid" )});
     //:: #endif
+    //:: if i.stream_member:
+    OFMessageReader<${i.name}> get${i.name[2:]}StreamReader(OFListVisitor<? super ${i.stream_member.list_element_type}> ${i.stream_member.name}Visitor)${ "" if i.is_universal else " throws UnsupportedOperationException"};
+    //:: #endif
 //:: #endfor
 //:: if factory.name == 'OFFactory':
     Match.Builder buildMatch();
@@ -59,6 +62,16 @@ public interface ${factory.name}${" extends XidGenerator" if factory.xid_generat
 //:: #endif
 
     OFMessageReader<${factory.base_class}> getReader();
+//:: if factory.name == 'OFFactory':
+//:: from java_gen.java_model import model
+    /**
+     * Returns a reader that decodes ${", ".join(sorted(model.view_interfaces))} messages
+     * into zero-copy views backed by a retained slice of the input buffer. Such messages
+     * implement {@link io.netty.util.ReferenceCounted} and must be released when no
+     * longer used. All other messages are read as by {@link #getReader()}.
+     */
+    OFMessageReader<${factory.base_class}> getViewReader();
+//:: #endif
     OFVersion getVersion();
 //:: if factory.name == 'OFOxms':
 
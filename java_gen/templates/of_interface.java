@@ -38,7 +38,18 @@ package ${msg.package};
 
 public interface ${msg.name}${ "<%s>" % msg.type_annotation if msg.type_annotation else ""} extends ${", ".join(msg.all_parent_interfaces)} {
 //:: for prop in msg.members:
+//:: if prop.java_type.lazy_list:
+    /** when read from the wire, the elements are decoded on each access and iteration, see LazyList */
+//:: #endif
     ${prop.java_type.public_type} ${prop.getter_name}()${ "" if prop.is_universal else " throws UnsupportedOperationException"};
+//:: if prop.java_type.has_raw:
+    ${prop.java_type.raw_type} ${prop.raw_getter_name}()${ "" if prop.is_universal else " throws UnsupportedOperationException"};
+//:: #endif
+//:: #endfor
+//:: for prop in msg.members:
+//:: if prop.needs_setter:
+    ${msg.name}${msg.type_variable} ${prop.with_name}(${prop.java_type.public_type} ${prop.name})${ "" if prop.is_universal else " throws UnsupportedOperationException"};
+//:: #endif
 //:: #endfor
 //:: if os.path.exists("%s/custom/interface/%s.java" % (template_dir, msg.name)):
 //:: include("custom/interface/%s.java" % msg.name, msg=msg)
@@ -50,6 +61,25 @@ public interface ${msg.name}${ "<%s>" % msg.type_annotation if msg.type_annotati
     //:: simple_type, annotation = re.match(r'(\w+)(<.*>)?', msg.parent_interface).groups() if msg.parent_interface else ("", "")
     public interface Builder${ "<%s>" % msg.type_annotation if msg.type_annotation else ""} ${"extends %s.Builder" % simple_type if msg.parent_interface else ""}${annotation if annotation else ""} {
         ${msg.name}${msg.type_variable} build();
+//:: if msg.member_by_name("xid"):
+        /**
+         * unset all properties, so that the builder can be reused, e.g., from a thread-local pool.
+         * A builder from the factory draws a new xid, a builder from a message reverts to it.
+         */
+//:: else:
+        /** unset all properties, so that the builder can be reused, e.g., from a thread-local pool */
+//:: #endif
+        Builder${msg.type_variable} reset();
+        /** write the object built from the current properties, without creating it */
+        void writeTo(ByteBuf bb);
+//:: if msg.has_data_slice:
+        /**
+         * set the data payload to the readable bytes of the buffer. writeTo(ByteBuf) writes them
+         * without copying them to an array, build() copies them. The buffer is not retained and
+         * its indexes are not changed, it must stay valid until then.
+         */
+        Builder${msg.type_variable} setDataSlice(ByteBuf dataSlice);
+//:: #endif
 //:: for prop in msg.members:
         ${prop.java_type.public_type} ${prop.getter_name}()${ "" if prop.is_universal else " throws UnsupportedOperationException"};
 //:: if prop.needs_setter:
@@ -62,7 +62,8 @@ abstract class ${msg.name} {
 //::    for prop in msg.members:
 //::       if prop.is_data:
             ${prop.java_type.skip_op(version,
-                    length=fields_with_length_member[prop.c_name] if prop.c_name in fields_with_length_member else None)};
+                    length=fields_with_length_member[prop.c_name] if prop.c_name in fields_with_length_member else None,
+                    fixed_length=prop.fixed_length)};
 //:: elif prop.is_pad:
             // pad: ${prop.length} bytes
             bb.skipBytes(${prop.length});
@@ -104,4 +105,34 @@ abstract class ${msg.name} {
 //:: #endfor
         }
     }
+//:: if msg.interface.name == "OFMessage":
+//::    disc = msg.member_by_name(msg.discriminator.name)
+
+    public final static ${msg.name}.ViewReader VIEW_READER = new ViewReader();
+
+    /** Reader that returns zero-copy Views for ${", ".join(sorted(model.view_interfaces))} messages */
+    static class ViewReader implements OFMessageReader<${msg.interface.inherited_declaration()}> {
+        @Override
+        public ${msg.interface.inherited_declaration()} readFrom(ByteBuf bb) throws OFParseError {
+            if(bb.readableBytes() < MINIMUM_LENGTH)
+                return null;
+            int start = bb.readerIndex();
+            bb.skipBytes(${disc.member.offset});
+            ${disc.java_type.priv_type} ${disc.name} = ${disc.java_type.read_op(version, pub_type=False)};
+            bb.readerIndex(start);
+            switch(${disc.name}) {
+//::     for sub in msg.subclasses:
+//::           if model.generate_class(sub) and sub.has_view:
+//::           m = sub.member_by_name(disc.name)
+               case ${m.priv_value}:
+                   // discriminator value ${m.enum_value}=${m.value} for class ${sub.name}
+                   return ${sub.name}.VIEW_READER.readFrom(bb);
+//::           #endif
+//::     #endfor
+               default:
+                   return READER.readFrom(bb);
+            }
+        }
+    }
+//:: #endif
 }
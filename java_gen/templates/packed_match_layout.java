@@ -0,0 +1,85 @@
+//:: # Copyright 2013, Big Switch Networks, Inc.
+//:: #
+//:: # LoxiGen is licensed under the Eclipse Public License, version 1.0 (EPL), with
+//:: # the following special exception:
+//:: #
+//:: # LOXI Exception
+//:: #
+//:: # As a special exception to the terms of the EPL, you may distribute libraries
+//:: # generated by LoxiGen (LoxiGen Libraries) under the terms of your choice, provided
+//:: # that copyright and licensing notices generated by LoxiGen are not altered or removed
+//:: # from the LoxiGen Libraries and the notice provided below is (i) included in
+//:: # the LoxiGen Libraries, if distributed in source code form and (ii) included in any
+//:: # documentation for the LoxiGen Libraries, if distributed in binary form.
+//:: #
+//:: # Notice: "Copyright 2013, Big Switch Networks, Inc. This library was generated by the LoxiGen Compiler."
+//:: #
+//:: # You may not use this file except in compliance with the EPL or LOXI Exception. You may obtain
+//:: # a copy of the EPL at:
+//:: #
+//:: # http::: #www.eclipse.org/legal/epl-v10.html
+//:: #
+//:: # Unless required by applicable law or agreed to in writing, software
+//:: # distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+//:: # WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+//:: # EPL for the specific language governing permissions and limitations
+//:: # under the EPL.
+//::
+//::
+//:: include('_copyright.java')
+
+//:: include('_autogen.java')
+
+package ${package};
+
+//:: include("_imports.java")
+
+/**
+ * Fixed layout of the match fields in the value and mask words of a {@link PackedMatch}.
+ * <p>
+ * Fields of up to 8 bytes share words and are stored right-aligned at a bit shift, longer
+ * fields occupy consecutive words of their own, big-endian. Values are converted to and from
+ * the wire encoding of the OXM of the given OpenFlow version.
+ */
+final class ${class_name} {
+    /** number of words of a packed value or mask vector */
+    static final int WORDS = ${words};
+
+    private static final int FIELDS = MatchFields.values().length;
+
+    /** byte length of the value of each field (by ordinal), 0 if the field cannot be packed */
+    static final int[] LENGTH = new int[FIELDS];
+    /** index of the (first) word of each field */
+    static final int[] WORD = new int[FIELDS];
+    /** bit shift of fields of up to 8 bytes within their word */
+    static final int[] SHIFT = new int[FIELDS];
+    /** OpenFlow version of the OXMs used to convert each field */
+    static final OFVersion[] VERSION = new OFVersion[FIELDS];
+    /** length of the fixed OXM header preceding the value */
+    static final int[] HEADER_LENGTH = new int[FIELDS];
+    /** fixed OXM header (type_len and experimenter id, if any) of the exact OXM */
+    static final long[] HEADER = new long[FIELDS];
+    /** fixed OXM header of the masked OXM, 0 if the field cannot be masked */
+    static final long[] MASKED_HEADER = new long[FIELDS];
+
+    static {
+        //:: for f in fields:
+        //::    masked_header = "0x%xL" % f.masked_header if f.masked_header is not None else "0"
+        define(MatchFields.${f.value}, OFVersion.${f.version.constant_version}, ${f.length}, ${f.word}, ${f.shift}, ${f.header_length}, 0x${"%x" % f.header}L, ${masked_header});
+        //:: #endfor
+    }
+
+    private ${class_name}() {}
+
+    private static void define(MatchFields id, OFVersion version, int length, int word, int shift,
+            int headerLength, long header, long maskedHeader) {
+        int i = id.ordinal();
+        VERSION[i] = version;
+        LENGTH[i] = length;
+        WORD[i] = word;
+        SHIFT[i] = shift;
+        HEADER_LENGTH[i] = headerLength;
+        HEADER[i] = header;
+        MASKED_HEADER[i] = maskedHeader;
+    }
+}
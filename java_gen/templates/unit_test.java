@@ -71,6 +71,7 @@ public class ${test.name} {
         //:: #endif
         ByteBuf bb = Unpooled.buffer();
         ${var_name}.writeTo(bb);
+        assertEquals(bb.readableBytes(), ${var_name}.getWireLength());
         byte[] written = new byte[bb.readableBytes()];
         bb.readBytes(written);
 
@@ -110,6 +111,7 @@ public class ${test.name} {
        // write message again
        ByteBuf bb = Unpooled.buffer();
        ${var_name}.writeTo(bb);
+       assertEquals(bb.readableBytes(), ${var_name}.getWireLength());
        byte[] written = new byte[bb.readableBytes()];
        bb.readBytes(written);
 